@@ -0,0 +1,78 @@
+package com.springboot.reactivesimplebank.dto;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.springboot.reactivesimplebank.dto.bankAccountDto.AccountWithTransactions;
+import com.springboot.reactivesimplebank.dto.bankAccountDto.CustomerAccountsResponse;
+import com.springboot.reactivesimplebank.dto.transactionDto.TotalAmount;
+import com.springboot.reactivesimplebank.dto.transactionDto.TransactionDto;
+import com.springboot.reactivesimplebank.transaction.model.Transaction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Jackson serialization of the response bodies built by the resume endpoints, with an ObjectMapper configured
+ * the way Spring Boot configures the WebFlux codecs. Run with {@code ./gradlew jmh -PjmhIncludes=Serialization}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+    private static final int ACCOUNTS = 5;
+
+    @Param({"10", "100", "10000"})
+    public int transactions;
+
+    private ObjectMapper objectMapper;
+    private TotalAmount totalAmount;
+    private CustomerAccountsResponse accountsResponse;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        final LocalDateTime now = LocalDateTime.now();
+        final List<Transaction> history = IntStream.range(0, transactions)
+                .mapToObj(i -> new Transaction((long) i, "deposit", 1L, 100L, now.minusMinutes(i)))
+                .toList();
+        totalAmount = new TotalAmount(100L * transactions, history);
+
+        final List<TransactionDto> perAccount = IntStream.range(0, transactions / ACCOUNTS)
+                .mapToObj(i -> new TransactionDto("deposit", 100L))
+                .toList();
+        accountsResponse = new CustomerAccountsResponse("Luisa", IntStream.range(0, ACCOUNTS)
+                .mapToObj(i -> new AccountWithTransactions("1234-5678-9012-345" + i, perAccount,
+                        100L * perAccount.size()))
+                .toList(), 100L * transactions);
+    }
+
+    @Benchmark
+    public byte[] totalAmount() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(totalAmount);
+    }
+
+    @Benchmark
+    public byte[] customerAccountsResponse() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(accountsResponse);
+    }
+}
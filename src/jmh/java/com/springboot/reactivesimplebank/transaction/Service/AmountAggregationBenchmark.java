@@ -0,0 +1,79 @@
+package com.springboot.reactivesimplebank.transaction.Service;
+
+import com.springboot.reactivesimplebank.transaction.model.Transaction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Sums transaction amounts the old way, boxing every element into a Double and reducing with Double::sum, against
+ * the primitive long paths used now. Run with {@code ./gradlew jmh -PjmhIncludes=AmountAggregationBenchmark};
+ * the GC profiler reports the allocation rate (gc.alloc.rate.norm is bytes per sum) next to the throughput.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AmountAggregationBenchmark {
+
+    @Param({"1000000"})
+    public int transactions;
+
+    private List<Transaction> history;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        final LocalDateTime now = LocalDateTime.now();
+        history = IntStream.range(0, transactions)
+                .mapToObj(i -> new Transaction((long) i, "deposit", 1L, 1_000L + i % 10_000, now))
+                .toList();
+    }
+
+    @Benchmark
+    public Double fluxBoxedDoubleReduce() {
+        return Flux.fromIterable(history)
+                .map(transaction -> transaction.getAmount().doubleValue())
+                .reduce(0d, Double::sum)
+                .block();
+    }
+
+    @Benchmark
+    public Long fluxPrimitiveLongCollect() {
+        return Flux.fromIterable(history)
+                .collect(() -> new long[1],
+                        (sum, transaction) -> sum[0] = Math.addExact(sum[0], transaction.getAmount()))
+                .map(sum -> sum[0])
+                .block();
+    }
+
+    @Benchmark
+    public double streamBoxedDoubleReduce() {
+        return history.stream()
+                .map(transaction -> transaction.getAmount().doubleValue())
+                .reduce(0d, Double::sum);
+    }
+
+    @Benchmark
+    public long streamPrimitiveLongReduce() {
+        return history.stream()
+                .mapToLong(Transaction::getAmount)
+                .reduce(0L, Math::addExact);
+    }
+}
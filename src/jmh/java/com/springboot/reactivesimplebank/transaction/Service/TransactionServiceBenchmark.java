@@ -0,0 +1,96 @@
+package com.springboot.reactivesimplebank.transaction.Service;
+
+import com.springboot.reactivesimplebank.bankAccount.repository.IBankAccountRepository;
+import com.springboot.reactivesimplebank.transaction.model.Transaction;
+import com.springboot.reactivesimplebank.transaction.repository.ITransactionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+/**
+ * Service hot paths over in-memory repositories, so only the reactive pipeline and the aggregation are measured.
+ * Run with {@code ./gradlew jmh -PjmhIncludes=TransactionServiceBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransactionServiceBenchmark {
+
+    private static final Long BANK_ACCOUNT_ID = 1L;
+
+    @Param({"10", "100", "10000"})
+    public int transactions;
+
+    private TransactionService transactionService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        final LocalDateTime now = LocalDateTime.now();
+        final List<Transaction> history = IntStream.range(0, transactions)
+                .mapToObj(i -> new Transaction((long) i, i % 2 == 0 ? "deposit" : "withdrawal", BANK_ACCOUNT_ID,
+                        i % 2 == 0 ? 100L : -40L, now.minusMinutes(i)))
+                .toList();
+        final long balance = history.stream().mapToLong(Transaction::getAmount).sum();
+
+        final ITransactionRepository transactionRepository = stub(ITransactionRepository.class, Map.of(
+                "findAllByBankAccountId", args -> Flux.fromIterable(history)));
+        final IBankAccountRepository bankAccountRepository = stub(IBankAccountRepository.class, Map.of(
+                "findBalanceByBankAccountId", args -> Mono.just(balance)));
+
+        transactionService = new TransactionService(transactionRepository, bankAccountRepository, null, null,
+                new AccountWriteLanes(1, new SimpleMeterRegistry()), null, null, null, null, null, null);
+    }
+
+    @Benchmark
+    public void getFullResume(final Blackhole blackhole) {
+        blackhole.consume(transactionService.getFullResume(BANK_ACCOUNT_ID).block());
+    }
+
+    @Benchmark
+    public void validateValidType(final Blackhole blackhole) {
+        transactionService.validateType("Deposit").subscribe(blackhole::consume, blackhole::consume);
+    }
+
+    @Benchmark
+    public void validateInvalidType(final Blackhole blackhole) {
+        transactionService.validateType("refund").subscribe(blackhole::consume, blackhole::consume);
+    }
+
+    /**
+     * Repository stand-in that answers the listed methods and fails on anything else.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> T stub(final Class<T> type, final Map<String, Function<Object[], Object>> answers) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            final Function<Object[], Object> answer = answers.get(method.getName());
+            if (answer == null) {
+                throw new UnsupportedOperationException(method.getName());
+            }
+            return answer.apply(args);
+        });
+    }
+}
@@ -2,14 +2,27 @@ package com.springboot.reactivesimplebank.bankAccount.controller;
 
 import com.springboot.reactivesimplebank.bankAccount.model.BankAccount;
 import com.springboot.reactivesimplebank.bankAccount.service.BankAccountService;
+import com.springboot.reactivesimplebank.dto.bankAccountDto.AccountBalance;
+import com.springboot.reactivesimplebank.exception.customExceptions.InvalidRequestParameterException;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+
 @RestController
 @RequestMapping("/accounts")
 public class BankAccountController {
 
+    /**
+     * The last instant of a day at the microsecond precision MySQL keeps, so it never rounds into the next day.
+     */
+    private static final LocalTime END_OF_DAY = LocalTime.MAX.truncatedTo(ChronoUnit.MICROS);
+
     private final BankAccountService bankAccountService;
 
     public BankAccountController(BankAccountService bankAccountService) {
@@ -21,6 +34,30 @@ public class BankAccountController {
         return bankAccountService.findById(bankAccountId);
     }
 
+    /**
+     * {@code asOf} is an ISO date-time, or an ISO date read as the end of that day, the balance its snapshot holds.
+     */
+    @GetMapping("/{bankAccountId}/balance")
+    public Mono<AccountBalance> getBalance(
+            @PathVariable final Long bankAccountId,
+            @RequestParam(required = false) final String asOf) {
+        final LocalDateTime until;
+        try {
+            until = parseAsOf(asOf);
+        } catch (DateTimeParseException e) {
+            return Mono.error(new InvalidRequestParameterException(
+                    "asOf must be an ISO date or date-time, got: " + asOf));
+        }
+        return bankAccountService.findBalanceAsOf(bankAccountId, until);
+    }
+
+    private static LocalDateTime parseAsOf(final String asOf) {
+        if (asOf == null) {
+            return null;
+        }
+        return asOf.contains("T") ? LocalDateTime.parse(asOf) : LocalDate.parse(asOf).atTime(END_OF_DAY);
+    }
+
     @GetMapping("/all")
     public Flux<BankAccount> getAllAccounts() {
         return bankAccountService.findAllBankAccounts();
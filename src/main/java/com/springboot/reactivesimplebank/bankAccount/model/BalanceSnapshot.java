@@ -0,0 +1,13 @@
+package com.springboot.reactivesimplebank.bankAccount.model;
+
+import java.time.LocalDate;
+
+/**
+ * Balance of one account at the end of one day, covering every transaction created before the following midnight.
+ */
+public record BalanceSnapshot(
+        Long bankAccountId,
+        LocalDate snapshotDate,
+        long balance
+) {
+}
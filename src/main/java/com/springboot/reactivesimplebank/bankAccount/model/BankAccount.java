@@ -1,7 +1,9 @@
 package com.springboot.reactivesimplebank.bankAccount.model;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.PersistenceCreator;
+import org.springframework.data.annotation.ReadOnlyProperty;
 import org.springframework.data.relational.core.mapping.Column;
 import org.springframework.data.relational.core.mapping.Table;
 
@@ -23,6 +25,13 @@ public class BankAccount {
     @Column("creationDate")
     private final LocalDateTime creationDate;
 
+    /**
+     * Maintained only by {@code addToBalance}; never written from the entity, so saving an account cannot reset it.
+     */
+    @ReadOnlyProperty
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long balance = 0L;
+
     public BankAccount() {
         this.number = UUID.randomUUID().toString();
         this.creationDate = LocalDateTime.now();
@@ -72,4 +81,8 @@ public class BankAccount {
         return creationDate;
     }
 
+    public Long getBalance() {
+        return balance;
+    }
+
 }
@@ -0,0 +1,141 @@
+package com.springboot.reactivesimplebank.bankAccount.repository;
+
+import com.springboot.reactivesimplebank.bankAccount.model.BalanceSnapshot;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * End-of-day balances per account. A historical balance is the nearest snapshot before the requested day plus the
+ * transactions created after it, so the rows summed for a query are bounded by the activity since the last
+ * snapshot, normally less than one day, instead of by the age of the account.
+ */
+@Repository
+public class BalanceSnapshotRepository {
+
+    private static final String FIND_ACCOUNTS_QUERY = """
+            SELECT bankAccountId FROM bankAccount
+            WHERE bankAccountId > :after AND creationDate < :dayEnd
+            ORDER BY bankAccountId
+            LIMIT :limit
+            """;
+
+    private static final String INSERT_SNAPSHOTS_QUERY = """
+            INSERT INTO balanceSnapshot (bankAccountId, snapshotDate, balance)
+            SELECT a.bankAccountId, :day, a.balance - COALESCE((
+                SELECT SUM(t.`value`) FROM transaction t
+                WHERE t.bankAccountId = a.bankAccountId AND t.creationDate >= :dayEnd), 0)
+            FROM bankAccount a
+            WHERE a.bankAccountId IN (:bankAccountIds)
+              AND NOT EXISTS (SELECT 1 FROM balanceSnapshot s
+                              WHERE s.bankAccountId = a.bankAccountId AND s.snapshotDate = :day)
+            """;
+
+    private static final String ADD_FROM_QUERY = """
+            UPDATE balanceSnapshot SET balance = balance + :delta
+            WHERE bankAccountId = :bankAccountId AND snapshotDate >= :day
+            """;
+
+    private static final String LATEST_BEFORE_QUERY = """
+            SELECT bankAccountId, snapshotDate, balance FROM balanceSnapshot
+            WHERE bankAccountId = :bankAccountId AND snapshotDate < :day
+            ORDER BY snapshotDate DESC
+            LIMIT 1
+            """;
+
+    private static final String SUM_UNTIL_QUERY = """
+            SELECT COALESCE(SUM(`value`), 0) AS total FROM (
+                SELECT `value` FROM transaction
+                WHERE bankAccountId = :bankAccountId AND creationDate <= :until
+                UNION ALL
+                SELECT `value` FROM transactionArchive
+                WHERE bankAccountId = :bankAccountId AND creationDate <= :until
+            ) delta
+            """;
+
+    private static final String SUM_BETWEEN_QUERY = """
+            SELECT COALESCE(SUM(`value`), 0) AS total FROM (
+                SELECT `value` FROM transaction
+                WHERE bankAccountId = :bankAccountId AND creationDate >= :from AND creationDate <= :until
+                UNION ALL
+                SELECT `value` FROM transactionArchive
+                WHERE bankAccountId = :bankAccountId AND creationDate >= :from AND creationDate <= :until
+            ) delta
+            """;
+
+    private final DatabaseClient databaseClient;
+
+    public BalanceSnapshotRepository(final DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    /**
+     * Returns up to {@code limit} ids, in ascending order after {@code after}, of the accounts that already existed
+     * at the end of the day.
+     */
+    public Mono<List<Long>> findAccountIdsAfter(final Long after, final LocalDate day, final int limit) {
+        return databaseClient.sql(FIND_ACCOUNTS_QUERY)
+                .bind("after", after)
+                .bind("dayEnd", day.plusDays(1).atStartOfDay())
+                .bind("limit", limit)
+                .map(row -> row.get("bankAccountId", Long.class))
+                .all()
+                .collectList();
+    }
+
+    /**
+     * Writes the end-of-day balance of the given accounts for a day that has already ended: their current balance
+     * minus every transaction created since. Accounts that already have a snapshot for the day are skipped, so
+     * the call can be repeated.
+     */
+    public Mono<Long> insertSnapshots(final LocalDate day, final List<Long> bankAccountIds) {
+        return databaseClient.sql(INSERT_SNAPSHOTS_QUERY)
+                .bind("day", day)
+                .bind("dayEnd", day.plusDays(1).atStartOfDay())
+                .bind("bankAccountIds", bankAccountIds)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    /**
+     * Adds {@code delta} to the snapshots of the account from {@code day} on, for a write dated on that day.
+     */
+    public Mono<Void> addFrom(final Long bankAccountId, final LocalDate day, final long delta) {
+        return databaseClient.sql(ADD_FROM_QUERY)
+                .bind("bankAccountId", bankAccountId)
+                .bind("day", day)
+                .bind("delta", delta)
+                .then();
+    }
+
+    public Mono<BalanceSnapshot> findLatestBefore(final Long bankAccountId, final LocalDate day) {
+        return databaseClient.sql(LATEST_BEFORE_QUERY)
+                .bind("bankAccountId", bankAccountId)
+                .bind("day", day)
+                .map(row -> new BalanceSnapshot(
+                        row.get("bankAccountId", Long.class),
+                        row.get("snapshotDate", LocalDate.class),
+                        row.get("balance", Long.class)
+                ))
+                .one();
+    }
+
+    /**
+     * Sums the amounts of the account's transactions, archived or not, created between {@code from} and
+     * {@code until} inclusive; a null {@code from} sums from the first one.
+     */
+    public Mono<Long> sumTransactions(final Long bankAccountId, final LocalDateTime from, final LocalDateTime until) {
+        final DatabaseClient.GenericExecuteSpec query = from == null
+                ? databaseClient.sql(SUM_UNTIL_QUERY)
+                : databaseClient.sql(SUM_BETWEEN_QUERY).bind("from", from);
+        return query
+                .bind("bankAccountId", bankAccountId)
+                .bind("until", until)
+                .map(row -> ((Number) row.get("total")).longValue())
+                .one();
+    }
+}
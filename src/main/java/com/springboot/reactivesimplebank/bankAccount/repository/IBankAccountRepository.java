@@ -1,9 +1,24 @@
 package com.springboot.reactivesimplebank.bankAccount.repository;
 
 import com.springboot.reactivesimplebank.bankAccount.model.BankAccount;
+import com.springboot.reactivesimplebank.repository.InsertRepository;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
-public interface IBankAccountRepository extends ReactiveCrudRepository<BankAccount, Long> {
+public interface IBankAccountRepository extends ReactiveCrudRepository<BankAccount, Long>,
+        InsertRepository<BankAccount> {
     public Flux<BankAccount> findAllByCostumerId(final Long costumerId);
+
+    @Query("SELECT balance FROM bankAccount WHERE bankAccountId = :bankAccountId")
+    Mono<Long> findBalanceByBankAccountId(Long bankAccountId);
+
+    @Query("SELECT * FROM bankAccount WHERE bankAccountId = :bankAccountId FOR UPDATE")
+    Mono<BankAccount> findByIdForUpdate(Long bankAccountId);
+
+    @Modifying
+    @Query("UPDATE bankAccount SET balance = balance + :delta WHERE bankAccountId = :bankAccountId")
+    Mono<Integer> addToBalance(Long bankAccountId, Long delta);
 }
@@ -0,0 +1,128 @@
+package com.springboot.reactivesimplebank.bankAccount.service;
+
+import com.springboot.reactivesimplebank.bankAccount.repository.BalanceSnapshotRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+import reactor.util.function.Tuples;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Background job that writes the end-of-day balance of every account. Every {@code bank.balance-snapshots.interval}
+ * it snapshots the last day that ended at least {@code bank.balance-snapshots.settle} ago, skipping the accounts
+ * that already have that snapshot, {@code bank.balance-snapshots.batch-size} accounts per database transaction.
+ * The settle delay lets writes dated just before midnight commit first; writes dated on an already snapshotted day
+ * update the snapshots themselves. Days missed while the application was down are not filled in: a historical
+ * balance then starts from an older snapshot and sums a few more days of transactions.
+ */
+@Component
+public class BalanceSnapshotJob {
+
+    private static final Logger log = LoggerFactory.getLogger(BalanceSnapshotJob.class);
+    static final String WRITTEN_METRIC = "bank.balance.snapshots.written";
+
+    private final BalanceSnapshotRepository snapshotRepository;
+    private final TransactionalOperator transactionalOperator;
+    private final Duration interval;
+    private final Duration settle;
+    private final int batchSize;
+    private final Counter written;
+    private Disposable schedule;
+
+    public BalanceSnapshotJob(final BalanceSnapshotRepository snapshotRepository,
+                              final TransactionalOperator transactionalOperator,
+                              @Value("${bank.balance-snapshots.interval:1h}") final Duration interval,
+                              @Value("${bank.balance-snapshots.settle:5m}") final Duration settle,
+                              @Value("${bank.balance-snapshots.batch-size:1000}") final int batchSize,
+                              final MeterRegistry meterRegistry) {
+        if (settle.isNegative()) {
+            throw new IllegalArgumentException("bank.balance-snapshots.settle cannot be negative");
+        }
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("bank.balance-snapshots.batch-size must be greater than zero");
+        }
+        this.snapshotRepository = snapshotRepository;
+        this.transactionalOperator = transactionalOperator;
+        this.interval = interval;
+        this.settle = settle;
+        this.batchSize = batchSize;
+        this.written = Counter.builder(WRITTEN_METRIC)
+                .description("End-of-day account balance snapshots written")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Starts the periodic runs once the application is up; an interval of zero disables them.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (interval.isZero() || interval.isNegative()) {
+            log.info("[Balance Snapshot Job] Disabled");
+            return;
+        }
+        schedule = Flux.interval(interval, interval)
+                .onBackpressureDrop()
+                .concatMap(tick -> snapshot()
+                        .onErrorResume(error -> {
+                            log.error("[Balance Snapshot Job] Run failed", error);
+                            return Mono.empty();
+                        }), 1)
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (schedule != null) {
+            schedule.dispose();
+        }
+    }
+
+    /**
+     * Snapshots the last settled day and returns how many snapshots were written.
+     */
+    public Mono<Long> snapshot() {
+        return Mono.defer(() -> snapshot(LocalDateTime.now().minus(settle).toLocalDate().minusDays(1)));
+    }
+
+    /**
+     * Snapshots the given day, which must have ended: balances are derived from the current ones.
+     */
+    public Mono<Long> snapshot(final LocalDate day) {
+        return snapshotBatch(day, 0L)
+                .expand(batch -> batch.getT1().size() < batchSize
+                        ? Mono.empty()
+                        : snapshotBatch(day, batch.getT1().get(batch.getT1().size() - 1)))
+                .map(Tuple2::getT2)
+                .reduce(0L, Long::sum)
+                .doOnNext(total -> {
+                    if (total > 0) {
+                        log.info("[Balance Snapshot Job] Wrote {} balance snapshots for {}", total, day);
+                    }
+                });
+    }
+
+    private Mono<Tuple2<List<Long>, Long>> snapshotBatch(final LocalDate day, final Long after) {
+        return snapshotRepository.findAccountIdsAfter(after, day, batchSize)
+                .flatMap(bankAccountIds -> bankAccountIds.isEmpty()
+                        ? Mono.just(Tuples.of(bankAccountIds, 0L))
+                        : snapshotRepository.insertSnapshots(day, bankAccountIds)
+                                .map(inserted -> Tuples.of(bankAccountIds, inserted)))
+                .as(transactionalOperator::transactional)
+                .doOnNext(batch -> written.increment(batch.getT2()));
+    }
+}
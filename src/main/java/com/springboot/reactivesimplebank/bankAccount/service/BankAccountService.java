@@ -1,50 +1,95 @@
 package com.springboot.reactivesimplebank.bankAccount.service;
 
 import com.springboot.reactivesimplebank.bankAccount.model.BankAccount;
+import com.springboot.reactivesimplebank.bankAccount.repository.BalanceSnapshotRepository;
 import com.springboot.reactivesimplebank.bankAccount.repository.IBankAccountRepository;
+import com.springboot.reactivesimplebank.cache.EntityCache;
+import com.springboot.reactivesimplebank.datasource.ReadWriteRouting;
+import com.springboot.reactivesimplebank.dto.bankAccountDto.AccountBalance;
+import com.springboot.reactivesimplebank.costumer.model.Costumer;
 import com.springboot.reactivesimplebank.costumer.respository.ICostumerRepository;
+import com.springboot.reactivesimplebank.exception.customExceptions.DuplicateEntityException;
 import com.springboot.reactivesimplebank.exception.customExceptions.EntityNotFoundException;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.LocalDateTime;
+
 @Service
 public class BankAccountService {
 
     final IBankAccountRepository bankAccountRepository;
     final ICostumerRepository costumerRepository;
+    final EntityCache<Long, Costumer> costumerCache;
+    final BalanceSnapshotRepository snapshotRepository;
 
     private static final String BANK_SERVICE_STRING = "[Bank Service]";
     private static final String BANK_ACCOUNT_NOT_FOUND = "Bank account with id %s not found";
 
 
     public BankAccountService(final IBankAccountRepository bankAccountRepository,
-                              final ICostumerRepository costumerRepository) {
+                              final ICostumerRepository costumerRepository,
+                              final EntityCache<Long, Costumer> costumerCache,
+                              final BalanceSnapshotRepository snapshotRepository) {
         this.bankAccountRepository = bankAccountRepository;
         this.costumerRepository = costumerRepository;
+        this.costumerCache = costumerCache;
+        this.snapshotRepository = snapshotRepository;
     }
 
     public Mono<BankAccount> findById(final Long id) {
         return bankAccountRepository.findById(id)
                 .switchIfEmpty(Mono.error(new EntityNotFoundException(String.format(BANK_SERVICE_STRING
-                        + BANK_ACCOUNT_NOT_FOUND, id))));
+                        + BANK_ACCOUNT_NOT_FOUND, id))))
+                .as(ReadWriteRouting::readOnly);
+    }
+
+    /**
+     * Returns the balance the account had at {@code asOf}, or now when it is null: the nearest end-of-day snapshot
+     * before that day plus the transactions created from the end of that snapshot's day up to {@code asOf}.
+     * Without any earlier snapshot every transaction up to {@code asOf} is summed.
+     */
+    public Mono<AccountBalance> findBalanceAsOf(final Long id, final LocalDateTime asOf) {
+        final LocalDateTime until = asOf == null ? LocalDateTime.now() : asOf;
+        return bankAccountRepository.existsById(id)
+                .filter(Boolean::booleanValue)
+                .switchIfEmpty(Mono.error(new EntityNotFoundException(String.format(BANK_SERVICE_STRING
+                        + BANK_ACCOUNT_NOT_FOUND, id))))
+                .then(Mono.defer(() -> snapshotRepository.findLatestBefore(id, until.toLocalDate())))
+                .flatMap(snapshot -> snapshotRepository.sumTransactions(
+                                id, snapshot.snapshotDate().plusDays(1).atStartOfDay(), until)
+                        .map(delta -> snapshot.balance() + delta))
+                .switchIfEmpty(Mono.defer(() -> snapshotRepository.sumTransactions(id, null, until)))
+                .map(balance -> new AccountBalance(id, until, balance))
+                .as(ReadWriteRouting::readOnly);
     }
 
     public Flux<BankAccount> findAllBankAccounts() {
-        return bankAccountRepository.findAll();
+        return bankAccountRepository.findAll().as(ReadWriteRouting::readOnly);
     }
 
     public Flux<BankAccount> findAllBankAccountsByCustomerId(final Long customerId) {
-        return bankAccountRepository.findAllByCostumerId(customerId);
+        return bankAccountRepository.findAllByCostumerId(customerId).as(ReadWriteRouting::readOnly);
     }
 
+    /**
+     * Creates the account once its customer is known to exist. The check is served from the customer cache,
+     * so repeated account creation for the same customer does not query the costumer table. The account is always
+     * inserted: a payload carrying the id of an existing account is rejected instead of overwriting it.
+     */
     public Mono<BankAccount> save(BankAccount bankAccount) {
-        return costumerRepository.existsById(bankAccount.getCostumerId())
+        return costumerCache.get(bankAccount.getCostumerId(), costumerRepository::findById)
+                .hasElement()
                 .filter(Boolean::booleanValue)
                 .switchIfEmpty(Mono.error(new EntityNotFoundException(
                         String.format("User %s not found", bankAccount.getCostumerId())
                 )))
-                .flatMap(ok -> bankAccountRepository.save(bankAccount));
+                .flatMap(ok -> bankAccountRepository.insert(bankAccount))
+                .onErrorMap(DuplicateKeyException.class, e -> new DuplicateEntityException(String.format(
+                        BANK_SERVICE_STRING + " Bank account with id %s already exists", bankAccount.getBankAccountId())))
+                .as(ReadWriteRouting::write);
     }
 
 
@@ -52,6 +97,7 @@ public class BankAccountService {
         return bankAccountRepository.findById(id)
                 .switchIfEmpty(Mono.error(new EntityNotFoundException(String.format(BANK_ACCOUNT_NOT_FOUND, id))))
                 .flatMap(bankAccount -> bankAccountRepository.deleteById(id))
-                .then(Mono.just(BANK_SERVICE_STRING + " Bank account with id " + id + " deleted successfully"));
+                .then(Mono.just(BANK_SERVICE_STRING + " Bank account with id " + id + " deleted successfully"))
+                .as(ReadWriteRouting::write);
     }
 }
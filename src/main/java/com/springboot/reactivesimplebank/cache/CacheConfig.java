@@ -0,0 +1,48 @@
+package com.springboot.reactivesimplebank.cache;
+
+import com.springboot.reactivesimplebank.costumer.model.Costumer;
+import com.springboot.reactivesimplebank.dto.bankAccountDto.CustomerAccountsResponse;
+import com.springboot.reactivesimplebank.dto.transactionDto.TotalAmount;
+import com.springboot.reactivesimplebank.transaction.model.Transaction;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+public class CacheConfig {
+
+    @Bean
+    public EntityCache<Long, Costumer> costumerCache(
+            @Value("${bank.cache.costumers.maximum-size:10000}") final long maximumSize,
+            @Value("${bank.cache.costumers.time-to-live:10m}") final Duration timeToLive,
+            final MeterRegistry meterRegistry) {
+        return new EntityCache<>("costumers", maximumSize, timeToLive, meterRegistry);
+    }
+
+    @Bean
+    public EntityCache<String, Transaction> idempotencyKeyCache(
+            @Value("${bank.cache.idempotency-keys.maximum-size:100000}") final long maximumSize,
+            @Value("${bank.cache.idempotency-keys.time-to-live:24h}") final Duration timeToLive,
+            final MeterRegistry meterRegistry) {
+        return new EntityCache<>("idempotency-keys", maximumSize, timeToLive, meterRegistry);
+    }
+
+    @Bean
+    public RequestCoalescer<Long, CustomerAccountsResponse> accountSummaryCoalescer(
+            @Value("${bank.coalescing.account-summaries.maximum-size:10000}") final long maximumSize,
+            @Value("${bank.coalescing.account-summaries.time-to-live:0s}") final Duration timeToLive,
+            final MeterRegistry meterRegistry) {
+        return new RequestCoalescer<>("account-summaries", maximumSize, timeToLive, meterRegistry);
+    }
+
+    @Bean
+    public RequestCoalescer<String, TotalAmount> resumeByTypeCoalescer(
+            @Value("${bank.coalescing.resumes-by-type.maximum-size:10000}") final long maximumSize,
+            @Value("${bank.coalescing.resumes-by-type.time-to-live:0s}") final Duration timeToLive,
+            final MeterRegistry meterRegistry) {
+        return new RequestCoalescer<>("resumes-by-type", maximumSize, timeToLive, meterRegistry);
+    }
+}
@@ -0,0 +1,50 @@
+package com.springboot.reactivesimplebank.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Size- and TTL-bounded read-through cache of entities by key. Concurrent misses for the same key share one load,
+ * and keys that load nothing (or fail) are not cached, so a row created later is found on the next lookup.
+ * A subscriber that cancels does not cancel the shared load.
+ * Hit, miss, eviction and size metrics are published under the {@code cache.*} meters tagged with the cache name.
+ */
+public class EntityCache<K, V> {
+
+    private final AsyncCache<K, V> cache;
+
+    public EntityCache(final String name, final long maximumSize, final Duration timeToLive,
+                       final MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(timeToLive)
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, name);
+    }
+
+    public Mono<V> get(final K id, final Function<K, Mono<V>> loader) {
+        if (id == null) {
+            return loader.apply(null);
+        }
+        return Mono.fromFuture(() -> cache.get(id, (key, executor) -> loader.apply(key).toFuture()), true);
+    }
+
+    public void put(final K id, final V value) {
+        if (id != null && value != null) {
+            cache.synchronous().put(id, value);
+        }
+    }
+
+    public void invalidate(final K id) {
+        if (id != null) {
+            cache.synchronous().invalidate(id);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.springboot.reactivesimplebank.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Collapses concurrent identical reads into one upstream call: callers that ask for a key while a call for it is in
+ * flight share its result instead of running the query chain again. With a positive {@code resultTimeToLive} the
+ * result also keeps serving callers for that long after it completed; with zero it is dropped as soon as it
+ * completes, so only truly concurrent callers share it. Failures are never kept. A caller that cancels does not
+ * cancel the shared call, which runs without the caller's Reactor context.
+ * Calls that ran and calls that were served from another are counted by {@code bank.requests.coalesced},
+ * tagged with the coalescer name and {@code result=executed} or {@code result=collapsed}.
+ */
+public class RequestCoalescer<K, V> {
+
+    static final String METRIC = "bank.requests.coalesced";
+
+    private final AsyncCache<K, V> calls;
+    private final boolean keepResults;
+    private final Counter executed;
+    private final Counter collapsed;
+
+    public RequestCoalescer(final String name, final long maximumSize, final Duration resultTimeToLive,
+                            final MeterRegistry meterRegistry) {
+        if (resultTimeToLive.isNegative()) {
+            throw new IllegalArgumentException("Result time to live of " + name + " cannot be negative");
+        }
+        this.keepResults = !resultTimeToLive.isZero();
+        final Caffeine<Object, Object> builder = Caffeine.newBuilder().maximumSize(maximumSize);
+        this.calls = (keepResults ? builder.expireAfterWrite(resultTimeToLive) : builder).buildAsync();
+        this.executed = counter(name, "executed", meterRegistry);
+        this.collapsed = counter(name, "collapsed", meterRegistry);
+    }
+
+    public Mono<V> get(final K key, final Function<K, Mono<V>> call) {
+        if (key == null) {
+            return call.apply(null);
+        }
+        return Mono.defer(() -> {
+            final boolean[] started = {false};
+            final CompletableFuture<V> result = calls.get(key, (k, executor) -> {
+                started[0] = true;
+                return call.apply(k).toFuture();
+            });
+            if (started[0]) {
+                executed.increment();
+                if (!keepResults) {
+                    result.whenComplete((value, error) -> calls.asMap().remove(key, result));
+                }
+            } else {
+                collapsed.increment();
+            }
+            return Mono.fromFuture(result, true);
+        });
+    }
+
+    private static Counter counter(final String name, final String result, final MeterRegistry meterRegistry) {
+        return Counter.builder(METRIC)
+                .description("Reads that ran upstream or shared the result of an identical concurrent read")
+                .tag("name", name)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
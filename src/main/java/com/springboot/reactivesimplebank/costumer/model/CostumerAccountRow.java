@@ -0,0 +1,14 @@
+package com.springboot.reactivesimplebank.costumer.model;
+
+/**
+ * One row of the customer account summary join: the customer name, one of its accounts (null when the
+ * customer has none) and one of that account's latest transactions (null when the account has none).
+ */
+public record CostumerAccountRow(
+        String customerName,
+        Long bankAccountId,
+        String accountNumber,
+        Long balance,
+        String transactionType,
+        Long transactionAmount
+) {}
@@ -0,0 +1,70 @@
+package com.springboot.reactivesimplebank.costumer.respository;
+
+import com.springboot.reactivesimplebank.costumer.model.CostumerAccountRow;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+/**
+ * Loads a customer, its bank accounts and the latest transactions of each account in a single round trip.
+ * Each account first looks up the creation date of its n-th newest transaction on
+ * {@code idx_transaction_account_history}, and only rows from that date on are joined and ranked, so the cost
+ * follows the number of transactions returned rather than the length of the history.
+ */
+@Repository
+public class CostumerAccountSummaryRepository {
+
+    private static final String ACCOUNT_SUMMARY_QUERY = """
+            SELECT customerName, bankAccountId, accountNumber, balance, transactionType, transactionAmount
+            FROM (
+                SELECT c.name AS customerName,
+                       b.bankAccountId AS bankAccountId,
+                       b.number AS accountNumber,
+                       b.balance AS balance,
+                       t.type AS transactionType,
+                       t.`value` AS transactionAmount,
+                       t.creationDate AS creationDate,
+                       t.transactionId AS transactionId,
+                       ROW_NUMBER() OVER (PARTITION BY b.bankAccountId
+                                          ORDER BY t.creationDate DESC, t.transactionId DESC) AS position
+                FROM costumer c
+                LEFT JOIN (
+                    SELECT a.bankAccountId, a.costumerId, a.number, a.balance,
+                           (SELECT h.creationDate
+                            FROM transaction h
+                            WHERE h.bankAccountId = a.bankAccountId
+                            ORDER BY h.creationDate DESC, h.transactionId DESC
+                            LIMIT 1 OFFSET :cutoffOffset) AS cutoff
+                    FROM bankAccount a
+                    WHERE a.costumerId = :costumerId
+                ) b ON b.costumerId = c.costumerId
+                LEFT JOIN transaction t ON t.bankAccountId = b.bankAccountId
+                                       AND (b.cutoff IS NULL OR t.creationDate >= b.cutoff)
+                WHERE c.costumerId = :costumerId
+            ) summary
+            WHERE position <= :transactionsPerAccount
+            ORDER BY bankAccountId, creationDate DESC, transactionId DESC
+            """;
+
+    private final DatabaseClient databaseClient;
+
+    public CostumerAccountSummaryRepository(final DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    public Flux<CostumerAccountRow> findAccountSummary(final Long costumerId, final int transactionsPerAccount) {
+        return databaseClient.sql(ACCOUNT_SUMMARY_QUERY)
+                .bind("costumerId", costumerId)
+                .bind("transactionsPerAccount", transactionsPerAccount)
+                .bind("cutoffOffset", Math.max(transactionsPerAccount - 1, 0))
+                .map((row, metadata) -> new CostumerAccountRow(
+                        row.get("customerName", String.class),
+                        row.get("bankAccountId", Long.class),
+                        row.get("accountNumber", String.class),
+                        row.get("balance", Long.class),
+                        row.get("transactionType", String.class),
+                        row.get("transactionAmount", Long.class)
+                ))
+                .all();
+    }
+}
@@ -1,9 +1,11 @@
 package com.springboot.reactivesimplebank.costumer.respository;
 
 import com.springboot.reactivesimplebank.costumer.model.Costumer;
+import com.springboot.reactivesimplebank.repository.InsertRepository;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import reactor.core.publisher.Mono;
 
-public interface ICostumerRepository extends ReactiveCrudRepository<Costumer, Long> {
+public interface ICostumerRepository extends ReactiveCrudRepository<Costumer, Long>,
+        InsertRepository<Costumer> {
     public Mono<Costumer> findByEmailAddress(String emailAddress);
 }
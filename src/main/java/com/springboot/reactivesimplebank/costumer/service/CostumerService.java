@@ -1,102 +1,142 @@
 package com.springboot.reactivesimplebank.costumer.service;
 
-import com.springboot.reactivesimplebank.bankAccount.service.BankAccountService;
+import com.springboot.reactivesimplebank.cache.EntityCache;
+import com.springboot.reactivesimplebank.cache.RequestCoalescer;
+import com.springboot.reactivesimplebank.datasource.ReadWriteRouting;
+import com.springboot.reactivesimplebank.costumer.model.CostumerAccountRow;
+import com.springboot.reactivesimplebank.costumer.respository.CostumerAccountSummaryRepository;
 import com.springboot.reactivesimplebank.dto.bankAccountDto.AccountWithTransactions;
 import com.springboot.reactivesimplebank.dto.bankAccountDto.CustomerAccountsResponse;
 import com.springboot.reactivesimplebank.costumer.model.Costumer;
 import com.springboot.reactivesimplebank.costumer.respository.ICostumerRepository;
+import com.springboot.reactivesimplebank.dto.transactionDto.TransactionDto;
 import com.springboot.reactivesimplebank.exception.customExceptions.EntityNotFoundException;
 import com.springboot.reactivesimplebank.exception.customExceptions.DuplicateEntityException;
-import com.springboot.reactivesimplebank.transaction.Service.TransactionService;
-import com.springboot.reactivesimplebank.transaction.model.Transaction;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 @Service
 public class CostumerService {
     private final ICostumerRepository costumerRepository;
-    private final BankAccountService bankAccountService;
+    private final CostumerAccountSummaryRepository accountSummaryRepository;
+    private final EntityCache<Long, Costumer> costumerCache;
+    private final RequestCoalescer<Long, CustomerAccountsResponse> accountSummaryCoalescer;
 
     public static final String NOT_FOUND_WITH_ID = " not found with id: ";
     private static final String USER_SERVICE = "[User Service] User";
-    private final TransactionService transactionService;
+    private static final int RESUME_TRANSACTIONS_LIMIT = 100;
 
     public CostumerService(final ICostumerRepository costumerRepository,
-                           final BankAccountService bankAccountService, TransactionService transactionService) {
+                           final CostumerAccountSummaryRepository accountSummaryRepository,
+                           final EntityCache<Long, Costumer> costumerCache,
+                           final RequestCoalescer<Long, CustomerAccountsResponse> accountSummaryCoalescer) {
         this.costumerRepository = costumerRepository;
-        this.bankAccountService = bankAccountService;
-        this.transactionService = transactionService;
+        this.accountSummaryRepository = accountSummaryRepository;
+        this.costumerCache = costumerCache;
+        this.accountSummaryCoalescer = accountSummaryCoalescer;
     }
 
     public Mono<Costumer> findById(final Long id) {
-        return costumerRepository.findById(id)
+        return costumerCache.get(id, costumerRepository::findById)
                 .switchIfEmpty(Mono.error(new EntityNotFoundException(USER_SERVICE + NOT_FOUND_WITH_ID + id)));
     }
 
     public Flux<Costumer> findAll() {
-        return costumerRepository.findAll();
+        return costumerRepository.findAll().as(ReadWriteRouting::readOnly);
     }
 
+    /**
+     * Inserts the customer directly; an email address that is already taken is reported by its unique index.
+     */
     public Mono<Costumer> save(final Costumer customer) {
-        return costumerRepository.findByEmailAddress(customer.getEmailAddress())
-                .flatMap(existingCustomer -> Mono.error(
-                        new DuplicateEntityException(USER_SERVICE + " already existing.")))
-                .switchIfEmpty(costumerRepository.save(customer))
-                .cast(Costumer.class);
+        return costumerRepository.insert(customer)
+                .onErrorMap(DuplicateKeyException.class,
+                        e -> new DuplicateEntityException(USER_SERVICE + " already existing."))
+                .doOnNext(saved -> costumerCache.put(saved.getCostumerId(), saved))
+                .as(ReadWriteRouting::write);
     }
 
+    /**
+     * Replaces the stored customer. Only the existence of the row is checked beforehand, so the current
+     * version is never read back into an entity just to be overwritten.
+     */
     public Mono<Costumer> update(final Costumer customer) {
-        return costumerRepository.findById(customer.getCostumerId())
-                .switchIfEmpty(Mono.error(new EntityNotFoundException(USER_SERVICE + NOT_FOUND_WITH_ID
-                        + customer.getCostumerId())))
-                .map(existingCustomer -> {
-                    existingCustomer.setName(customer.getName());
-                    existingCustomer.setEmailAddress(customer.getEmailAddress());
-                    existingCustomer.setPhoneNumber(customer.getPhoneNumber());
-                    return customer;
-                }).flatMap(costumerRepository::save);
+        return requireExisting(customer.getCostumerId())
+                .then(Mono.defer(() -> costumerRepository.save(customer)))
+                .doOnTerminate(() -> costumerCache.invalidate(customer.getCostumerId()))
+                .as(ReadWriteRouting::write);
     }
 
     public Mono<String> delete(final Long id) {
-        return costumerRepository.findById(id)
-                .switchIfEmpty(Mono.error(new EntityNotFoundException(USER_SERVICE + NOT_FOUND_WITH_ID + id)))
-                .flatMap(customerExisting -> costumerRepository.deleteById(customerExisting.getCostumerId()))
-                .then(Mono.just("Customer with id " + id + " deleted successfully"));
+        return requireExisting(id)
+                .then(Mono.defer(() -> costumerRepository.deleteById(id)
+                        .doOnTerminate(() -> costumerCache.invalidate(id))))
+                .then(Mono.just("Customer with id " + id + " deleted successfully"))
+                .as(ReadWriteRouting::write);
     }
 
+    private Mono<Boolean> requireExisting(final Long id) {
+        return costumerRepository.existsById(id)
+                .filter(Boolean::booleanValue)
+                .switchIfEmpty(Mono.error(new EntityNotFoundException(USER_SERVICE + NOT_FOUND_WITH_ID + id)));
+    }
+
+    /**
+     * Concurrent requests for the same customer share one summary query.
+     */
     public Mono<CustomerAccountsResponse> getBankAccountResumeUserId(final Long costumerId) {
-        return costumerRepository.findById(costumerId)
+        return accountSummaryCoalescer.get(costumerId, this::loadAccountSummary);
+    }
+
+    private Mono<CustomerAccountsResponse> loadAccountSummary(final Long costumerId) {
+        return accountSummaryRepository.findAccountSummary(costumerId, RESUME_TRANSACTIONS_LIMIT)
+                .collectList()
+                .filter(rows -> !rows.isEmpty())
                 .switchIfEmpty(Mono.error(new EntityNotFoundException(USER_SERVICE + NOT_FOUND_WITH_ID + costumerId)))
-                .flatMap(customer -> bankAccountService
-                        .findAllBankAccountsByCustomerId(customer.getCostumerId())
-                        .flatMap(bankAccount -> transactionService
-                                .getFullResume(bankAccount.getBankAccountId())
-                                .map(totalAmount -> new AccountWithTransactions(
-                                        bankAccount.getNumber(),
-                                        totalAmount.getTransactions().stream().map(Transaction::from).toList(),
-                                        totalAmount.getTotalAmount()
-                                ))
-                        )
-                        .collectList()
-                        .map( accounts -> {
-                            double totalAmount = getSumTotal(accounts);
-                            return new CustomerAccountsResponse(
-                                    customer.getName(),
-                                    accounts,
-                                    totalAmount
-                            );
-                        })
-                );
+                .map(CostumerService::toAccountsResponse)
+                .as(ReadWriteRouting::readOnly);
+    }
+
+    private static CustomerAccountsResponse toAccountsResponse(final List<CostumerAccountRow> rows) {
+        final Map<Long, CostumerAccountRow> accountRows = new LinkedHashMap<>();
+        final Map<Long, List<TransactionDto>> transactionsByAccount = new LinkedHashMap<>();
+
+        for (CostumerAccountRow row : rows) {
+            if (row.bankAccountId() == null) {
+                continue;
+            }
+            accountRows.putIfAbsent(row.bankAccountId(), row);
+            final List<TransactionDto> transactions = transactionsByAccount
+                    .computeIfAbsent(row.bankAccountId(), id -> new ArrayList<>());
+            if (row.transactionType() != null) {
+                transactions.add(new TransactionDto(row.transactionType(), row.transactionAmount()));
+            }
+        }
 
+        final List<AccountWithTransactions> accounts = accountRows.values().stream()
+                .map(row -> new AccountWithTransactions(
+                        row.accountNumber(),
+                        transactionsByAccount.get(row.bankAccountId()),
+                        row.balance()
+                ))
+                .toList();
 
+        return new CustomerAccountsResponse(rows.get(0).customerName(), accounts, getSumTotal(accounts));
     }
 
-    private static double getSumTotal(final List<AccountWithTransactions> accounts) {
+    /**
+     * Sums the balances as primitive minor units; an overflow fails instead of silently wrapping.
+     */
+    private static long getSumTotal(final List<AccountWithTransactions> accounts) {
         return accounts.stream()
-                .mapToDouble(AccountWithTransactions::amount)
-                .sum();
+                .mapToLong(AccountWithTransactions::amount)
+                .reduce(0L, Math::addExact);
     }
 }
@@ -0,0 +1,79 @@
+package com.springboot.reactivesimplebank.datasource;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Marks reactive chains as reads that may be served by the replica or as writes that must reach the primary.
+ * The choice travels in the Reactor context and is read by {@link ReadWriteRoutingConnectionFactory} whenever
+ * a connection is opened, so it covers every repository call made inside the marked chain. Unmarked chains use
+ * the primary. When the outer chain is already marked, that decision wins over the inner ones, except that a
+ * write always goes to the primary.
+ * <p>
+ * A chain that opted into read-your-writes sends its reads to the primary as soon as it has started a write, so
+ * it never reads a replica that has not caught up with it yet.
+ */
+public final class ReadWriteRouting {
+
+    public enum Route { PRIMARY, REPLICA }
+
+    static final String ROUTE_KEY = ReadWriteRouting.class.getName() + ".route";
+    static final String SESSION_KEY = ReadWriteRouting.class.getName() + ".session";
+
+    private ReadWriteRouting() {
+    }
+
+    public static <T> Mono<T> readOnly(final Mono<T> reads) {
+        return reads.contextWrite(ReadWriteRouting::preferReplica);
+    }
+
+    public static <T> Flux<T> readOnly(final Flux<T> reads) {
+        return reads.contextWrite(ReadWriteRouting::preferReplica);
+    }
+
+    public static <T> Mono<T> write(final Mono<T> write) {
+        return Mono.deferContextual(context -> {
+                    markWritten(context);
+                    return write;
+                })
+                .contextWrite(context -> context.put(ROUTE_KEY, Route.PRIMARY));
+    }
+
+    public static <T> Flux<T> write(final Flux<T> write) {
+        return Flux.deferContextual(context -> {
+                    markWritten(context);
+                    return write;
+                })
+                .contextWrite(context -> context.put(ROUTE_KEY, Route.PRIMARY));
+    }
+
+    /**
+     * Opts the chain into read-your-writes; apply it at the outermost point of the chain, such as a web filter.
+     */
+    public static Context readYourWrites(final Context context) {
+        return context.hasKey(SESSION_KEY) ? context : context.put(SESSION_KEY, new AtomicBoolean());
+    }
+
+    public static Route route(final ContextView context) {
+        final AtomicBoolean written = context.getOrDefault(SESSION_KEY, null);
+        if (written != null && written.get()) {
+            return Route.PRIMARY;
+        }
+        return context.getOrDefault(ROUTE_KEY, Route.PRIMARY);
+    }
+
+    private static Context preferReplica(final Context context) {
+        return context.hasKey(ROUTE_KEY) ? context : context.put(ROUTE_KEY, Route.REPLICA);
+    }
+
+    private static void markWritten(final ContextView context) {
+        final AtomicBoolean written = context.getOrDefault(SESSION_KEY, null);
+        if (written != null) {
+            written.set(true);
+        }
+    }
+}
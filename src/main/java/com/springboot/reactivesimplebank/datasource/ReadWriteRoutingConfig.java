@@ -0,0 +1,83 @@
+package com.springboot.reactivesimplebank.datasource;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.PropertyMapper;
+import org.springframework.boot.r2dbc.ConnectionFactoryBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.util.StringUtils;
+import org.springframework.web.server.WebFilter;
+
+/**
+ * Splits database traffic between the primary configured under {@code spring.r2dbc} and the read replica configured
+ * under {@code bank.r2dbc.replica}. Only active when {@code bank.r2dbc.replica.url} is set; otherwise Spring Boot's
+ * single connection factory is used as before. Both sides get a pool sized by {@code spring.r2dbc.pool}, and the
+ * replica reuses the primary's credentials unless it has its own.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "bank.r2dbc.replica", name = "url")
+@EnableConfigurationProperties(R2dbcProperties.class)
+public class ReadWriteRoutingConfig {
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionPool primaryConnectionFactory(final R2dbcProperties properties) {
+        return pool(properties.getUrl(), properties.getUsername(), properties.getPassword(), properties.getPool());
+    }
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionPool replicaConnectionFactory(
+            final R2dbcProperties properties,
+            @Value("${bank.r2dbc.replica.url}") final String url,
+            @Value("${bank.r2dbc.replica.username:}") final String username,
+            @Value("${bank.r2dbc.replica.password:}") final String password) {
+        return pool(url,
+                StringUtils.hasText(username) ? username : properties.getUsername(),
+                StringUtils.hasText(password) ? password : properties.getPassword(),
+                properties.getPool());
+    }
+
+    @Bean
+    @Primary
+    public ConnectionFactory connectionFactory(
+            @Qualifier("primaryConnectionFactory") final ConnectionFactory primary,
+            @Qualifier("replicaConnectionFactory") final ConnectionFactory replica) {
+        return new ReadWriteRoutingConnectionFactory(primary, replica);
+    }
+
+    /**
+     * Gives every request its own read-your-writes session, so a request that has written reads its own write back
+     * from the primary. Set {@code bank.r2dbc.replica.read-your-writes=false} to let reads after a write go to the
+     * replica as well.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "bank.r2dbc.replica", name = "read-your-writes", matchIfMissing = true)
+    public WebFilter readYourWritesFilter() {
+        return (exchange, chain) -> chain.filter(exchange).contextWrite(ReadWriteRouting::readYourWrites);
+    }
+
+    private static ConnectionPool pool(final String url, final String username, final String password,
+                                       final R2dbcProperties.Pool pool) {
+        final ConnectionFactory connectionFactory = ConnectionFactoryBuilder.withUrl(url)
+                .username(username)
+                .password(password)
+                .build();
+        final ConnectionPoolConfiguration.Builder builder = ConnectionPoolConfiguration.builder(connectionFactory);
+        final PropertyMapper map = PropertyMapper.get().alwaysApplyingWhenNonNull();
+        map.from(pool.getInitialSize()).to(builder::initialSize);
+        map.from(pool.getMaxSize()).to(builder::maxSize);
+        map.from(pool.getMaxIdleTime()).to(builder::maxIdleTime);
+        map.from(pool.getMaxLifeTime()).to(builder::maxLifeTime);
+        map.from(pool.getMaxAcquireTime()).to(builder::maxAcquireTime);
+        map.from(pool.getMaxCreateConnectionTime()).to(builder::maxCreateConnectionTime);
+        map.from(pool.getValidationQuery()).whenHasText().to(builder::validationQuery);
+        return new ConnectionPool(builder.build());
+    }
+}
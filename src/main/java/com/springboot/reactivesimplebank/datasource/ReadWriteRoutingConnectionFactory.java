@@ -0,0 +1,29 @@
+package com.springboot.reactivesimplebank.datasource;
+
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.r2dbc.connection.lookup.AbstractRoutingConnectionFactory;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+/**
+ * Opens each connection on the primary or on the replica according to the {@link ReadWriteRouting} route found in
+ * the Reactor context of the caller. A database transaction keeps the connection it started with, so everything
+ * inside it runs on the same side.
+ */
+public class ReadWriteRoutingConnectionFactory extends AbstractRoutingConnectionFactory {
+
+    public ReadWriteRoutingConnectionFactory(final ConnectionFactory primary, final ConnectionFactory replica) {
+        setTargetConnectionFactories(Map.of(
+                ReadWriteRouting.Route.PRIMARY, primary,
+                ReadWriteRouting.Route.REPLICA, replica));
+        setDefaultTargetConnectionFactory(primary);
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Mono<Object> determineCurrentLookupKey() {
+        return Mono.deferContextual(context -> Mono.just(ReadWriteRouting.route(context)));
+    }
+}
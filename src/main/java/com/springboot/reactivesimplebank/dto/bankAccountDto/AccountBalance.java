@@ -0,0 +1,9 @@
+package com.springboot.reactivesimplebank.dto.bankAccountDto;
+
+import java.time.LocalDateTime;
+
+public record AccountBalance(
+        Long bankAccountId,
+        LocalDateTime asOf,
+        long balance
+) {}
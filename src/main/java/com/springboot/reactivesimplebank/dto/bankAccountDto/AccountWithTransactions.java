@@ -7,4 +7,4 @@ import java.util.List;
 public record AccountWithTransactions(
         String accountNumber,
         List<TransactionDto> transactions,
-        Double amount) {}
+        long amount) {}
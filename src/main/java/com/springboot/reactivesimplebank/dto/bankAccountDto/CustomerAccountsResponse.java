@@ -5,5 +5,5 @@ import java.util.List;
 public record CustomerAccountsResponse(
         String customerName,
         List<AccountWithTransactions> accounts,
-        Double totalAmount
+        long totalAmount
 ) {}
@@ -5,17 +5,17 @@ import com.springboot.reactivesimplebank.transaction.model.Transaction;
 import java.util.List;
 
 public class TotalAmount {
-    private double totalAmount;
+    private long totalAmount;
     private List<Transaction> transactions;
 
     public TotalAmount() {}
 
-    public TotalAmount(final double amount, final List<Transaction> transactions) {
+    public TotalAmount(final long amount, final List<Transaction> transactions) {
         this.totalAmount = amount;
         this.transactions = transactions;
     }
 
-    public double getTotalAmount() {
+    public long getTotalAmount() {
         return totalAmount;
     }
 
@@ -23,7 +23,7 @@ public class TotalAmount {
         return transactions;
     }
 
-    public void setTotalAmount(final double totalAmount) {
+    public void setTotalAmount(final long totalAmount) {
         this.totalAmount = totalAmount;
     }
 
@@ -0,0 +1,16 @@
+package com.springboot.reactivesimplebank.dto.transactionDto;
+
+/**
+ * Outcome of one batch of a bulk ingestion request. A failed batch is rolled back as a whole, so
+ * {@code inserted} is either {@code received} or zero.
+ */
+public record TransactionBatchResult(long batch, int received, int inserted, String error) {
+
+    public static TransactionBatchResult success(final long batch, final int inserted) {
+        return new TransactionBatchResult(batch, inserted, inserted, null);
+    }
+
+    public static TransactionBatchResult failure(final long batch, final int received, final String error) {
+        return new TransactionBatchResult(batch, received, 0, error);
+    }
+}
@@ -0,0 +1,38 @@
+package com.springboot.reactivesimplebank.dto.transactionDto;
+
+import com.springboot.reactivesimplebank.transaction.model.Transaction;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Keyset position inside a bank account history: the (creationDate, transactionId) of the last row returned.
+ * It travels to clients as an opaque url-safe token.
+ */
+public record TransactionCursor(LocalDateTime creationDate, Long transactionId) {
+
+    private static final String SEPARATOR = "|";
+
+    public static TransactionCursor of(final Transaction transaction) {
+        return new TransactionCursor(transaction.getCreationDate(), transaction.getTransactionId());
+    }
+
+    public String encode() {
+        final String raw = creationDate + SEPARATOR + transactionId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static TransactionCursor decode(final String token) {
+        try {
+            final String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            final int separator = raw.lastIndexOf(SEPARATOR);
+            return new TransactionCursor(
+                    LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.valueOf(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new IllegalArgumentException(String.format("[Transaction service] Invalid cursor: %s", token));
+        }
+    }
+}
@@ -1,3 +1,3 @@
 package com.springboot.reactivesimplebank.dto.transactionDto;
 
-public record TransactionDto(String type, double amount) {}
+public record TransactionDto(String type, long amount) {}
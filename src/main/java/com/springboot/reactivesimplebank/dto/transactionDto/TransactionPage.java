@@ -0,0 +1,7 @@
+package com.springboot.reactivesimplebank.dto.transactionDto;
+
+import com.springboot.reactivesimplebank.transaction.model.Transaction;
+
+import java.util.List;
+
+public record TransactionPage(List<Transaction> transactions, String nextCursor) {}
@@ -0,0 +1,3 @@
+package com.springboot.reactivesimplebank.dto.transactionDto;
+
+public record TransferRequest(Long sourceBankAccountId, Long targetBankAccountId, Long amount) {}
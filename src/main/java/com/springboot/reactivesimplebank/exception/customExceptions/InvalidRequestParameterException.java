@@ -0,0 +1,8 @@
+package com.springboot.reactivesimplebank.exception.customExceptions;
+
+public class InvalidRequestParameterException extends GlobalException {
+
+    public InvalidRequestParameterException(final String message) {
+        super(message);
+    }
+}
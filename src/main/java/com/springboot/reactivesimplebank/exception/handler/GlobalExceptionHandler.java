@@ -2,11 +2,15 @@ package com.springboot.reactivesimplebank.exception.handler;
 
 import com.springboot.reactivesimplebank.exception.customExceptions.EntityNotFoundException;
 import com.springboot.reactivesimplebank.exception.customExceptions.DuplicateEntityException;
+import com.springboot.reactivesimplebank.exception.customExceptions.InvalidRequestParameterException;
 import com.springboot.reactivesimplebank.exception.model.ApiErrorDto;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.server.ServerWebExchange;
@@ -18,6 +22,7 @@ import java.time.LocalDateTime;
 public class GlobalExceptionHandler {
 
     private final Logger log = LoggerFactory.getLogger(GlobalExceptionHandler.class);
+    private static final String RETRY_AFTER_SECONDS = "1";
 
     @ExceptionHandler(DuplicateEntityException.class)
     public Mono<ResponseEntity<ApiErrorDto>> handleDuplicateCostumerException(final DuplicateEntityException e,
@@ -71,6 +76,48 @@ public class GlobalExceptionHandler {
         );
     }
 
+    /**
+     * A request parameter that cannot be read, such as a malformed date, is the client's mistake: 400, not 404.
+     */
+    @ExceptionHandler(InvalidRequestParameterException.class)
+    public Mono<ResponseEntity<ApiErrorDto>> handleInvalidRequestParameterException(
+            final InvalidRequestParameterException e, final ServerWebExchange exchange) {
+        log.error("[User Service] Invalid request parameter: {}", e.getMessage());
+        return Mono.just(
+                ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                        .body(
+                                new ApiErrorDto(
+                                        e.getMessage(),
+                                        HttpStatus.BAD_REQUEST.value(),
+                                        LocalDateTime.now(),
+                                        exchange.getRequest().getPath().toString()
+                                )
+                        )
+        );
+    }
+
+    /**
+     * No database connection could be obtained, typically because the R2DBC pool stayed exhausted for longer than
+     * spring.r2dbc.pool.max-acquire-time. The request may succeed later, so it is reported as 503, not as a 404.
+     */
+    @ExceptionHandler({DataAccessResourceFailureException.class, CannotCreateTransactionException.class})
+    public Mono<ResponseEntity<ApiErrorDto>> handleConnectionUnavailableException(final Exception e,
+                                                                                   final ServerWebExchange exchange) {
+        log.error("[User Service] Database connection unavailable: {}", e.getMessage());
+        return Mono.just(
+                ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+                        .body(
+                                new ApiErrorDto(
+                                        e.getMessage(),
+                                        HttpStatus.SERVICE_UNAVAILABLE.value(),
+                                        LocalDateTime.now(),
+                                        exchange.getRequest().getPath().toString()
+                                )
+                        )
+        );
+    }
+
     @ExceptionHandler(Throwable.class)
     public Mono<ResponseEntity<ApiErrorDto>> handleUnexpectedException(final Exception e,
                                                                         final ServerWebExchange exchange) {
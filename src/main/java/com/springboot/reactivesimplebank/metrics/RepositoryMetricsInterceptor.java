@@ -0,0 +1,131 @@
+package com.springboot.reactivesimplebank.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.util.ReflectionUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Records one {@value #CALLS_METRIC} timer sample and one {@value #ROWS_METRIC} sample per repository call.
+ * For Mono and Flux results the time runs from subscription to completion, error or cancellation, so it covers
+ * the database work and not just the assembly of the publisher. The sample is recorded before the subscriber sees
+ * the terminal signal. Samples are tagged with the repository, the method,
+ * the outcome and the simple name of the exception, if any. Meters are registered on the first call with a given
+ * set of tags and reused afterwards, so a call only pays for a map lookup.
+ */
+class RepositoryMetricsInterceptor implements MethodInterceptor {
+
+    static final String CALLS_METRIC = "bank.repository.calls";
+    static final String ROWS_METRIC = "bank.repository.rows";
+    private static final String NONE = "none";
+
+    private final String repository;
+    private final Supplier<MeterRegistry> meterRegistry;
+    private final Map<CallTags, Timer> timers = new ConcurrentHashMap<>();
+    private final Map<String, DistributionSummary> rowSummaries = new ConcurrentHashMap<>();
+
+    RepositoryMetricsInterceptor(final String repository, final Supplier<MeterRegistry> meterRegistry) {
+        this.repository = repository;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Object invoke(final MethodInvocation invocation) throws Throwable {
+        if (ReflectionUtils.isObjectMethod(invocation.getMethod())) {
+            return invocation.proceed();
+        }
+        final String method = invocation.getMethod().getName();
+        final long start = System.nanoTime();
+        final Object result;
+        try {
+            result = invocation.proceed();
+        } catch (Throwable error) {
+            record(method, start, 0L, SignalType.ON_ERROR, error);
+            throw error;
+        }
+        if (result instanceof Mono<?> mono) {
+            return Mono.defer(() -> measure(method, mono));
+        }
+        if (result instanceof Flux<?> flux) {
+            return Flux.defer(() -> measure(method, flux));
+        }
+        record(method, start, result == null ? 0L : 1L, SignalType.ON_COMPLETE, null);
+        return result;
+    }
+
+    private <T> Mono<T> measure(final String method, final Mono<T> source) {
+        final long start = System.nanoTime();
+        final AtomicLong rows = new AtomicLong();
+        final AtomicReference<Throwable> error = new AtomicReference<>();
+        return source
+                .doOnNext(row -> rows.incrementAndGet())
+                .doOnError(error::set)
+                .doOnTerminate(() -> record(method, start, rows.get(),
+                        error.get() == null ? SignalType.ON_COMPLETE : SignalType.ON_ERROR, error.get()))
+                .doOnCancel(() -> record(method, start, rows.get(), SignalType.CANCEL, null));
+    }
+
+    private <T> Flux<T> measure(final String method, final Flux<T> source) {
+        final long start = System.nanoTime();
+        final AtomicLong rows = new AtomicLong();
+        final AtomicReference<Throwable> error = new AtomicReference<>();
+        return source
+                .doOnNext(row -> rows.incrementAndGet())
+                .doOnError(error::set)
+                .doOnTerminate(() -> record(method, start, rows.get(),
+                        error.get() == null ? SignalType.ON_COMPLETE : SignalType.ON_ERROR, error.get()))
+                .doOnCancel(() -> record(method, start, rows.get(), SignalType.CANCEL, null));
+    }
+
+    private void record(final String method, final long start, final long rows, final SignalType signal,
+                        final Throwable error) {
+        final CallTags tags = new CallTags(method, outcome(signal),
+                error == null ? NONE : error.getClass().getSimpleName());
+        timers.computeIfAbsent(tags, this::registerTimer)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        rowSummaries.computeIfAbsent(method, this::registerRowSummary)
+                .record(rows);
+    }
+
+    private Timer registerTimer(final CallTags tags) {
+        return Timer.builder(CALLS_METRIC)
+                .description("Repository calls, from subscription to termination")
+                .tag("repository", repository)
+                .tag("method", tags.method())
+                .tag("outcome", tags.outcome())
+                .tag("exception", tags.exception())
+                .register(meterRegistry.get());
+    }
+
+    private DistributionSummary registerRowSummary(final String method) {
+        return DistributionSummary.builder(ROWS_METRIC)
+                .description("Rows emitted per repository call")
+                .baseUnit("rows")
+                .tag("repository", repository)
+                .tag("method", method)
+                .register(meterRegistry.get());
+    }
+
+    private record CallTags(String method, String outcome, String exception) {
+    }
+
+    private static String outcome(final SignalType signal) {
+        return switch (signal) {
+            case ON_ERROR -> "error";
+            case CANCEL -> "cancelled";
+            default -> "success";
+        };
+    }
+}
@@ -0,0 +1,52 @@
+package com.springboot.reactivesimplebank.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.data.repository.Repository;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+
+/**
+ * Wraps every repository bean, both Spring Data interfaces and the {@code @Repository} classes built on
+ * DatabaseClient, so each call is measured by {@link RepositoryMetricsInterceptor}.
+ * The registry is looked up lazily: a post-processor that pulled it in eagerly would create it before Spring Boot
+ * has applied the management.metrics.* configuration to it.
+ */
+@Component
+public class RepositoryMetricsPostProcessor implements BeanPostProcessor {
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    public RepositoryMetricsPostProcessor(final ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(final Object bean, final String beanName) {
+        if (bean instanceof Repository<?, ?>) {
+            final Class<?> repositoryInterface = Arrays.stream(bean.getClass().getInterfaces())
+                    .filter(Repository.class::isAssignableFrom)
+                    .findFirst()
+                    .orElse(Repository.class);
+            final ProxyFactory proxyFactory = new ProxyFactory(bean);
+            proxyFactory.addAdvice(new RepositoryMetricsInterceptor(repositoryInterface.getSimpleName(),
+                    meterRegistry::getObject));
+            return proxyFactory.getProxy(repositoryInterface.getClassLoader());
+        }
+        final Class<?> targetClass = AopUtils.getTargetClass(bean);
+        if (AnnotatedElementUtils.hasAnnotation(targetClass,
+                org.springframework.stereotype.Repository.class)) {
+            final ProxyFactory proxyFactory = new ProxyFactory(bean);
+            proxyFactory.setProxyTargetClass(true);
+            proxyFactory.addAdvice(new RepositoryMetricsInterceptor(targetClass.getSimpleName(),
+                    meterRegistry::getObject));
+            return proxyFactory.getProxy(targetClass.getClassLoader());
+        }
+        return bean;
+    }
+}
@@ -0,0 +1,13 @@
+package com.springboot.reactivesimplebank.repository;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Repository fragment that always issues an INSERT. {@code save} decides between INSERT and UPDATE from the id,
+ * so an entity that arrives with an id would be updated instead of created. With {@code insert} a duplicate
+ * primary key or unique value fails with {@link org.springframework.dao.DuplicateKeyException} in one round trip.
+ */
+public interface InsertRepository<T> {
+
+    Mono<T> insert(T entity);
+}
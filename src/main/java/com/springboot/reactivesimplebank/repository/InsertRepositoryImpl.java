@@ -0,0 +1,18 @@
+package com.springboot.reactivesimplebank.repository;
+
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import reactor.core.publisher.Mono;
+
+public class InsertRepositoryImpl<T> implements InsertRepository<T> {
+
+    private final R2dbcEntityTemplate entityTemplate;
+
+    public InsertRepositoryImpl(final R2dbcEntityTemplate entityTemplate) {
+        this.entityTemplate = entityTemplate;
+    }
+
+    @Override
+    public Mono<T> insert(final T entity) {
+        return entityTemplate.insert(entity);
+    }
+}
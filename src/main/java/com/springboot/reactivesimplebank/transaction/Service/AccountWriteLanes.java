@@ -0,0 +1,123 @@
+package com.springboot.reactivesimplebank.transaction.Service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Striped executor for account writes. Every bank account id is hashed onto one of a fixed number of lanes;
+ * work submitted to the same lane runs one at a time in submission order, while different lanes run in parallel.
+ * Writes to a hot account therefore queue in memory instead of contending for the same row lock.
+ */
+@Component
+public class AccountWriteLanes {
+
+    private static final Logger log = LoggerFactory.getLogger(AccountWriteLanes.class);
+    static final String QUEUE_DEPTH_METRIC = "bank.transactions.lane.queue-depth";
+
+    private final Lane[] lanes;
+
+    public AccountWriteLanes(@Value("${bank.transactions.write-lanes:64}") final int laneCount,
+                             final MeterRegistry meterRegistry) {
+        if (laneCount < 1) {
+            throw new IllegalArgumentException("Write lane count must be greater than zero");
+        }
+        this.lanes = new Lane[laneCount];
+        for (int i = 0; i < laneCount; i++) {
+            final Lane lane = new Lane();
+            Gauge.builder(QUEUE_DEPTH_METRIC, lane.depth, AtomicInteger::get)
+                    .description("Writes waiting or running in an account write lane")
+                    .tag("lane", String.valueOf(i))
+                    .register(meterRegistry);
+            lanes[i] = lane;
+        }
+    }
+
+    /**
+     * Runs the work on the lane of the given account once every earlier submission to that lane has finished.
+     * The work is queued when the returned Mono is subscribed and always runs to completion, even if the
+     * subscriber cancels in the meantime.
+     */
+    public <T> Mono<T> submit(final Long bankAccountId, final Mono<T> work) {
+        return Mono.defer(() -> laneFor(bankAccountId).enqueue(work));
+    }
+
+    /**
+     * Runs work that writes to two accounts once it holds the lanes of both, so it is ordered with the writes of
+     * each. Lanes are taken in ascending lane order, so two such writes never wait on each other; when both
+     * accounts share a lane it is taken once.
+     */
+    public <T> Mono<T> submit(final Long bankAccountId, final Long otherBankAccountId, final Mono<T> work) {
+        final int lane = laneIndex(bankAccountId);
+        final int otherLane = laneIndex(otherBankAccountId);
+        if (lane == otherLane) {
+            return submit(bankAccountId, work);
+        }
+        final Lane first = lanes[Math.min(lane, otherLane)];
+        final Lane second = lanes[Math.max(lane, otherLane)];
+        return Mono.defer(() -> first.enqueue(Mono.defer(() -> second.enqueue(work))));
+    }
+
+    public int laneCount() {
+        return lanes.length;
+    }
+
+    public int queueDepth(final Long bankAccountId) {
+        return laneFor(bankAccountId).depth.get();
+    }
+
+    private Lane laneFor(final Long bankAccountId) {
+        return lanes[laneIndex(bankAccountId)];
+    }
+
+    private int laneIndex(final Long bankAccountId) {
+        return bankAccountId == null ? 0 : Math.floorMod(Long.hashCode(bankAccountId), lanes.length);
+    }
+
+    private static final class Lane {
+
+        private final Sinks.Many<Mono<Void>> queue = Sinks.many().unicast().onBackpressureBuffer();
+        private final AtomicInteger depth = new AtomicInteger();
+
+        private Lane() {
+            queue.asFlux()
+                    .concatMap(task -> task, 1)
+                    .subscribe(null, error -> log.error("[Account Write Lanes] Lane stopped", error));
+        }
+
+        private <T> Mono<T> enqueue(final Mono<T> work) {
+            final Sinks.One<T> result = Sinks.one();
+            final Mono<Void> task = Mono.defer(() -> work)
+                    .doOnSuccess(value -> {
+                        if (value == null) {
+                            result.tryEmitEmpty();
+                        } else {
+                            result.tryEmitValue(value);
+                        }
+                    })
+                    .doOnError(result::tryEmitError)
+                    .onErrorResume(error -> Mono.empty())
+                    .doFinally(signal -> depth.decrementAndGet())
+                    .then();
+
+            depth.incrementAndGet();
+            final Sinks.EmitResult emitted;
+            synchronized (this) {
+                emitted = queue.tryEmitNext(task);
+            }
+            if (emitted.isFailure()) {
+                depth.decrementAndGet();
+                return Mono.error(new IllegalStateException(
+                        "[Account Write Lanes] Could not queue write: " + emitted));
+            }
+            return result.asMono();
+        }
+    }
+}
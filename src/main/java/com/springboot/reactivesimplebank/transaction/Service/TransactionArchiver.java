@@ -0,0 +1,113 @@
+package com.springboot.reactivesimplebank.transaction.Service;
+
+import com.springboot.reactivesimplebank.transaction.repository.TransactionArchiveRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Background job that keeps the transaction table down to the last {@code bank.transactions.archive.horizon} of
+ * history. Every {@code bank.transactions.archive.interval} it moves the transactions created before the horizon
+ * into the archive table, {@code bank.transactions.archive.batch-size} rows per database transaction, so a large
+ * backlog never holds locks on more than one batch at a time. A run that is still going when the next one is due
+ * makes that next run be skipped.
+ */
+@Component
+public class TransactionArchiver {
+
+    private static final Logger log = LoggerFactory.getLogger(TransactionArchiver.class);
+    static final String ARCHIVED_METRIC = "bank.transactions.archived";
+
+    private final TransactionArchiveRepository archiveRepository;
+    private final TransactionalOperator transactionalOperator;
+    private final Duration horizon;
+    private final Duration interval;
+    private final int batchSize;
+    private final Counter archived;
+    private Disposable schedule;
+
+    public TransactionArchiver(final TransactionArchiveRepository archiveRepository,
+                               final TransactionalOperator transactionalOperator,
+                               @Value("${bank.transactions.archive.horizon:365d}") final Duration horizon,
+                               @Value("${bank.transactions.archive.interval:1h}") final Duration interval,
+                               @Value("${bank.transactions.archive.batch-size:1000}") final int batchSize,
+                               final MeterRegistry meterRegistry) {
+        if (horizon.isNegative() || horizon.isZero()) {
+            throw new IllegalArgumentException("bank.transactions.archive.horizon must be greater than zero");
+        }
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("bank.transactions.archive.batch-size must be greater than zero");
+        }
+        this.archiveRepository = archiveRepository;
+        this.transactionalOperator = transactionalOperator;
+        this.horizon = horizon;
+        this.interval = interval;
+        this.batchSize = batchSize;
+        this.archived = Counter.builder(ARCHIVED_METRIC)
+                .description("Transactions moved from the transaction table to the archive")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Starts the periodic runs once the application is up; an interval of zero disables them.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (interval.isZero() || interval.isNegative()) {
+            log.info("[Transaction Archiver] Disabled");
+            return;
+        }
+        schedule = Flux.interval(interval, interval)
+                .onBackpressureDrop()
+                .concatMap(tick -> archive()
+                        .onErrorResume(error -> {
+                            log.error("[Transaction Archiver] Run failed", error);
+                            return Mono.empty();
+                        }), 1)
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (schedule != null) {
+            schedule.dispose();
+        }
+    }
+
+    /**
+     * Archives every transaction older than the horizon and returns how many were moved.
+     */
+    public Mono<Long> archive() {
+        return Mono.defer(() -> archiveCreatedBefore(LocalDateTime.now().minus(horizon)));
+    }
+
+    Mono<Long> archiveCreatedBefore(final LocalDateTime cutoff) {
+        return moveBatch(cutoff)
+                .expand(moved -> moved < batchSize ? Mono.empty() : moveBatch(cutoff))
+                .reduce(0L, Long::sum)
+                .doOnNext(total -> {
+                    if (total > 0) {
+                        log.info("[Transaction Archiver] Archived {} transactions created before {}", total, cutoff);
+                    }
+                });
+    }
+
+    private Mono<Integer> moveBatch(final LocalDateTime cutoff) {
+        return archiveRepository.moveCreatedBefore(cutoff, batchSize)
+                .as(transactionalOperator::transactional)
+                .doOnNext(archived::increment);
+    }
+}
@@ -0,0 +1,157 @@
+package com.springboot.reactivesimplebank.transaction.Service;
+
+import com.springboot.reactivesimplebank.bankAccount.repository.BalanceSnapshotRepository;
+import com.springboot.reactivesimplebank.bankAccount.repository.IBankAccountRepository;
+import com.springboot.reactivesimplebank.datasource.ReadWriteRouting;
+import com.springboot.reactivesimplebank.dto.transactionDto.TransactionBatchResult;
+import com.springboot.reactivesimplebank.transaction.model.Transaction;
+import com.springboot.reactivesimplebank.transaction.repository.TransactionBatchRepository;
+import com.springboot.reactivesimplebank.transaction.repository.TransactionTypeTotalRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Bulk ingestion path: groups incoming transactions into batches of {@code bank.transactions.batch-size}
+ * rows and writes each batch, together with its balance deltas, in its own database transaction.
+ */
+@Service
+public class TransactionBatchService {
+
+    private final Logger log = LoggerFactory.getLogger(TransactionBatchService.class);
+
+    private final TransactionBatchRepository batchRepository;
+    private final IBankAccountRepository bankAccountRepository;
+    private final TransactionTypeTotalRepository typeTotalRepository;
+    private final TransactionalOperator transactionalOperator;
+    private final BalanceSnapshotRepository snapshotRepository;
+    private final int batchSize;
+
+    private static final String INVALID_ROW = "[Transaction service] Invalid transaction at position %d: %s";
+
+    public TransactionBatchService(final TransactionBatchRepository batchRepository,
+                                   final IBankAccountRepository bankAccountRepository,
+                                   final TransactionTypeTotalRepository typeTotalRepository,
+                                   final TransactionalOperator transactionalOperator,
+                                   final BalanceSnapshotRepository snapshotRepository,
+                                   @Value("${bank.transactions.batch-size:500}") final int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("bank.transactions.batch-size must be greater than zero");
+        }
+        this.batchRepository = batchRepository;
+        this.bankAccountRepository = bankAccountRepository;
+        this.typeTotalRepository = typeTotalRepository;
+        this.transactionalOperator = transactionalOperator;
+        this.snapshotRepository = snapshotRepository;
+        this.batchSize = batchSize;
+    }
+
+    public Flux<TransactionBatchResult> saveAll(final Flux<Transaction> transactions) {
+        return transactions
+                .buffer(batchSize)
+                .index()
+                .concatMap(indexed -> saveBatch(indexed.getT1(), indexed.getT2()))
+                .as(ReadWriteRouting::write);
+    }
+
+    private Mono<TransactionBatchResult> saveBatch(final long batch, final List<Transaction> transactions) {
+        return validateBatch(transactions)
+                .then(Mono.defer(() -> batchRepository.insertAll(transactions)))
+                .flatMap(inserted -> applyBalances(transactions)
+                        .then(applySnapshots(transactions))
+                        .then(applyTypeTotals(transactions))
+                        .thenReturn(inserted))
+                .as(transactionalOperator::transactional)
+                .map(inserted -> TransactionBatchResult.success(batch, inserted.intValue()))
+                .onErrorResume(e -> {
+                    log.error("[Transaction service] Batch {} rolled back: {}", batch, e.getMessage());
+                    return Mono.just(TransactionBatchResult.failure(batch, transactions.size(), e.getMessage()));
+                });
+    }
+
+    /**
+     * Rejects the batch on its first invalid row. Types are lowercased like {@code TransactionService.validateType}
+     * does, so "Deposit" and "deposit" are stored and totalled under the same transactionTypeTotal key.
+     */
+    private Mono<Void> validateBatch(final List<Transaction> transactions) {
+        for (int i = 0; i < transactions.size(); i++) {
+            final Transaction transaction = transactions.get(i);
+            final String type = transaction.getType() == null ? null : transaction.getType().toLowerCase();
+            if (type == null || !TransactionService.VALID_TYPES.contains(type)) {
+                return Mono.error(new IllegalArgumentException(String.format(INVALID_ROW, i,
+                        "type " + transaction.getType() + " not valid, valid types: " + TransactionService.VALID_TYPES)));
+            }
+            transaction.setType(type);
+            if (transaction.getBankAccountId() == null || transaction.getAmount() == null) {
+                return Mono.error(new IllegalArgumentException(String.format(INVALID_ROW, i,
+                        "bankAccountId and amount are required")));
+            }
+        }
+        return Mono.empty();
+    }
+
+    /**
+     * Applies one balance update per account touched by the batch, in ascending account order.
+     */
+    private Mono<Void> applyBalances(final List<Transaction> transactions) {
+        final Map<Long, long[]> deltas = new TreeMap<>();
+        for (Transaction transaction : transactions) {
+            final long[] delta = deltas.computeIfAbsent(transaction.getBankAccountId(), id -> new long[1]);
+            delta[0] = Math.addExact(delta[0], transaction.getAmount());
+        }
+        return Flux.fromIterable(deltas.entrySet())
+                .filter(delta -> delta.getValue()[0] != 0L)
+                .concatMap(delta -> bankAccountRepository.addToBalance(delta.getKey(), delta.getValue()[0]))
+                .then();
+    }
+
+    /**
+     * Applies one snapshot update per (account, day) pair among the rows dated before today, in ascending account
+     * order; rows dated today leave the end-of-day snapshots untouched.
+     */
+    private Mono<Void> applySnapshots(final List<Transaction> transactions) {
+        final LocalDate today = LocalDate.now();
+        final Map<Long, Map<LocalDate, long[]>> deltas = new TreeMap<>();
+        for (Transaction transaction : transactions) {
+            if (transaction.getCreationDate() == null || !transaction.getCreationDate().toLocalDate().isBefore(today)) {
+                continue;
+            }
+            final long[] delta = deltas.computeIfAbsent(transaction.getBankAccountId(), id -> new TreeMap<>())
+                    .computeIfAbsent(transaction.getCreationDate().toLocalDate(), day -> new long[1]);
+            delta[0] = Math.addExact(delta[0], transaction.getAmount());
+        }
+        return Flux.fromIterable(deltas.entrySet())
+                .concatMap(account -> Flux.fromIterable(account.getValue().entrySet())
+                        .filter(day -> day.getValue()[0] != 0L)
+                        .concatMap(day -> snapshotRepository.addFrom(account.getKey(), day.getKey(),
+                                day.getValue()[0])))
+                .then();
+    }
+
+    /**
+     * Applies one aggregate update per (account, type) pair touched by the batch, in ascending account order.
+     */
+    private Mono<Void> applyTypeTotals(final List<Transaction> transactions) {
+        final Map<Long, Map<String, long[]>> totals = new TreeMap<>();
+        for (Transaction transaction : transactions) {
+            final long[] total = totals.computeIfAbsent(transaction.getBankAccountId(), id -> new TreeMap<>())
+                    .computeIfAbsent(transaction.getType(), type -> new long[2]);
+            total[0] = Math.addExact(total[0], transaction.getAmount());
+            total[1]++;
+        }
+        return Flux.fromIterable(totals.entrySet())
+                .concatMap(account -> Flux.fromIterable(account.getValue().entrySet())
+                        .concatMap(type -> typeTotalRepository.add(account.getKey(), type.getKey(),
+                                type.getValue()[0], type.getValue()[1])))
+                .then();
+    }
+}
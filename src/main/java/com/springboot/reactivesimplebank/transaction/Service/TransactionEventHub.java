@@ -0,0 +1,117 @@
+package com.springboot.reactivesimplebank.transaction.Service;
+
+import com.springboot.reactivesimplebank.transaction.model.Transaction;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-process feed of committed transaction changes, one multicast sink per bank account that currently has
+ * listeners. A sink exists only while it has subscribers, so idle accounts cost nothing and a publish only
+ * reaches the listeners of its own account. Every subscriber gets a bounded buffer that drops its oldest
+ * events when the client cannot keep up, and all subscribers share a single heartbeat timer.
+ */
+@Component
+public class TransactionEventHub {
+
+    static final String SUBSCRIBERS_METRIC = "bank.transactions.stream.subscribers";
+    static final String DROPPED_METRIC = "bank.transactions.stream.dropped";
+    public static final String CREATED = "created";
+    public static final String UPDATED = "updated";
+    public static final String DELETED = "deleted";
+
+    private final Map<Long, Channel> channels = new ConcurrentHashMap<>();
+    private final AtomicInteger subscribers = new AtomicInteger();
+    private final Flux<ServerSentEvent<Transaction>> heartbeats;
+    private final Counter dropped;
+    private final int bufferSize;
+
+    public TransactionEventHub(@Value("${bank.transactions.stream.buffer-size:256}") final int bufferSize,
+                               @Value("${bank.transactions.stream.heartbeat:15s}") final Duration heartbeat,
+                               final MeterRegistry meterRegistry) {
+        if (bufferSize < 1) {
+            throw new IllegalArgumentException("bank.transactions.stream.buffer-size must be greater than zero");
+        }
+        this.bufferSize = bufferSize;
+        final ServerSentEvent<Transaction> heartbeatEvent = ServerSentEvent.<Transaction>builder()
+                .comment("heartbeat")
+                .build();
+        this.heartbeats = Flux.interval(heartbeat, heartbeat)
+                .map(tick -> heartbeatEvent)
+                .share();
+        this.dropped = Counter.builder(DROPPED_METRIC)
+                .description("Stream events dropped because a subscriber fell behind")
+                .register(meterRegistry);
+        Gauge.builder(SUBSCRIBERS_METRIC, subscribers, AtomicInteger::get)
+                .description("Open transaction event streams")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Streams the changes of one bank account, interleaved with heartbeat comments, until the client disconnects.
+     */
+    public Flux<ServerSentEvent<Transaction>> subscribe(final Long bankAccountId) {
+        return Flux.defer(() -> {
+                    final Channel channel = channels.compute(bankAccountId, (id, existing) -> {
+                        final Channel joined = existing == null ? new Channel() : existing;
+                        joined.subscribers++;
+                        return joined;
+                    });
+                    subscribers.incrementAndGet();
+                    return channel.sink.asFlux()
+                            .doFinally(signal -> leave(bankAccountId));
+                })
+                .mergeWith(heartbeats)
+                .onBackpressureBuffer(bufferSize, event -> dropped.increment(), BufferOverflowStrategy.DROP_OLDEST);
+    }
+
+    /**
+     * Delivers the event to the current subscribers of the account; it is discarded when there are none.
+     */
+    public void publish(final String event, final Long bankAccountId, final Transaction transaction) {
+        if (bankAccountId == null) {
+            return;
+        }
+        final Channel channel = channels.get(bankAccountId);
+        if (channel == null) {
+            return;
+        }
+        final ServerSentEvent<Transaction> sse = ServerSentEvent.builder(transaction)
+                .id(String.valueOf(transaction.getTransactionId()))
+                .event(event)
+                .build();
+        synchronized (channel) {
+            channel.sink.tryEmitNext(sse);
+        }
+    }
+
+    public int subscriberCount() {
+        return subscribers.get();
+    }
+
+    public int channelCount() {
+        return channels.size();
+    }
+
+    private void leave(final Long bankAccountId) {
+        subscribers.decrementAndGet();
+        channels.computeIfPresent(bankAccountId, (id, channel) -> --channel.subscribers == 0 ? null : channel);
+    }
+
+    private static final class Channel {
+
+        private final Sinks.Many<ServerSentEvent<Transaction>> sink = Sinks.many().multicast().directBestEffort();
+        private int subscribers;
+    }
+}
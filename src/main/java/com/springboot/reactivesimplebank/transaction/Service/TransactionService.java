@@ -1,102 +1,338 @@
 package com.springboot.reactivesimplebank.transaction.Service;
 
-import com.springboot.reactivesimplebank.bankAccount.service.BankAccountService;
+import com.springboot.reactivesimplebank.bankAccount.repository.BalanceSnapshotRepository;
+import com.springboot.reactivesimplebank.bankAccount.repository.IBankAccountRepository;
+import com.springboot.reactivesimplebank.cache.EntityCache;
+import com.springboot.reactivesimplebank.cache.RequestCoalescer;
+import com.springboot.reactivesimplebank.datasource.ReadWriteRouting;
 import com.springboot.reactivesimplebank.dto.transactionDto.TotalAmount;
+import com.springboot.reactivesimplebank.dto.transactionDto.TransactionCursor;
+import com.springboot.reactivesimplebank.dto.transactionDto.TransactionPage;
+import com.springboot.reactivesimplebank.dto.transactionDto.TransferRequest;
 import com.springboot.reactivesimplebank.exception.customExceptions.DuplicateEntityException;
 import com.springboot.reactivesimplebank.exception.customExceptions.EntityNotFoundException;
 import com.springboot.reactivesimplebank.transaction.model.Transaction;
+import com.springboot.reactivesimplebank.transaction.model.TransactionTypeTotal;
 import com.springboot.reactivesimplebank.transaction.repository.ITransactionRepository;
+import com.springboot.reactivesimplebank.transaction.repository.IdempotencyKeyRepository;
+import com.springboot.reactivesimplebank.transaction.repository.TransactionArchiveRepository;
+import com.springboot.reactivesimplebank.transaction.repository.TransactionTypeTotalRepository;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+import reactor.util.function.Tuples;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
+import java.util.function.IntFunction;
 
 @Service
 public class TransactionService {
 
     private final ITransactionRepository transactionRepository;
+    private final IBankAccountRepository bankAccountRepository;
+    private final TransactionTypeTotalRepository typeTotalRepository;
+    private final TransactionalOperator transactionalOperator;
+    private final AccountWriteLanes accountWriteLanes;
+    private final TransactionEventHub eventHub;
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+    private final EntityCache<String, Transaction> idempotencyKeyCache;
+    private final TransactionArchiveRepository archiveRepository;
+    private final BalanceSnapshotRepository snapshotRepository;
+    private final RequestCoalescer<String, TotalAmount> resumeByTypeCoalescer;
 
     private static final String EXISTING_TRANSACTION = "[Transaction Service] The transaction with id: %s, already exists";
     private static final String TRANSACTION_NOT_FOUND = "[Transaction Service] Transaction with id: %s not found";
-    private static final Set<String> VALID_TYPES = Set.of("withdrawal", "deposit", "transfer");
+    private static final String BANK_ACCOUNT_NOT_FOUND = "[Transaction Service] Bank account with id: %s not found";
+    private static final String IDEMPOTENCY_KEY_REUSED =
+            "[Transaction Service] Idempotency-Key %s was already used for a different transaction";
+    static final int MAX_IDEMPOTENCY_KEY_LENGTH = 64;
+    private static final String TRANSFER_TYPE = "transfer";
+    static final Set<String> VALID_TYPES = Set.of("withdrawal", "deposit", "transfer");
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 500;
+    static final int RESUME_TRANSACTIONS = 100;
 
-    public TransactionService(final ITransactionRepository transactionRepository) {
+    public TransactionService(final ITransactionRepository transactionRepository,
+                              final IBankAccountRepository bankAccountRepository,
+                              final TransactionTypeTotalRepository typeTotalRepository,
+                              final TransactionalOperator transactionalOperator,
+                              final AccountWriteLanes accountWriteLanes,
+                              final TransactionEventHub eventHub,
+                              final IdempotencyKeyRepository idempotencyKeyRepository,
+                              final EntityCache<String, Transaction> idempotencyKeyCache,
+                              final TransactionArchiveRepository archiveRepository,
+                              final BalanceSnapshotRepository snapshotRepository,
+                              final RequestCoalescer<String, TotalAmount> resumeByTypeCoalescer) {
         this.transactionRepository = transactionRepository;
+        this.bankAccountRepository = bankAccountRepository;
+        this.typeTotalRepository = typeTotalRepository;
+        this.transactionalOperator = transactionalOperator;
+        this.accountWriteLanes = accountWriteLanes;
+        this.eventHub = eventHub;
+        this.idempotencyKeyRepository = idempotencyKeyRepository;
+        this.idempotencyKeyCache = idempotencyKeyCache;
+        this.archiveRepository = archiveRepository;
+        this.snapshotRepository = snapshotRepository;
+        this.resumeByTypeCoalescer = resumeByTypeCoalescer;
     }
 
+    /**
+     * Looks the transaction up in the transaction table and, only when it is not there, in the archive.
+     */
     public Mono<Transaction> findById(final Long id) {
         return transactionRepository.findById(id)
+                .switchIfEmpty(Mono.defer(() -> archiveRepository.findById(id)))
                 .switchIfEmpty(Mono.error(new EntityNotFoundException(formatMessage(TRANSACTION_NOT_FOUND,
-                        String.valueOf(id)))));
+                        String.valueOf(id)))))
+                .as(ReadWriteRouting::readOnly);
     }
 
     public Flux<Transaction> findAll() {
         return transactionRepository.findAll()
-                .switchIfEmpty(Mono.error(new EntityNotFoundException("[Transaction Service] No transactions found")));
+                .switchIfEmpty(Mono.error(new EntityNotFoundException("[Transaction Service] No transactions found")))
+                .as(ReadWriteRouting::readOnly);
     }
 
+    /**
+     * Inserts the transaction without checking for it first; a duplicate id is reported by the primary key.
+     */
     public Mono<Transaction> save(final Transaction transaction) {
-        return transactionRepository.existsById(transaction.getTransactionId())
-                .flatMap(exists -> exists
-                                ? Mono.error(new DuplicateEntityException(
-                                formatMessage(EXISTING_TRANSACTION,
-                                        String.valueOf(transaction.getTransactionId()))
-                        ))
-                                : transactionRepository.save(transaction)
-                );
+        return withValidType(transaction)
+                .flatMap(valid -> create(valid, null))
+                .as(ReadWriteRouting::write);
     }
 
+    /**
+     * Creates the transaction at most once per Idempotency-Key; a request without a key is a plain {@link #save}.
+     * A replay gets the transaction stored for the key back, from memory when the key is hot and otherwise from
+     * the key table, which is read before anything is written, so a replay after a restart or an eviction never
+     * touches the transaction table. The key row is inserted in the same database transaction as the transaction
+     * itself; when a concurrent request with the same key wins the race, the conflict, on the key or on a
+     * client-supplied transaction id, is resolved by reading the stored result.
+     */
+    public Mono<Transaction> save(final Transaction transaction, final String idempotencyKey) {
+        if (idempotencyKey == null) {
+            return save(transaction);
+        }
+        final Long requestedId = transaction.getTransactionId();
+        return withValidType(transaction)
+                .then(validateIdempotencyKey(idempotencyKey))
+                .flatMap(key -> idempotencyKeyCache.get(key, k -> idempotencyKeyRepository.findTransaction(k)
+                        .switchIfEmpty(Mono.defer(() -> create(transaction, k)
+                                .onErrorResume(e -> e instanceof DuplicateKeyException
+                                                || e instanceof DuplicateEntityException,
+                                        e -> idempotencyKeyRepository.findTransaction(k)
+                                                .switchIfEmpty(Mono.error(e)))))))
+                .flatMap(stored -> sameRequest(stored, transaction, requestedId)
+                        ? Mono.just(stored)
+                        : Mono.error(new DuplicateEntityException(
+                                formatMessage(IDEMPOTENCY_KEY_REUSED, idempotencyKey))))
+                .as(ReadWriteRouting::write);
+    }
+
+    /**
+     * Inserts the transaction and, when a key is given, its idempotency record. A conflict on the transaction id is
+     * reported as a duplicate entity; a conflict on the key surfaces as the raw DuplicateKeyException and rolls
+     * everything back.
+     */
+    private Mono<Transaction> create(final Transaction transaction, final String idempotencyKey) {
+        return serialized(transaction.getBankAccountId(), rejectTakenId(transaction.getTransactionId())
+                .then(Mono.defer(() -> transactionRepository.insert(transaction)))
+                .onErrorMap(DuplicateKeyException.class, e -> new DuplicateEntityException(
+                        formatMessage(EXISTING_TRANSACTION, String.valueOf(transaction.getTransactionId()))))
+                .flatMap(saved -> adjustBalance(saved.getBankAccountId(), saved.getAmount(), saved.getCreationDate())
+                        .then(addToTypeTotal(saved.getBankAccountId(), saved.getType(), saved.getAmount(), 1))
+                        .then(idempotencyKey == null
+                                ? Mono.empty()
+                                : idempotencyKeyRepository.insert(idempotencyKey, saved))
+                        .thenReturn(saved)))
+                .doOnNext(saved -> eventHub.publish(TransactionEventHub.CREATED, saved.getBankAccountId(), saved));
+    }
+
+    /**
+     * Rejects a client-supplied id that is already used by a live or an archived transaction. On MySQL the primary
+     * key of the partitioned transaction table is (transactionId, bankAccountId), so the insert alone would accept
+     * the same id under another account; the locking read also holds back a concurrent insert of that id until this
+     * database transaction ends. Generated ids are never checked.
+     */
+    private Mono<Void> rejectTakenId(final Long transactionId) {
+        if (transactionId == null) {
+            return Mono.empty();
+        }
+        return transactionRepository.findByIdForUpdate(transactionId).hasElement()
+                .flatMap(taken -> taken ? Mono.just(true) : archiveRepository.findById(transactionId).hasElement())
+                .flatMap(taken -> taken
+                        ? Mono.error(new DuplicateEntityException(
+                                formatMessage(EXISTING_TRANSACTION, String.valueOf(transactionId))))
+                        : Mono.empty());
+    }
+
+    /**
+     * Applies the update on the lanes of both the account the transaction currently belongs to and the one it is
+     * moved to, so it is ordered with the other writes of each. The current account is looked up first to pick the
+     * lanes; the row is then read again FOR UPDATE inside the database transaction, so the deltas are computed from
+     * the committed amount even when another node updated or moved it in between.
+     */
     public Mono<Transaction> update(final Transaction transaction) {
-        return transactionRepository.findById(transaction.getTransactionId())
+        return withValidType(transaction)
+                .then(Mono.defer(() -> findExisting(transaction.getTransactionId())))
+                .flatMap(current -> serialized(current.getBankAccountId(), transaction.getBankAccountId(),
+                        findForUpdate(transaction.getTransactionId()).flatMap(existingTransaction -> {
+                    final Long previousBankAccountId = existingTransaction.getBankAccountId();
+                    final Long previousAmount = existingTransaction.getAmount();
+                    final String previousType = existingTransaction.getType();
+                    existingTransaction.setType(transaction.getType());
+                    existingTransaction.setAmount(transaction.getAmount());
+                    existingTransaction.setBankAccountId(transaction.getBankAccountId());
+                    return transactionRepository.save(existingTransaction)
+                            .flatMap(saved -> rebalance(previousBankAccountId, previousAmount, saved)
+                                    .then(retotal(previousBankAccountId, previousType, previousAmount, saved))
+                                    .thenReturn(Tuples.of(previousBankAccountId, saved)));
+                })))
+                .map(this::publishUpdate)
+                .as(ReadWriteRouting::write);
+    }
+
+    private Mono<Transaction> findExisting(final Long transactionId) {
+        return transactionRepository.findById(transactionId)
                 .switchIfEmpty(Mono.error(new EntityNotFoundException(
-                        formatMessage(TRANSACTION_NOT_FOUND, String.valueOf(transaction.getTransactionId()))))
-                ).flatMap(transactionRepository::save);
+                        formatMessage(TRANSACTION_NOT_FOUND, String.valueOf(transactionId)))));
     }
 
+    private Mono<Transaction> findForUpdate(final Long transactionId) {
+        return transactionRepository.findByIdForUpdate(transactionId)
+                .switchIfEmpty(Mono.error(new EntityNotFoundException(
+                        formatMessage(TRANSACTION_NOT_FOUND, String.valueOf(transactionId)))));
+    }
+
+    /**
+     * Deletes on the lane of the transaction's account, with the row read FOR UPDATE. The balance, the type total
+     * and the snapshots are only adjusted when the delete removed the row, so two concurrent deletes of the same
+     * transaction subtract its amount once; the second one finds nothing and reports it as not found.
+     */
     public Mono<String> deleteById(final Long id) {
-        return transactionRepository.findById(id)
-        .switchIfEmpty(Mono.error(new EntityNotFoundException(
-                        formatMessage(TRANSACTION_NOT_FOUND, String.valueOf(id))))
-                )
-                .flatMap(transactionRepository::delete)
+        return findExisting(id)
+                .flatMap(current -> serialized(current.getBankAccountId(), findForUpdate(id)
+                        .flatMap(existingTransaction -> transactionRepository.deleteByTransactionId(id)
+                                .filter(deleted -> deleted == 1)
+                                .switchIfEmpty(Mono.error(new EntityNotFoundException(
+                                        formatMessage(TRANSACTION_NOT_FOUND, String.valueOf(id)))))
+                                .flatMap(deleted -> adjustBalance(existingTransaction.getBankAccountId(),
+                                        negate(existingTransaction.getAmount()), existingTransaction.getCreationDate())
+                                        .then(addToTypeTotal(existingTransaction.getBankAccountId(),
+                                                existingTransaction.getType(), negate(existingTransaction.getAmount()),
+                                                -1)))
+                                .thenReturn(existingTransaction))))
+                .doOnNext(deleted -> eventHub.publish(
+                        TransactionEventHub.DELETED, deleted.getBankAccountId(), deleted))
                 .then(Mono.just(
-                        String.format("[Transaction Service] Transaction with id: %s successfully deleted", id)));
+                        String.format("[Transaction Service] Transaction with id: %s successfully deleted", id)))
+                .as(ReadWriteRouting::write);
+    }
+
+    /**
+     * Debits the source account and credits the target account in one database transaction.
+     * Both account rows are locked in ascending id order before any write, so two opposing
+     * transfers always queue on the same first lock instead of deadlocking.
+     */
+    public Flux<Transaction> transfer(final TransferRequest request) {
+        return validateTransfer(request)
+                .thenMany(Flux.defer(() -> {
+                    final long source = request.sourceBankAccountId();
+                    final long target = request.targetBankAccountId();
+                    return Flux.just(Math.min(source, target), Math.max(source, target))
+                            .concatMap(id -> bankAccountRepository.findByIdForUpdate(id)
+                                    .switchIfEmpty(Mono.error(new EntityNotFoundException(
+                                            formatMessage(BANK_ACCOUNT_NOT_FOUND, String.valueOf(id))))))
+                            .thenMany(Flux.defer(() -> transactionRepository.saveAll(List.of(
+                                    new Transaction(null, TRANSFER_TYPE, source, -request.amount()),
+                                    new Transaction(null, TRANSFER_TYPE, target, request.amount())))))
+                            .concatMap(leg -> adjustBalance(leg.getBankAccountId(), leg.getAmount())
+                                    .then(addToTypeTotal(leg.getBankAccountId(), leg.getType(), leg.getAmount(), 1))
+                                    .thenReturn(leg));
+                }))
+                .as(transactionalOperator::transactional)
+                .as(ReadWriteRouting::write);
     }
 
-    public Flux<Transaction> findAllByBankAccountId(final Long bankAccountId) {
-        return transactionRepository.findAllByBankAccountId(bankAccountId)
+    /**
+     * Live feed of the transactions created, updated or deleted on the account from now on, published once each
+     * write has committed. Replaces polling the full history to detect new activity.
+     */
+    public Flux<ServerSentEvent<Transaction>> stream(final Long bankAccountId) {
+        return validateBankAccountId(bankAccountId)
+                .flatMapMany(eventHub::subscribe);
+    }
+
+    /**
+     * Streams the transactions of the account still in the transaction table, followed, when
+     * {@code includeArchived} is set, by those already moved to the archive.
+     */
+    public Flux<Transaction> findAllByBankAccountId(final Long bankAccountId, final boolean includeArchived) {
+        final Flux<Transaction> recent = transactionRepository.findAllByBankAccountId(bankAccountId);
+        return (includeArchived
+                ? recent.concatWith(Flux.defer(() -> archiveRepository.findAllByBankAccountId(bankAccountId)))
+                : recent)
                 .switchIfEmpty(Flux.error(new EntityNotFoundException(
                         formatMessage(TRANSACTION_NOT_FOUND, String.valueOf(bankAccountId)
-                ))));
+                ))))
+                .as(ReadWriteRouting::readOnly);
+    }
+
+    /**
+     * Returns one page of the account history, newest first. The page size defaults to {@link #DEFAULT_PAGE_SIZE}
+     * and is capped at {@link #MAX_PAGE_SIZE}; pass the returned cursor back to read the next page.
+     */
+    public Mono<TransactionPage> findPageByBankAccountId(final Long bankAccountId, final Integer size,
+                                                         final String cursor) {
+        return Mono.zip(validateBankAccountId(bankAccountId), validatePageSize(size))
+                .flatMap(tuple -> fetchPage(tuple.getT1(), tuple.getT2(), cursor)
+                        .collectList()
+                        .map(transactions -> toPage(transactions, tuple.getT2())))
+                .as(ReadWriteRouting::readOnly);
     }
 
     public Flux<Transaction> findAllByTypeAndBankAccount(final String type, final Long bankAccountId) {
         return Mono.zip(validateType(type), validateBankAccountId(bankAccountId))
                 .flatMapMany(tuple -> transactionRepository
-                        .findAllByTypeAndBankAccountId(tuple.getT1(),tuple.getT2()));
+                        .findAllByTypeAndBankAccountId(tuple.getT1(),tuple.getT2()))
+                .as(ReadWriteRouting::readOnly);
     }
 
+    /**
+     * Returns the total of every transaction of the given type on the account, read from the running aggregate
+     * kept by the write paths, together with the {@link #RESUME_TRANSACTIONS} most recent of those transactions.
+     * Concurrent requests for the same account and type share one pair of queries.
+     */
     public Mono<TotalAmount> getResumeByType(final String type, final Long bankAccountId) {
 
         return Mono.zip(validateType(type), validateBankAccountId(bankAccountId))
-                .flatMap(tuple -> {
-                    Flux<Transaction> filterTransactions = transactionRepository
-                            .findAllByTypeAndBankAccountId(tuple.getT1(), tuple.getT2())
-                            .take(100);
-
-                    Mono<Double> total = calculateAmountByType(filterTransactions);
-                    return total.zipWith(filterTransactions
-                            .collectList())
-                            .map(result -> new TotalAmount(result.getT1(), result.getT2()));
-                });
+                .flatMap(tuple -> resumeByTypeCoalescer.get(tuple.getT2() + ":" + tuple.getT1(),
+                        key -> loadResumeByType(tuple.getT1(), tuple.getT2())));
+    }
+
+    private Mono<TotalAmount> loadResumeByType(final String type, final Long bankAccountId) {
+        return Mono.zip(
+                        typeTotalRepository.findByBankAccountIdAndType(bankAccountId, type)
+                                .defaultIfEmpty(TransactionTypeTotal.empty(bankAccountId, type)),
+                        transactionRepository.findLatestByTypeAndBankAccountId(
+                                type, bankAccountId, RESUME_TRANSACTIONS).collectList())
+                .map(tuple -> new TotalAmount(tuple.getT1().total(), tuple.getT2()))
+                .as(ReadWriteRouting::readOnly);
     }
 
     public Mono<TotalAmount> getFullResume(Long bankAccountId) {
         return validateBankAccountId(bankAccountId)
-                .flatMap(this::loadAndCompute);
+                .flatMap(this::loadAndCompute)
+                .as(ReadWriteRouting::readOnly);
     }
 
     private Mono<Long> validateBankAccountId(Long id) {
@@ -107,31 +343,215 @@ public class TransactionService {
     }
 
     private Mono<TotalAmount> loadAndCompute(Long validId) {
-        Flux<Transaction> txFlux = fetchTransactions(validId);
-
-        Mono<List<Transaction>> listMono = txFlux.collectList();
-        Mono<Double> totalMono = listMono
-                .flatMapMany(Flux::fromIterable)
-                .map(Transaction::getAmount)
-                .reduce(0.0, Double::sum);
+        Mono<Long> balanceMono = bankAccountRepository.findBalanceByBankAccountId(validId)
+                .defaultIfEmpty(0L);
+        Mono<List<Transaction>> listMono = fetchTransactions(validId).collectList();
 
-        return Mono.zip(totalMono, listMono)
+        return Mono.zip(balanceMono, listMono)
                 .map(tuple -> new TotalAmount(tuple.getT1(), tuple.getT2()));
     }
 
     private Flux<Transaction> fetchTransactions(Long bankAccountId) {
         return transactionRepository
                 .findAllByBankAccountId(bankAccountId)
-                .take(100)
-                .cache();
+                .take(100);
     }
 
+    private Flux<Transaction> fetchPage(final Long bankAccountId, final int size, final String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return withArchive(transactionRepository.findFirstPageByBankAccountId(bankAccountId, size + 1),
+                    size + 1, limit -> archiveRepository.findFirstPageByBankAccountId(bankAccountId, limit));
+        }
+        return Mono.fromCallable(() -> TransactionCursor.decode(cursor))
+                .flatMapMany(position -> withArchive(transactionRepository.findPageByBankAccountIdBefore(
+                                bankAccountId, position.creationDate(), position.transactionId(), size + 1),
+                        size + 1, limit -> archiveRepository.findPageByBankAccountIdBefore(
+                                bankAccountId, position.creationDate(), position.transactionId(), limit)));
+    }
+
+    /**
+     * Completes a short page from the transaction table with the newest archived rows from the same position.
+     * Archived rows are older than every row left in the table, so they simply follow it; the archive is only
+     * queried once paging has reached the end of the table.
+     */
+    private static Flux<Transaction> withArchive(final Flux<Transaction> recent, final int limit,
+                                                 final IntFunction<Flux<Transaction>> archived) {
+        return recent.collectList()
+                .flatMapMany(rows -> rows.size() < limit
+                        ? Flux.fromIterable(rows).concatWith(archived.apply(limit - rows.size()))
+                        : Flux.fromIterable(rows));
+    }
+
+    private static TransactionPage toPage(final List<Transaction> transactions, final int size) {
+        if (transactions.size() <= size) {
+            return new TransactionPage(transactions, null);
+        }
+        final List<Transaction> page = transactions.subList(0, size);
+        return new TransactionPage(page, TransactionCursor.of(page.get(size - 1)).encode());
+    }
+
+    private Mono<Void> validateTransfer(final TransferRequest request) {
+        if (request == null || request.sourceBankAccountId() == null || request.targetBankAccountId() == null) {
+            return Mono.error(new IllegalArgumentException("Source and target bank account ids are required"));
+        }
+        if (request.sourceBankAccountId().equals(request.targetBankAccountId())) {
+            return Mono.error(new IllegalArgumentException("Source and target bank accounts must be different"));
+        }
+        if (request.amount() == null || request.amount() <= 0) {
+            return Mono.error(new IllegalArgumentException("Transfer amount must be greater than zero"));
+        }
+        return Mono.empty();
+    }
+
+    private Mono<String> validateIdempotencyKey(final String idempotencyKey) {
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+            return Mono.error(new IllegalArgumentException(String.format(
+                    "Idempotency-Key must be between 1 and %d characters", MAX_IDEMPOTENCY_KEY_LENGTH)));
+        }
+        return Mono.just(idempotencyKey);
+    }
+
+    /**
+     * A replay must describe the same transaction as the request that first used the key. The requested id is
+     * captured up front because the insert writes the generated id into the request, even when it rolls back.
+     */
+    private static boolean sameRequest(final Transaction stored, final Transaction request, final Long requestedId) {
+        return Objects.equals(stored.getType(), request.getType())
+                && Objects.equals(stored.getBankAccountId(), request.getBankAccountId())
+                && Objects.equals(stored.getAmount(), request.getAmount())
+                && (requestedId == null || Objects.equals(stored.getTransactionId(), requestedId));
+    }
+
+    private Mono<Integer> validatePageSize(final Integer size) {
+        if (size == null) {
+            return Mono.just(DEFAULT_PAGE_SIZE);
+        }
+        if (size < 1) {
+            return Mono.error(new IllegalArgumentException("Page size must be greater than zero"));
+        }
+        return Mono.just(Math.min(size, MAX_PAGE_SIZE));
+    }
+
+    /**
+     * Moves the amount of an updated transaction from its previous account/amount to the new ones.
+     * When the account did not change only the difference is applied, so a single row is touched. Otherwise the
+     * two accounts are updated in ascending id order, the order in which {@link #transfer} locks them, so an update
+     * and a transfer between the same accounts cannot deadlock.
+     */
+    private Mono<Void> rebalance(final Long previousBankAccountId, final Long previousAmount,
+                                 final Transaction updated) {
+        if (Objects.equals(previousBankAccountId, updated.getBankAccountId())) {
+            return adjustBalance(updated.getBankAccountId(),
+                    valueOrZero(updated.getAmount()) - valueOrZero(previousAmount), updated.getCreationDate());
+        }
+        final Mono<Void> debitPrevious = Mono.defer(() -> adjustBalance(previousBankAccountId,
+                negate(previousAmount), updated.getCreationDate()));
+        final Mono<Void> creditUpdated = Mono.defer(() -> adjustBalance(updated.getBankAccountId(),
+                updated.getAmount(), updated.getCreationDate()));
+        return updated.getBankAccountId() == null || previousBankAccountId != null
+                && previousBankAccountId < updated.getBankAccountId()
+                ? debitPrevious.then(creditUpdated)
+                : creditUpdated.then(debitPrevious);
+    }
+
+    /**
+     * Moves an updated transaction out of its previous (account, type) aggregate and into the new one.
+     * When neither the account nor the type changed only the amount difference is applied.
+     */
+    private Mono<Void> retotal(final Long previousBankAccountId, final String previousType,
+                               final Long previousAmount, final Transaction updated) {
+        if (Objects.equals(previousBankAccountId, updated.getBankAccountId())
+                && Objects.equals(previousType, updated.getType())) {
+            return addToTypeTotal(updated.getBankAccountId(), updated.getType(),
+                    valueOrZero(updated.getAmount()) - valueOrZero(previousAmount), 0);
+        }
+        return addToTypeTotal(previousBankAccountId, previousType, negate(previousAmount), -1)
+                .then(addToTypeTotal(updated.getBankAccountId(), updated.getType(), updated.getAmount(), 1));
+    }
+
+    /**
+     * Announces a committed update. A transaction moved to another account also leaves the feed of the previous
+     * account, as a deletion there.
+     */
+    private Transaction publishUpdate(final Tuple2<Long, Transaction> update) {
+        final Transaction saved = update.getT2();
+        if (!Objects.equals(update.getT1(), saved.getBankAccountId())) {
+            eventHub.publish(TransactionEventHub.DELETED, update.getT1(), saved);
+        }
+        eventHub.publish(TransactionEventHub.UPDATED, saved.getBankAccountId(), saved);
+        return saved;
+    }
+
+    /**
+     * Queues the write on the lane of the account it targets and runs it in its own database transaction.
+     * The transaction has to be opened inside the lane: the lane subscribes to the work itself, so a transaction
+     * bound to the caller's subscription would not be visible to it.
+     */
+    private <T> Mono<T> serialized(final Long bankAccountId, final Mono<T> work) {
+        return accountWriteLanes.submit(bankAccountId, Mono.defer(() -> work).as(transactionalOperator::transactional));
+    }
+
+    private <T> Mono<T> serialized(final Long bankAccountId, final Long otherBankAccountId, final Mono<T> work) {
+        return accountWriteLanes.submit(bankAccountId, otherBankAccountId,
+                Mono.defer(() -> work).as(transactionalOperator::transactional));
+    }
+
+    private Mono<Void> adjustBalance(final Long bankAccountId, final Long delta) {
+        if (bankAccountId == null || valueOrZero(delta) == 0L) {
+            return Mono.empty();
+        }
+        return bankAccountRepository.addToBalance(bankAccountId, delta).then();
+    }
+
+    /**
+     * Applies the delta to the balance and, for a write dated before today, to the end-of-day snapshots already
+     * taken from its day on. Writes dated today never touch a snapshot, so they cost no extra statement.
+     */
+    private Mono<Void> adjustBalance(final Long bankAccountId, final Long delta, final LocalDateTime creationDate) {
+        final Mono<Void> balance = adjustBalance(bankAccountId, delta);
+        if (bankAccountId == null || valueOrZero(delta) == 0L || creationDate == null
+                || !creationDate.toLocalDate().isBefore(LocalDate.now())) {
+            return balance;
+        }
+        return balance.then(snapshotRepository.addFrom(bankAccountId, creationDate.toLocalDate(), delta));
+    }
+
+    private Mono<Void> addToTypeTotal(final Long bankAccountId, final String type, final Long amount,
+                                      final long count) {
+        if (bankAccountId == null || type == null || (valueOrZero(amount) == 0L && count == 0L)) {
+            return Mono.empty();
+        }
+        return typeTotalRepository.add(bankAccountId, type, valueOrZero(amount), count);
+    }
+
+    private static long valueOrZero(final Long value) {
+        return value == null ? 0L : value;
+    }
+
+    private static Long negate(final Long value) {
+        return -valueOrZero(value);
+    }
 
     private String formatMessage(final String message, final String argument) {
         return String.format(message, argument);
     }
 
-    private Mono<String> validateType(final String type) {
+    /**
+     * Lowercases the type of a transaction about to be written, so it is stored, and totalled in
+     * transactionTypeTotal, under the same key the resume reads use.
+     */
+    private Mono<Transaction> withValidType(final Transaction transaction) {
+        return validateType(transaction.getType())
+                .map(type -> {
+                    transaction.setType(type);
+                    return transaction;
+                });
+    }
+
+    /**
+     * Package-private so the JMH benchmarks in src/jmh can measure it directly.
+     */
+    Mono<String> validateType(final String type) {
         return Mono.justOrEmpty(type)
                 .filter(Objects::nonNull)
                 .switchIfEmpty(Mono.error(new IllegalArgumentException("Type cannot be null.")))
@@ -142,10 +562,4 @@ public class TransactionService {
                                 "[Transaction service] Type: %s not valid, valid types: %s", type, VALID_TYPES
                         ))));
     }
-
-    private Mono<Double> calculateAmountByType(final Flux<Transaction> transactions) {
-        return transactions
-                .map(Transaction::getAmount)
-                .reduce(0.0, Double::sum);
-    }
 }
@@ -1,15 +1,23 @@
 package com.springboot.reactivesimplebank.transaction.controller;
 
 import com.springboot.reactivesimplebank.dto.transactionDto.TotalAmount;
+import com.springboot.reactivesimplebank.dto.transactionDto.TransactionBatchResult;
+import com.springboot.reactivesimplebank.dto.transactionDto.TransactionPage;
+import com.springboot.reactivesimplebank.dto.transactionDto.TransferRequest;
+import com.springboot.reactivesimplebank.transaction.Service.TransactionBatchService;
 import com.springboot.reactivesimplebank.transaction.Service.TransactionService;
 import com.springboot.reactivesimplebank.transaction.model.Transaction;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -19,9 +27,12 @@ import reactor.core.publisher.Mono;
 public class TransactionController {
 
     private final TransactionService transactionService;
+    private final TransactionBatchService transactionBatchService;
 
-    public TransactionController(final TransactionService transactionService) {
+    public TransactionController(final TransactionService transactionService,
+                                 final TransactionBatchService transactionBatchService) {
         this.transactionService = transactionService;
+        this.transactionBatchService = transactionBatchService;
     }
 
     @GetMapping("/{bankAccountId}")
@@ -34,9 +45,35 @@ public class TransactionController {
         return transactionService.findAll();
     }
 
+    @GetMapping(value = "/all", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Transaction> streamAllTransactions() {
+        return transactionService.findAll();
+    }
+
     @GetMapping("all/{bankAccountId}")
-    public Flux<Transaction> getAllTransactionsByBankAccountId(@PathVariable final Long bankAccountId) {
-        return transactionService.findAllByBankAccountId(bankAccountId);
+    public Flux<Transaction> getAllTransactionsByBankAccountId(@PathVariable final Long bankAccountId,
+                                                              @RequestParam(defaultValue = "false")
+                                                              final boolean archived) {
+        return transactionService.findAllByBankAccountId(bankAccountId, archived);
+    }
+
+    @GetMapping(value = "all/{bankAccountId}", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Transaction> streamTransactionsByBankAccountId(@PathVariable final Long bankAccountId,
+                                                              @RequestParam(defaultValue = "false")
+                                                              final boolean archived) {
+        return transactionService.findAllByBankAccountId(bankAccountId, archived);
+    }
+
+    @GetMapping(value = "/stream/{bankAccountId}", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<Transaction>> streamTransactionEvents(@PathVariable final Long bankAccountId) {
+        return transactionService.stream(bankAccountId);
+    }
+
+    @GetMapping("/page/{bankAccountId}")
+    public Mono<TransactionPage> getTransactionPage(@PathVariable final Long bankAccountId,
+                                                    @RequestParam(required = false) final Integer size,
+                                                    @RequestParam(required = false) final String cursor) {
+        return transactionService.findPageByBankAccountId(bankAccountId, size, cursor);
     }
 
     @GetMapping("/{type}/{bankAccountId}")
@@ -53,8 +90,21 @@ public class TransactionController {
     }
 
     @PostMapping
-    public Mono<Transaction> createTransaction(@RequestBody final Transaction transaction) {
-        return transactionService.save(transaction);
+    public Mono<Transaction> createTransaction(@RequestBody final Transaction transaction,
+                                               @RequestHeader(name = "Idempotency-Key", required = false)
+                                               final String idempotencyKey) {
+        return transactionService.save(transaction, idempotencyKey);
+    }
+
+    @PostMapping(value = "/batch",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<TransactionBatchResult> createTransactions(@RequestBody final Flux<Transaction> transactions) {
+        return transactionBatchService.saveAll(transactions);
+    }
+
+    @PostMapping("/transfer")
+    public Flux<Transaction> transfer(@RequestBody final TransferRequest request) {
+        return transactionService.transfer(request);
     }
 
     @PutMapping
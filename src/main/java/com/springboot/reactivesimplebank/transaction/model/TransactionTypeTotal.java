@@ -0,0 +1,16 @@
+package com.springboot.reactivesimplebank.transaction.model;
+
+/**
+ * Running aggregate of one account's transactions of one type: the sum of their amounts and how many there are.
+ */
+public record TransactionTypeTotal(
+        Long bankAccountId,
+        String type,
+        long total,
+        long transactionCount
+) {
+
+    public static TransactionTypeTotal empty(final Long bankAccountId, final String type) {
+        return new TransactionTypeTotal(bankAccountId, type, 0L, 0L);
+    }
+}
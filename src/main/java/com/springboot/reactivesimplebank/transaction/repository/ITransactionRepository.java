@@ -1,10 +1,51 @@
 package com.springboot.reactivesimplebank.transaction.repository;
 
 import com.springboot.reactivesimplebank.transaction.model.Transaction;
+import com.springboot.reactivesimplebank.repository.InsertRepository;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
-public interface ITransactionRepository extends ReactiveCrudRepository<Transaction, Long> {
+import java.time.LocalDateTime;
+
+public interface ITransactionRepository extends ReactiveCrudRepository<Transaction, Long>,
+        InsertRepository<Transaction> {
     public Flux<Transaction> findAllByBankAccountId(final Long bankAccountId);
     Flux<Transaction> findAllByTypeAndBankAccountId(String type, Long bankAccountId);
+
+    @Query("SELECT * FROM transaction WHERE transactionId = :transactionId FOR UPDATE")
+    Mono<Transaction> findByIdForUpdate(Long transactionId);
+
+    @Modifying
+    @Query("DELETE FROM transaction WHERE transactionId = :transactionId")
+    Mono<Integer> deleteByTransactionId(Long transactionId);
+
+    @Query("""
+            SELECT * FROM transaction
+            WHERE bankAccountId = :bankAccountId
+            ORDER BY creationDate DESC, transactionId DESC
+            LIMIT :limit
+            """)
+    Flux<Transaction> findFirstPageByBankAccountId(Long bankAccountId, int limit);
+
+    @Query("""
+            SELECT * FROM transaction
+            WHERE bankAccountId = :bankAccountId AND type = :type
+            ORDER BY creationDate DESC, transactionId DESC
+            LIMIT :limit
+            """)
+    Flux<Transaction> findLatestByTypeAndBankAccountId(String type, Long bankAccountId, int limit);
+
+    @Query("""
+            SELECT * FROM transaction
+            WHERE bankAccountId = :bankAccountId
+              AND (creationDate < :creationDate
+                   OR (creationDate = :creationDate AND transactionId < :transactionId))
+            ORDER BY creationDate DESC, transactionId DESC
+            LIMIT :limit
+            """)
+    Flux<Transaction> findPageByBankAccountIdBefore(Long bankAccountId, LocalDateTime creationDate,
+                                                    Long transactionId, int limit);
 }
@@ -0,0 +1,61 @@
+package com.springboot.reactivesimplebank.transaction.repository;
+
+import com.springboot.reactivesimplebank.transaction.model.Transaction;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+/**
+ * Persisted tier of the idempotency store: one row per Idempotency-Key holding the transaction created for it,
+ * so a replay is answered from this table alone. The primary key on the idempotency key is what makes two
+ * concurrent requests with the same key create a single transaction.
+ */
+@Repository
+public class IdempotencyKeyRepository {
+
+    private static final String INSERT_QUERY = """
+            INSERT INTO idempotencyKey (idempotencyKey, transactionId, type, bankAccountId, `value`, creationDate)
+            VALUES (:idempotencyKey, :transactionId, :type, :bankAccountId, :amount, :creationDate)
+            """;
+
+    private static final String FIND_QUERY = """
+            SELECT transactionId, type, bankAccountId, `value`, creationDate
+            FROM idempotencyKey
+            WHERE idempotencyKey = :idempotencyKey
+            """;
+
+    private final DatabaseClient databaseClient;
+
+    public IdempotencyKeyRepository(final DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    public Mono<Transaction> findTransaction(final String idempotencyKey) {
+        return databaseClient.sql(FIND_QUERY)
+                .bind("idempotencyKey", idempotencyKey)
+                .map((row, metadata) -> new Transaction(
+                        row.get("transactionId", Long.class),
+                        row.get("type", String.class),
+                        row.get("bankAccountId", Long.class),
+                        row.get("value", Long.class),
+                        row.get("creationDate", LocalDateTime.class)
+                ))
+                .one();
+    }
+
+    /**
+     * Records the transaction created for the key; fails with a DuplicateKeyException when the key is taken.
+     */
+    public Mono<Void> insert(final String idempotencyKey, final Transaction transaction) {
+        return databaseClient.sql(INSERT_QUERY)
+                .bind("idempotencyKey", idempotencyKey)
+                .bind("transactionId", transaction.getTransactionId())
+                .bind("type", transaction.getType())
+                .bind("bankAccountId", transaction.getBankAccountId())
+                .bind("amount", transaction.getAmount())
+                .bind("creationDate", transaction.getCreationDate())
+                .then();
+    }
+}
@@ -0,0 +1,131 @@
+package com.springboot.reactivesimplebank.transaction.repository;
+
+import com.springboot.reactivesimplebank.transaction.model.Transaction;
+import io.r2dbc.spi.Readable;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+/**
+ * Cold tier of the transaction store. Transactions older than the archive horizon are moved here from the
+ * transaction table in batches, keeping their ids, and are only read when a caller asks for history that the
+ * hot table no longer holds. The archive is read-only: archived transactions can no longer be updated or deleted.
+ */
+@Repository
+public class TransactionArchiveRepository {
+
+    private static final String COLUMNS = "transactionId, type, bankAccountId, `value`, creationDate";
+
+    private static final String SELECT_EXPIRED_QUERY = """
+            SELECT transactionId FROM transaction
+            WHERE creationDate < :cutoff
+            ORDER BY creationDate, transactionId
+            LIMIT :limit
+            FOR UPDATE
+            """;
+
+    private static final String COPY_QUERY = "INSERT INTO transactionArchive (" + COLUMNS + ") SELECT " + COLUMNS
+            + " FROM transaction WHERE transactionId IN (:transactionIds)";
+
+    private static final String DELETE_QUERY = "DELETE FROM transaction WHERE transactionId IN (:transactionIds)";
+
+    private static final String FIND_BY_ID_QUERY = "SELECT " + COLUMNS
+            + " FROM transactionArchive WHERE transactionId = :transactionId";
+
+    private static final String FIND_ALL_BY_ACCOUNT_QUERY = "SELECT " + COLUMNS + """
+             FROM transactionArchive
+            WHERE bankAccountId = :bankAccountId
+            ORDER BY creationDate DESC, transactionId DESC
+            """;
+
+    private static final String FIRST_PAGE_QUERY = "SELECT " + COLUMNS + """
+             FROM transactionArchive
+            WHERE bankAccountId = :bankAccountId
+            ORDER BY creationDate DESC, transactionId DESC
+            LIMIT :limit
+            """;
+
+    private static final String PAGE_BEFORE_QUERY = "SELECT " + COLUMNS + """
+             FROM transactionArchive
+            WHERE bankAccountId = :bankAccountId
+              AND (creationDate < :creationDate
+                   OR (creationDate = :creationDate AND transactionId < :transactionId))
+            ORDER BY creationDate DESC, transactionId DESC
+            LIMIT :limit
+            """;
+
+    private final DatabaseClient databaseClient;
+
+    public TransactionArchiveRepository(final DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    /**
+     * Moves up to {@code limit} of the oldest transactions created before the cutoff into the archive and returns
+     * how many were moved. The selected rows are locked until the surrounding database transaction ends, so it
+     * must run inside one for the copy and the delete to be atomic.
+     */
+    public Mono<Integer> moveCreatedBefore(final LocalDateTime cutoff, final int limit) {
+        return databaseClient.sql(SELECT_EXPIRED_QUERY)
+                .bind("cutoff", cutoff)
+                .bind("limit", limit)
+                .map(row -> row.get("transactionId", Long.class))
+                .all()
+                .collectList()
+                .flatMap(transactionIds -> transactionIds.isEmpty()
+                        ? Mono.just(0)
+                        : databaseClient.sql(COPY_QUERY)
+                                .bind("transactionIds", transactionIds)
+                                .then()
+                                .then(databaseClient.sql(DELETE_QUERY)
+                                        .bind("transactionIds", transactionIds)
+                                        .then())
+                                .thenReturn(transactionIds.size()));
+    }
+
+    public Mono<Transaction> findById(final Long transactionId) {
+        return databaseClient.sql(FIND_BY_ID_QUERY)
+                .bind("transactionId", transactionId)
+                .map(TransactionArchiveRepository::toTransaction)
+                .one();
+    }
+
+    public Flux<Transaction> findAllByBankAccountId(final Long bankAccountId) {
+        return databaseClient.sql(FIND_ALL_BY_ACCOUNT_QUERY)
+                .bind("bankAccountId", bankAccountId)
+                .map(TransactionArchiveRepository::toTransaction)
+                .all();
+    }
+
+    public Flux<Transaction> findFirstPageByBankAccountId(final Long bankAccountId, final int limit) {
+        return databaseClient.sql(FIRST_PAGE_QUERY)
+                .bind("bankAccountId", bankAccountId)
+                .bind("limit", limit)
+                .map(TransactionArchiveRepository::toTransaction)
+                .all();
+    }
+
+    public Flux<Transaction> findPageByBankAccountIdBefore(final Long bankAccountId, final LocalDateTime creationDate,
+                                                           final Long transactionId, final int limit) {
+        return databaseClient.sql(PAGE_BEFORE_QUERY)
+                .bind("bankAccountId", bankAccountId)
+                .bind("creationDate", creationDate)
+                .bind("transactionId", transactionId)
+                .bind("limit", limit)
+                .map(TransactionArchiveRepository::toTransaction)
+                .all();
+    }
+
+    private static Transaction toTransaction(final Readable row) {
+        return new Transaction(
+                row.get("transactionId", Long.class),
+                row.get("type", String.class),
+                row.get("bankAccountId", Long.class),
+                row.get("value", Long.class),
+                row.get("creationDate", LocalDateTime.class)
+        );
+    }
+}
@@ -0,0 +1,64 @@
+package com.springboot.reactivesimplebank.transaction.repository;
+
+import com.springboot.reactivesimplebank.transaction.model.Transaction;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Result;
+import io.r2dbc.spi.Statement;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.r2dbc.core.binding.BindMarkers;
+import org.springframework.r2dbc.core.binding.BindMarkersFactoryResolver;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Inserts many transactions through a single R2DBC {@link Statement} with one binding per row
+ * ({@link Statement#add()}), so a whole batch is sent to the database in one execution.
+ * Identifiers are always generated by the database.
+ */
+@Repository
+public class TransactionBatchRepository {
+
+    private final DatabaseClient databaseClient;
+    private final String insertSql;
+
+    public TransactionBatchRepository(final DatabaseClient databaseClient, final ConnectionFactory connectionFactory) {
+        this.databaseClient = databaseClient;
+        final BindMarkers markers = BindMarkersFactoryResolver.resolve(connectionFactory).create();
+        this.insertSql = String.format(
+                "INSERT INTO transaction (type, bankAccountId, `value`, creationDate) VALUES (%s, %s, %s, %s)",
+                markers.next().getPlaceholder(),
+                markers.next().getPlaceholder(),
+                markers.next().getPlaceholder(),
+                markers.next().getPlaceholder());
+    }
+
+    public Mono<Long> insertAll(final List<Transaction> transactions) {
+        if (transactions.isEmpty()) {
+            return Mono.just(0L);
+        }
+        return databaseClient.inConnection(connection -> {
+            final Statement statement = connection.createStatement(insertSql);
+            for (int i = 0; i < transactions.size(); i++) {
+                if (i > 0) {
+                    statement.add();
+                }
+                final Transaction transaction = transactions.get(i);
+                statement.bind(0, transaction.getType())
+                        .bind(1, transaction.getBankAccountId())
+                        .bind(2, transaction.getAmount());
+                if (transaction.getCreationDate() == null) {
+                    statement.bind(3, LocalDateTime.now());
+                } else {
+                    statement.bind(3, transaction.getCreationDate());
+                }
+            }
+            return Flux.from(statement.execute())
+                    .flatMap(Result::getRowsUpdated)
+                    .reduce(0L, Long::sum);
+        });
+    }
+}
@@ -0,0 +1,57 @@
+package com.springboot.reactivesimplebank.transaction.repository;
+
+import com.springboot.reactivesimplebank.transaction.model.TransactionTypeTotal;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+/**
+ * Keeps one row per (bankAccountId, type) with the sum and count of the matching transactions. Rows are created
+ * on first use and adjusted in place with a single upsert, so concurrent writers never lose an increment.
+ */
+@Repository
+public class TransactionTypeTotalRepository {
+
+    private static final String ADD_QUERY = """
+            INSERT INTO transactionTypeTotal (bankAccountId, type, total, transactionCount)
+            VALUES (:bankAccountId, :type, :amount, :count)
+            ON DUPLICATE KEY UPDATE total = total + :amount, transactionCount = transactionCount + :count
+            """;
+
+    private static final String FIND_QUERY = """
+            SELECT bankAccountId, type, total, transactionCount
+            FROM transactionTypeTotal
+            WHERE bankAccountId = :bankAccountId AND type = :type
+            """;
+
+    private final DatabaseClient databaseClient;
+
+    public TransactionTypeTotalRepository(final DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    public Mono<TransactionTypeTotal> findByBankAccountIdAndType(final Long bankAccountId, final String type) {
+        return databaseClient.sql(FIND_QUERY)
+                .bind("bankAccountId", bankAccountId)
+                .bind("type", type)
+                .map((row, metadata) -> new TransactionTypeTotal(
+                        row.get("bankAccountId", Long.class),
+                        row.get("type", String.class),
+                        row.get("total", Long.class),
+                        row.get("transactionCount", Long.class)
+                ))
+                .one();
+    }
+
+    /**
+     * Adds {@code amount} to the total and {@code count} to the number of transactions; both may be negative.
+     */
+    public Mono<Void> add(final Long bankAccountId, final String type, final long amount, final long count) {
+        return databaseClient.sql(ADD_QUERY)
+                .bind("bankAccountId", bankAccountId)
+                .bind("type", type)
+                .bind("amount", amount)
+                .bind("count", count)
+                .then();
+    }
+}
@@ -0,0 +1,31 @@
+-- Schema version 6, MySQL only.
+-- Loaded before schema.sql when spring.sql.init.platform=mysql, so the transaction table below is the one created on
+-- MySQL and the plain definition in schema.sql is skipped there. Keep its columns and indexes in step with schema.sql.
+--
+-- The table is hash-partitioned by bankAccountId: every partition is its own B-tree, a query with
+-- bankAccountId = ? is pruned to partition bankAccountId MOD 16, and queries without it (findAll, findById)
+-- read every partition and merge the results. MySQL requires every unique key of a partitioned table to contain
+-- the partitioning column, hence the primary key (transactionId, bankAccountId). That key alone would accept the
+-- same transactionId under two accounts: generated ids are unique through the auto_increment, and
+-- TransactionService rejects a client-supplied id already present in transaction or transactionArchive, reading
+-- it FOR UPDATE so a concurrent insert of the same id waits for the check to commit.
+--
+-- Upgrading a version 3 database, whose transaction table already exists unpartitioned (rebuilds the table):
+--   alter table transaction drop primary key, add primary key (transactionId, bankAccountId),
+--       partition by hash(bankAccountId) partitions 16;
+
+create table if not exists transaction (
+    transactionId bigint auto_increment,
+    type varchar(20) not null,
+    bankAccountId bigint not null,
+    `value` bigint not null,
+    creationDate timestamp not null,
+    primary key(transactionId, bankAccountId),
+    -- findAllByBankAccountId and the keyset pages of the account history
+    index idx_transaction_account_history (bankAccountId, creationDate, transactionId),
+    -- findAllByTypeAndBankAccountId and the latest rows of resume-by-type
+    index idx_transaction_account_type (bankAccountId, type, creationDate),
+    -- the archiver's scan for transactions older than the archive horizon
+    index idx_transaction_creation_date (creationDate)
+)
+partition by hash(bankAccountId) partitions 16;
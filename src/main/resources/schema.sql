@@ -0,0 +1,95 @@
+-- Schema version 6.
+-- Runs on every start-up through spring.sql.init, so every statement must be idempotent and valid both on MySQL
+-- and on H2 in MODE=MySQL. Indexes are declared inside CREATE TABLE because MySQL has no CREATE INDEX IF NOT EXISTS.
+-- On MySQL, schema-mysql.sql runs first and creates the transaction table hash-partitioned by bankAccountId.
+--
+-- Upgrading a version 1 database, whose tables already exist and are therefore left untouched
+-- (tables added since version 1 are created automatically):
+--   alter table costumer add constraint uk_costumer_email_address unique (emailAddress);
+--   alter table bankAccount add column balance bigint not null default 0;
+--   update bankAccount a set balance = (select coalesce(sum(`value`), 0) from transaction t
+--       where t.bankAccountId = a.bankAccountId);
+--   create index idx_bank_account_costumer on bankAccount (costumerId);
+--   create index idx_transaction_account_history on transaction (bankAccountId, creationDate, transactionId);
+--   create index idx_transaction_account_type on transaction (bankAccountId, type, creationDate);
+--   create index idx_transaction_creation_date on transaction (creationDate);
+--   insert into transactionTypeTotal (bankAccountId, type, total, transactionCount)
+--       select bankAccountId, type, sum(`value`), count(*) from transaction group by bankAccountId, type;
+
+create table if not exists costumer (
+    costumerId bigint auto_increment,
+    name varchar(50) not null,
+    phoneNumber varchar(15) not null,
+    emailAddress varchar(50) not null,
+    primary key(costumerId),
+    -- findByEmailAddress, and rejects a second customer with the same email
+    constraint uk_costumer_email_address unique (emailAddress)
+);
+
+create table if not exists bankAccount (
+    bankAccountId bigint auto_increment,
+    number varchar(36) not null,
+    costumerId bigint not null,
+    creationDate timestamp not null,
+    balance bigint not null default 0,
+    primary key(bankAccountId),
+    -- findAllByCostumerId and the customer account summary join
+    index idx_bank_account_costumer (costumerId)
+);
+
+create table if not exists transaction (
+    transactionId bigint auto_increment,
+    type varchar(20) not null,
+    bankAccountId bigint not null,
+    `value` bigint not null,
+    creationDate timestamp not null,
+    primary key(transactionId),
+    -- findAllByBankAccountId and the keyset pages of the account history
+    index idx_transaction_account_history (bankAccountId, creationDate, transactionId),
+    -- findAllByTypeAndBankAccountId and the latest rows of resume-by-type
+    index idx_transaction_account_type (bankAccountId, type, creationDate),
+    -- the archiver's scan for transactions older than the archive horizon
+    index idx_transaction_creation_date (creationDate)
+);
+
+create table if not exists transactionTypeTotal (
+    bankAccountId bigint not null,
+    type varchar(20) not null,
+    total bigint not null default 0,
+    transactionCount bigint not null default 0,
+    primary key(bankAccountId, type)
+);
+
+create table if not exists idempotencyKey (
+    idempotencyKey varchar(64) not null,
+    transactionId bigint not null,
+    type varchar(20) not null,
+    bankAccountId bigint not null,
+    `value` bigint not null,
+    creationDate timestamp not null,
+    primary key(idempotencyKey)
+);
+
+-- Transactions moved out of the transaction table by the archiver once they are older than the archive horizon.
+-- Ids are kept, so the primary key is not auto-generated.
+create table if not exists transactionArchive (
+    transactionId bigint not null,
+    type varchar(20) not null,
+    bankAccountId bigint not null,
+    `value` bigint not null,
+    creationDate timestamp not null,
+    primary key(transactionId),
+    -- archived account history and its keyset pages
+    index idx_transaction_archive_account_history (bankAccountId, creationDate, transactionId)
+);
+
+-- End-of-day balance of every account, one row per account and day, written by the balance snapshot job. The balance
+-- of day snapshotDate covers every transaction created before the following midnight; back-dated writes add their
+-- amount to the snapshots of their day and of every later day.
+create table if not exists balanceSnapshot (
+    bankAccountId bigint not null,
+    snapshotDate date not null,
+    balance bigint not null,
+    -- the latest snapshot of an account before a given day
+    primary key(bankAccountId, snapshotDate)
+);
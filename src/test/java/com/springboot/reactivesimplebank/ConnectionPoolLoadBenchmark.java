@@ -0,0 +1,90 @@
+package com.springboot.reactivesimplebank;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Saturates a deliberately small pool (2 connections, 2 s acquire timeout) with background work that keeps
+ * every connection busy for a fixed hold time, while HTTP requests compete for the same connections. As the hold
+ * time passes the acquire timeout, requests stop waiting and start failing fast with 503. The peak
+ * r2dbc.pool.pending gauge shows the queue in front of the pool. Run with {@code ./gradlew benchmark}.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {
+        "spring.r2dbc.pool.initial-size=1",
+        "spring.r2dbc.pool.max-size=2",
+        "spring.r2dbc.pool.max-acquire-time=2s"
+})
+@AutoConfigureWebTestClient(timeout = "30s")
+@ActiveProfiles("test")
+class ConnectionPoolLoadBenchmark {
+
+    private static final int POOL_SIZE = 2;
+    private static final int REQUESTS = 60;
+    private static final int CONCURRENCY = 8;
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void saturation() {
+        for (final long holdMillis : new long[]{0, 500, 6_000}) {
+            run(Duration.ofMillis(holdMillis));
+        }
+    }
+
+    private void run(final Duration hold) {
+        final Disposable hogs = hold.isZero() ? Flux.never().subscribe() : Flux.range(0, POOL_SIZE)
+                .flatMap(i -> databaseClient.inConnection(connection -> Mono.delay(hold))
+                        .onErrorResume(error -> Mono.empty())
+                        .repeat())
+                .subscribe();
+
+        final AtomicLong peakPending = new AtomicLong();
+        final Disposable sampler = Flux.interval(Duration.ofMillis(5))
+                .subscribe(tick -> peakPending.accumulateAndGet(
+                        (long) meterRegistry.get("r2dbc.pool.pending").gauge().value(), Math::max));
+
+        final long start = System.nanoTime();
+        final Map<Integer, Long> statuses = Flux.range(0, REQUESTS)
+                .flatMap(i -> Mono.fromCallable(() -> webTestClient.get().uri("/costumer/all")
+                                .exchange()
+                                .returnResult(String.class)
+                                .getStatus()
+                                .value())
+                        .subscribeOn(Schedulers.boundedElastic()), CONCURRENCY)
+                .collect(Collectors.groupingBy(Function.identity(), TreeMap::new, Collectors.counting()))
+                .block();
+        final long millis = (System.nanoTime() - start) / 1_000_000;
+
+        sampler.dispose();
+        hogs.dispose();
+
+        System.out.printf("[benchmark] hold=%4d ms requests=%d statuses=%s peak-pending=%d elapsed=%d ms%n",
+                hold.toMillis(), REQUESTS, statuses, peakPending.get(), millis);
+    }
+}
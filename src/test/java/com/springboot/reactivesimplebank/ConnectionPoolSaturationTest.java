@@ -0,0 +1,75 @@
+package com.springboot.reactivesimplebank;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.spi.Connection;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(properties = {
+        "spring.r2dbc.pool.initial-size=1",
+        "spring.r2dbc.pool.max-size=2",
+        "spring.r2dbc.pool.max-acquire-time=2s"
+})
+@AutoConfigureWebTestClient
+@ActiveProfiles("test")
+class ConnectionPoolSaturationTest {
+
+    private static final int MAX_SIZE = 2;
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private ConnectionPool connectionPool;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private List<Connection> held = List.of();
+
+    @AfterEach
+    void release() {
+        Flux.fromIterable(held).concatMap(Connection::close).blockLast();
+    }
+
+    @Test
+    void exhaustedPoolRespondsServiceUnavailable() {
+        held = Flux.range(0, MAX_SIZE)
+                .concatMap(i -> Mono.from(connectionPool.create()))
+                .collectList()
+                .block();
+
+        assertEquals(MAX_SIZE, poolGauge("r2dbc.pool.acquired"));
+
+        webTestClient.get().uri("/costumer/all")
+                .exchange()
+                .expectStatus().isEqualTo(503)
+                .expectHeader().valueEquals("Retry-After", "1")
+                .expectBody()
+                .jsonPath("$.status").isEqualTo(503)
+                .jsonPath("$.path").isEqualTo("/costumer/all");
+
+        release();
+        held = List.of();
+
+        webTestClient.get().uri("/costumer/all")
+                .exchange()
+                .expectStatus().isOk();
+    }
+
+    private double poolGauge(final String name) {
+        return meterRegistry.get(name).gauge().value();
+    }
+}
@@ -1,12 +1,18 @@
 package com.springboot.reactivesimplebank;
 
+import com.springboot.reactivesimplebank.costumer.respository.CostumerAccountSummaryRepository;
+import com.springboot.reactivesimplebank.costumer.respository.ICostumerRepository;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.autoconfigure.metrics.MetricsProperties;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.context.ApplicationContext;
 import org.springframework.test.context.ActiveProfiles;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @SpringBootTest
 @ActiveProfiles("test")
@@ -14,9 +20,39 @@ class ReactiveSimpleBankApplicationTests {
     @Autowired
     private ApplicationContext applicationContext;
 
+    @Autowired
+    private ICostumerRepository costumerRepository;
+
+    @Autowired
+    private CostumerAccountSummaryRepository accountSummaryRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private MetricsProperties metricsProperties;
+
     @Test
     void contextLoads() {
         assertNotNull(applicationContext);
     }
 
+    @Test
+    void repositoryCallsArePublishedAsMetrics() {
+        costumerRepository.findAll().collectList().block();
+        accountSummaryRepository.findAccountSummary(-1L, 10).collectList().block();
+
+        assertEquals(1, meterRegistry.get("bank.repository.calls")
+                .tag("repository", "ICostumerRepository")
+                .tag("method", "findAll")
+                .timer()
+                .count());
+        assertEquals(1, meterRegistry.get("bank.repository.calls")
+                .tag("repository", "CostumerAccountSummaryRepository")
+                .tag("method", "findAccountSummary")
+                .timer()
+                .count());
+        assertTrue(metricsProperties.getDistribution().getPercentilesHistogram().get("bank.repository.calls"));
+        assertTrue(metricsProperties.getDistribution().getPercentilesHistogram().get("http.server.requests"));
+    }
 }
@@ -0,0 +1,162 @@
+package com.springboot.reactivesimplebank;
+
+import com.springboot.reactivesimplebank.transaction.repository.ITransactionRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.r2dbc.DataR2dbcTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs EXPLAIN for the statement behind each repository lookup and checks that H2 resolves it through the index
+ * declared for it in schema.sql instead of a table scan. Derived queries are written the way Spring Data issues
+ * them; {@link Query} methods are read from their annotation, with literals substituted for the parameters.
+ * It also keeps the MySQL-only transaction table in schema-mysql.sql in step with the portable one.
+ */
+@DataR2dbcTest
+@ActiveProfiles("test")
+class SchemaIndexTest {
+
+    private static final Map<String, String> PARAMETERS = Map.of(
+            ":bankAccountId", "1",
+            ":type", "'deposit'",
+            ":creationDate", "TIMESTAMP '2025-01-10 08:30:00'",
+            ":transactionId", "10",
+            ":limit", "50");
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Test
+    void findAllByBankAccountIdUsesAccountHistoryIndex() {
+        assertUsesIndex("SELECT transaction.* FROM transaction WHERE transaction.bankAccountId = 1",
+                "IDX_TRANSACTION_ACCOUNT_HISTORY");
+    }
+
+    @Test
+    void findAllByTypeAndBankAccountIdUsesAccountTypeIndex() {
+        assertUsesIndex("SELECT transaction.* FROM transaction "
+                        + "WHERE transaction.type = 'deposit' AND transaction.bankAccountId = 1",
+                "IDX_TRANSACTION_ACCOUNT_TYPE");
+    }
+
+    @Test
+    void findLatestByTypeAndBankAccountIdUsesAccountTypeIndex() {
+        assertUsesIndex(queryOf("findLatestByTypeAndBankAccountId"), "IDX_TRANSACTION_ACCOUNT_TYPE");
+    }
+
+    @Test
+    void historyPagesUseAccountHistoryIndex() {
+        assertUsesIndex(queryOf("findFirstPageByBankAccountId"), "IDX_TRANSACTION_ACCOUNT_HISTORY");
+        assertUsesIndex(queryOf("findPageByBankAccountIdBefore"), "IDX_TRANSACTION_ACCOUNT_HISTORY");
+    }
+
+    @Test
+    void findAllByCostumerIdUsesCostumerIndex() {
+        assertUsesIndex("SELECT bankAccount.* FROM bankAccount WHERE bankAccount.costumerId = 1",
+                "IDX_BANK_ACCOUNT_COSTUMER");
+    }
+
+    @Test
+    void findByEmailAddressUsesUniqueEmailIndex() {
+        assertUsesIndex("SELECT costumer.* FROM costumer WHERE costumer.emailAddress = 'luisa@mail.com'",
+                "UK_COSTUMER_EMAIL_ADDRESS");
+    }
+
+    @Test
+    void archiverScanUsesCreationDateIndex() {
+        assertUsesIndex("SELECT transactionId FROM transaction "
+                        + "WHERE creationDate < TIMESTAMP '2025-01-10 08:30:00' "
+                        + "ORDER BY creationDate, transactionId LIMIT 1000",
+                "IDX_TRANSACTION_CREATION_DATE");
+    }
+
+    @Test
+    void archivedHistoryUsesArchiveAccountHistoryIndex() {
+        assertUsesIndex("SELECT * FROM transactionArchive WHERE bankAccountId = 1 "
+                        + "ORDER BY creationDate DESC, transactionId DESC LIMIT 50",
+                "IDX_TRANSACTION_ARCHIVE_ACCOUNT_HISTORY");
+    }
+
+    @Test
+    void balanceDeltaSinceSnapshotUsesAccountHistoryIndexes() {
+        assertUsesIndex("SELECT `value` FROM transaction WHERE bankAccountId = 1 "
+                        + "AND creationDate >= TIMESTAMP '2025-01-10 00:00:00' "
+                        + "AND creationDate <= TIMESTAMP '2025-01-10 08:30:00'",
+                "IDX_TRANSACTION_ACCOUNT_HISTORY");
+        assertUsesIndex("SELECT `value` FROM transactionArchive WHERE bankAccountId = 1 "
+                        + "AND creationDate >= TIMESTAMP '2025-01-10 00:00:00' "
+                        + "AND creationDate <= TIMESTAMP '2025-01-10 08:30:00'",
+                "IDX_TRANSACTION_ARCHIVE_ACCOUNT_HISTORY");
+    }
+
+    @Test
+    void unindexedLookupIsReportedAsTableScan() {
+        assertTrue(explain("SELECT * FROM transaction WHERE `value` = 1").contains("tableScan"));
+    }
+
+    /**
+     * The MySQL script replaces the portable transaction table with a partitioned one, which H2 cannot run; it must
+     * still declare the same columns and indexes, and only widen the primary key by the partitioning column.
+     */
+    @Test
+    void mysqlTransactionTableMatchesPortableDefinition() throws IOException {
+        final List<String> portable = transactionTable("schema.sql");
+        final List<String> partitioned = transactionTable("schema-mysql.sql");
+
+        assertTrue(portable.remove("primary key(transactionId)"));
+        assertTrue(partitioned.remove("primary key(transactionId, bankAccountId)"));
+        assertEquals(portable, partitioned);
+    }
+
+    private void assertUsesIndex(final String sql, final String index) {
+        final String plan = explain(sql);
+        assertTrue(plan.contains("PUBLIC." + index), () -> "Expected " + index + " in plan:\n" + plan);
+        assertFalse(plan.contains("tableScan"), () -> "Unexpected table scan in plan:\n" + plan);
+    }
+
+    private String explain(final String sql) {
+        return databaseClient.sql("EXPLAIN " + sql)
+                .map(row -> row.get(0, String.class))
+                .one()
+                .block();
+    }
+
+    private static List<String> transactionTable(final String script) throws IOException {
+        final String sql = new ClassPathResource(script).getContentAsString(StandardCharsets.UTF_8);
+        final int start = sql.indexOf("create table if not exists transaction (");
+        return sql.substring(start, sql.indexOf("\n)", start)).lines()
+                .skip(1)
+                .map(String::strip)
+                .filter(line -> !line.startsWith("--"))
+                .map(line -> line.endsWith(",") ? line.substring(0, line.length() - 1) : line)
+                .collect(Collectors.toCollection(ArrayList::new));
+    }
+
+    private static String queryOf(final String method) {
+        String sql = Arrays.stream(ITransactionRepository.class.getMethods())
+                .filter(candidate -> candidate.getName().equals(method))
+                .findFirst()
+                .orElseThrow()
+                .getAnnotation(Query.class)
+                .value();
+        for (Map.Entry<String, String> parameter : PARAMETERS.entrySet()) {
+            sql = sql.replace(parameter.getKey(), parameter.getValue());
+        }
+        return sql;
+    }
+}
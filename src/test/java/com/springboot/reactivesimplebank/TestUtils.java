@@ -2,6 +2,7 @@ package com.springboot.reactivesimplebank;
 
 import com.springboot.reactivesimplebank.bankAccount.model.BankAccount;
 import com.springboot.reactivesimplebank.costumer.model.Costumer;
+import com.springboot.reactivesimplebank.costumer.model.CostumerAccountRow;
 import com.springboot.reactivesimplebank.dto.bankAccountDto.AccountWithTransactions;
 import com.springboot.reactivesimplebank.dto.bankAccountDto.CustomerAccountsResponse;
 import com.springboot.reactivesimplebank.dto.transactionDto.TotalAmount;
@@ -68,8 +69,18 @@ public class TestUtils {
         );
     }
 
+    public Flux<CostumerAccountRow> getCostumerAccountRowsFlux() {
+        return Flux.just(
+                new CostumerAccountRow("Luisa", 1L, "1234-5678-9012-3456", 2500L, TransactionType.DEPOSIT, 1000L),
+                new CostumerAccountRow("Luisa", 1L, "1234-5678-9012-3456", 2500L, TransactionType.WITHDRAWAL, -500L),
+                new CostumerAccountRow("Luisa", 1L, "1234-5678-9012-3456", 2500L, TransactionType.DEPOSIT, 2000L),
+                new CostumerAccountRow("Luisa", 2L, "2345-6789-0123-4567", 2500L, TransactionType.DEPOSIT, 2500L),
+                new CostumerAccountRow("Luisa", 3L, "3456-7890-1234-5678", 0L, null, null)
+        );
+    }
+
     public Mono<TotalAmount> totalAmount() {
-        return Mono.just(new TotalAmount(2000D, createSampleTransactions()));
+        return Mono.just(new TotalAmount(2000L, createSampleTransactions()));
     }
 
     public static class TransactionType {
@@ -248,34 +259,34 @@ public class TestUtils {
     public CustomerAccountsResponse CustomerAccountsResponse() {
 
         List<TransactionDto> transactionDtos = List.of(
-                new TransactionDto(TransactionType.DEPOSIT, 2300D),
-                new TransactionDto(TransactionType.WITHDRAWAL, 100D),
-                new TransactionDto(TransactionType.DEPOSIT, 1000D),
-                new TransactionDto(TransactionType.WITHDRAWAL, 100D)
+                new TransactionDto(TransactionType.DEPOSIT, 2300L),
+                new TransactionDto(TransactionType.WITHDRAWAL, 100L),
+                new TransactionDto(TransactionType.DEPOSIT, 1000L),
+                new TransactionDto(TransactionType.WITHDRAWAL, 100L)
         );
 
         List<TransactionDto> transactionDtos1 = List.of(
-                new TransactionDto(TransactionType.DEPOSIT, 200D),
-                new TransactionDto(TransactionType.WITHDRAWAL, 100D),
-                new TransactionDto(TransactionType.DEPOSIT, 100D),
-                new TransactionDto(TransactionType.WITHDRAWAL, 100D)
+                new TransactionDto(TransactionType.DEPOSIT, 200L),
+                new TransactionDto(TransactionType.WITHDRAWAL, 100L),
+                new TransactionDto(TransactionType.DEPOSIT, 100L),
+                new TransactionDto(TransactionType.WITHDRAWAL, 100L)
         );
 
         List<AccountWithTransactions> accountWithTransactions = List.of(
                 new AccountWithTransactions(
                         "23423423",
                         transactionDtos,
-                        3500D
+                        3500L
                 ),
                 new AccountWithTransactions(
                         "78932324",
                         transactionDtos1,
-                        500D
+                        500L
                 )
         );
 
         return new CustomerAccountsResponse(
-                "Luisa", accountWithTransactions, 4500D
+                "Luisa", accountWithTransactions, 4500L
         );
     }
 }
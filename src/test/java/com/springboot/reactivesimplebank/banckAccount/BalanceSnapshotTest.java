@@ -0,0 +1,137 @@
+package com.springboot.reactivesimplebank.banckAccount;
+
+import com.springboot.reactivesimplebank.bankAccount.model.BankAccount;
+import com.springboot.reactivesimplebank.bankAccount.repository.BalanceSnapshotRepository;
+import com.springboot.reactivesimplebank.bankAccount.repository.IBankAccountRepository;
+import com.springboot.reactivesimplebank.bankAccount.service.BalanceSnapshotJob;
+import com.springboot.reactivesimplebank.bankAccount.service.BankAccountService;
+import com.springboot.reactivesimplebank.transaction.Service.TransactionService;
+import com.springboot.reactivesimplebank.transaction.TransactionServiceTestConfig;
+import com.springboot.reactivesimplebank.transaction.model.Transaction;
+import com.springboot.reactivesimplebank.transaction.repository.ITransactionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.r2dbc.DataR2dbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataR2dbcTest(properties = "bank.balance-snapshots.settle=0s")
+@ActiveProfiles("test")
+@Import({TransactionServiceTestConfig.class, BankAccountService.class, BalanceSnapshotJob.class})
+class BalanceSnapshotTest {
+
+    @Autowired
+    private BalanceSnapshotJob snapshotJob;
+
+    @Autowired
+    private BalanceSnapshotRepository snapshotRepository;
+
+    @Autowired
+    private BankAccountService bankAccountService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private ITransactionRepository transactionRepository;
+
+    @Autowired
+    private IBankAccountRepository bankAccountRepository;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    private final LocalDate today = LocalDate.now();
+    private Long bankAccountId;
+
+    @BeforeEach
+    void seed() {
+        databaseClient.sql("DELETE FROM balanceSnapshot").then().block();
+        transactionRepository.deleteAll().then(bankAccountRepository.deleteAll()).block();
+        bankAccountId = bankAccountRepository
+                .save(new BankAccount(null, "snapshot-account", 1L, today.minusDays(10).atStartOfDay()))
+                .block()
+                .getBankAccountId();
+
+        save("deposit", 100L, today.minusDays(3).atTime(10, 0));
+        save("deposit", 50L, today.minusDays(2).atTime(9, 0));
+        save("withdrawal", -30L, today.minusDays(2).atTime(18, 0));
+        save("deposit", 20L, today.minusDays(1).atTime(12, 0));
+        save("deposit", 7L, today.atStartOfDay());
+    }
+
+    @Test
+    void snapshotPlusDeltaMatchesTheFullHistory() {
+        for (int days = 3; days >= 1; days--) {
+            assertEquals(1L, snapshotJob.snapshot(today.minusDays(days)).block());
+        }
+        assertEquals(0L, snapshotJob.snapshot(today.minusDays(1)).block());
+
+        assertEquals(100L, snapshotBalanceOf(today.minusDays(3)));
+        assertEquals(120L, snapshotBalanceOf(today.minusDays(2)));
+        assertEquals(140L, snapshotBalanceOf(today.minusDays(1)));
+
+        final List<LocalDateTime> asOfs = List.of(
+                today.minusDays(4).atTime(12, 0),
+                today.minusDays(3).atTime(10, 0),
+                today.minusDays(2).atTime(12, 0),
+                today.minusDays(2).atTime(23, 59),
+                today.minusDays(1).atStartOfDay(),
+                today.atStartOfDay(),
+                LocalDateTime.now());
+        final List<Long> expected = List.of(0L, 100L, 150L, 120L, 120L, 147L, 147L);
+        for (int i = 0; i < asOfs.size(); i++) {
+            final LocalDateTime asOf = asOfs.get(i);
+            assertEquals(expected.get(i), balanceAsOf(asOf), "as of " + asOf);
+            assertEquals(snapshotRepository.sumTransactions(bankAccountId, null, asOf).block(), balanceAsOf(asOf));
+        }
+    }
+
+    @Test
+    void backDatedWritesUpdateTheSnapshotsFromTheirDayOn() {
+        for (int days = 3; days >= 1; days--) {
+            snapshotJob.snapshot(today.minusDays(days)).block();
+        }
+
+        final Transaction backDated = save("deposit", 5L, today.minusDays(2).atTime(10, 0));
+
+        assertEquals(100L, snapshotBalanceOf(today.minusDays(3)));
+        assertEquals(125L, snapshotBalanceOf(today.minusDays(2)));
+        assertEquals(145L, snapshotBalanceOf(today.minusDays(1)));
+        assertEquals(152L, balanceAsOf(LocalDateTime.now()));
+
+        transactionService.deleteById(backDated.getTransactionId()).block();
+
+        assertEquals(120L, snapshotBalanceOf(today.minusDays(2)));
+        assertEquals(140L, snapshotBalanceOf(today.minusDays(1)));
+        assertEquals(147L, balanceAsOf(LocalDateTime.now()));
+    }
+
+    @Test
+    void scheduledRunSnapshotsYesterdayForAccountsThatExisted() {
+        bankAccountRepository.save(new BankAccount(null, 2L)).block();
+
+        assertEquals(1L, snapshotJob.snapshot().block());
+        assertEquals(140L, snapshotBalanceOf(today.minusDays(1)));
+    }
+
+    private Transaction save(final String type, final Long amount, final LocalDateTime creationDate) {
+        return transactionService.save(new Transaction(null, type, bankAccountId, amount, creationDate)).block();
+    }
+
+    private long snapshotBalanceOf(final LocalDate day) {
+        return snapshotRepository.findLatestBefore(bankAccountId, day.plusDays(1)).block().balance();
+    }
+
+    private long balanceAsOf(final LocalDateTime asOf) {
+        return bankAccountService.findBalanceAsOf(bankAccountId, asOf).block().balance();
+    }
+}
@@ -4,6 +4,7 @@ import com.springboot.reactivesimplebank.TestUtils;
 import com.springboot.reactivesimplebank.bankAccount.controller.BankAccountController;
 import com.springboot.reactivesimplebank.bankAccount.model.BankAccount;
 import com.springboot.reactivesimplebank.bankAccount.service.BankAccountService;
+import com.springboot.reactivesimplebank.dto.bankAccountDto.AccountBalance;
 import com.springboot.reactivesimplebank.exception.customExceptions.EntityNotFoundException;
 import com.springboot.reactivesimplebank.exception.handler.GlobalExceptionHandler;
 import org.junit.jupiter.api.Test;
@@ -16,8 +17,11 @@ import org.springframework.test.web.reactive.server.WebTestClient;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.LocalDateTime;
+
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @WebFluxTest(BankAccountController.class)
@@ -64,6 +68,47 @@ class BankAccountControllerTest {
                 .jsonPath("$.status").isEqualTo(404);
     }
 
+    @Test
+    void getBalanceAsOfTest() {
+        final LocalDateTime asOf = LocalDateTime.of(2025, 3, 10, 15, 30);
+        when(bankAccountService.findBalanceAsOf(1L, asOf))
+                .thenReturn(Mono.just(new AccountBalance(1L, asOf, 750L)));
+
+        webTestClient.get()
+                .uri("/accounts/{id}/balance?asOf={asOf}", 1L, "2025-03-10T15:30:00")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.bankAccountId").isEqualTo(1)
+                .jsonPath("$.balance").isEqualTo(750);
+    }
+
+    @Test
+    void getBalanceAsOfDateReadsTheEndOfThatDayTest() {
+        final LocalDateTime endOfDay = LocalDateTime.of(2025, 1, 10, 23, 59, 59, 999_999_000);
+        when(bankAccountService.findBalanceAsOf(1L, endOfDay))
+                .thenReturn(Mono.just(new AccountBalance(1L, endOfDay, 500L)));
+
+        webTestClient.get()
+                .uri("/accounts/{id}/balance?asOf={asOf}", 1L, "2025-01-10")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.balance").isEqualTo(500);
+    }
+
+    @Test
+    void getBalanceAsOfMalformedIsBadRequestTest() {
+        webTestClient.get()
+                .uri("/accounts/{id}/balance?asOf={asOf}", 1L, "10/01/2025")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.status").isEqualTo(400);
+
+        verifyNoInteractions(bankAccountService);
+    }
+
     @Test
     void getAllAccountsTest() {
         when(bankAccountService.findAllBankAccounts())
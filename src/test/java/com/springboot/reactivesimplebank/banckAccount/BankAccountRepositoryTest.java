@@ -0,0 +1,69 @@
+package com.springboot.reactivesimplebank.banckAccount;
+
+import com.springboot.reactivesimplebank.bankAccount.model.BankAccount;
+import com.springboot.reactivesimplebank.bankAccount.repository.IBankAccountRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.r2dbc.DataR2dbcTest;
+import org.springframework.test.context.ActiveProfiles;
+import reactor.test.StepVerifier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataR2dbcTest
+@ActiveProfiles("test")
+class BankAccountRepositoryTest {
+
+    @Autowired
+    private IBankAccountRepository bankAccountRepository;
+
+    @BeforeEach
+    void clean() { bankAccountRepository.deleteAll().block(); }
+
+    @Test
+    void newAccountStartsWithZeroBalance() {
+        Long id = bankAccountRepository.save(new BankAccount(null, 1L))
+                .map(BankAccount::getBankAccountId)
+                .block();
+
+        StepVerifier.create(bankAccountRepository.findBalanceByBankAccountId(id))
+                .expectNext(0L)
+                .verifyComplete();
+    }
+
+    @Test
+    void addToBalanceAccumulatesDeltas() {
+        Long id = bankAccountRepository.save(new BankAccount(null, 1L))
+                .map(BankAccount::getBankAccountId)
+                .block();
+
+        StepVerifier.create(bankAccountRepository.addToBalance(id, 1500L)
+                        .then(bankAccountRepository.addToBalance(id, -300L))
+                        .then(bankAccountRepository.findById(id)))
+                .assertNext(account -> assertEquals(1200L, account.getBalance()))
+                .verifyComplete();
+    }
+
+    @Test
+    void savingTheEntityDoesNotOverwriteTheBalance() {
+        final BankAccount account = bankAccountRepository.save(new BankAccount(null, 1L)).block();
+        bankAccountRepository.addToBalance(account.getBankAccountId(), 500L).block();
+
+        StepVerifier.create(bankAccountRepository.save(new BankAccount(account.getBankAccountId(),
+                                account.getNumber(), 2L, account.getCreationDate()))
+                        .then(bankAccountRepository.findById(account.getBankAccountId())))
+                .assertNext(updated -> {
+                    assertEquals(2L, updated.getCostumerId());
+                    assertEquals(500L, updated.getBalance());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void addToBalanceUnknownAccountUpdatesNothing() {
+        StepVerifier.create(bankAccountRepository.addToBalance(99L, 100L))
+                .expectNext(0)
+                .verifyComplete();
+    }
+}
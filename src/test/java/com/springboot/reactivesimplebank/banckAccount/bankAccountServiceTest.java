@@ -1,19 +1,31 @@
 package com.springboot.reactivesimplebank.banckAccount;
 
 import com.springboot.reactivesimplebank.TestUtils;
+import com.springboot.reactivesimplebank.bankAccount.model.BalanceSnapshot;
+import com.springboot.reactivesimplebank.bankAccount.repository.BalanceSnapshotRepository;
 import com.springboot.reactivesimplebank.bankAccount.repository.IBankAccountRepository;
 import com.springboot.reactivesimplebank.bankAccount.service.BankAccountService;
+import com.springboot.reactivesimplebank.cache.EntityCache;
+import com.springboot.reactivesimplebank.costumer.model.Costumer;
 import com.springboot.reactivesimplebank.costumer.respository.ICostumerRepository;
+import com.springboot.reactivesimplebank.exception.customExceptions.DuplicateEntityException;
 import com.springboot.reactivesimplebank.exception.customExceptions.EntityNotFoundException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.test.context.ActiveProfiles;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
 
 import static org.junit.jupiter.api.Assertions.assertAll;
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -30,6 +42,13 @@ class bankAccountServiceTest {
     @Mock
     private ICostumerRepository costumerRepository;
 
+    @Mock
+    private BalanceSnapshotRepository snapshotRepository;
+
+    @Spy
+    private EntityCache<Long, Costumer> costumerCache =
+            new EntityCache<>("costumers", 100, Duration.ofMinutes(1), new SimpleMeterRegistry());
+
     @InjectMocks
     private BankAccountService bankAccountService;
 
@@ -40,6 +59,49 @@ class bankAccountServiceTest {
     private final String BANC_ACCOUNT_NUMBER = "234325432";
 
 
+    @Test
+    void findBalanceAsOfAddsTheTransactionsAfterTheNearestSnapshotTest() {
+        final LocalDateTime asOf = LocalDateTime.of(2025, 3, 10, 15, 30);
+        when(bankAccountRepository.existsById(id)).thenReturn(Mono.just(true));
+        when(snapshotRepository.findLatestBefore(id, asOf.toLocalDate()))
+                .thenReturn(Mono.just(new BalanceSnapshot(id, LocalDate.of(2025, 3, 9), 1_000L)));
+        when(snapshotRepository.sumTransactions(id, LocalDateTime.of(2025, 3, 10, 0, 0), asOf))
+                .thenReturn(Mono.just(-250L));
+
+        StepVerifier.create(bankAccountService.findBalanceAsOf(id, asOf))
+                .assertNext(balance -> assertAll("Balance asserts",
+                        () -> assertEquals(id, balance.bankAccountId()),
+                        () -> assertEquals(asOf, balance.asOf()),
+                        () -> assertEquals(750L, balance.balance())
+                ))
+                .verifyComplete();
+
+        verify(snapshotRepository, never()).sumTransactions(id, null, asOf);
+    }
+
+    @Test
+    void findBalanceAsOfWithoutSnapshotSumsTheWholeHistoryTest() {
+        final LocalDateTime asOf = LocalDateTime.of(2025, 3, 10, 15, 30);
+        when(bankAccountRepository.existsById(id)).thenReturn(Mono.just(true));
+        when(snapshotRepository.findLatestBefore(id, asOf.toLocalDate())).thenReturn(Mono.empty());
+        when(snapshotRepository.sumTransactions(id, null, asOf)).thenReturn(Mono.just(400L));
+
+        StepVerifier.create(bankAccountService.findBalanceAsOf(id, asOf))
+                .assertNext(balance -> assertEquals(400L, balance.balance()))
+                .verifyComplete();
+    }
+
+    @Test
+    void findBalanceAsOfUnknownAccountTest() {
+        when(bankAccountRepository.existsById(id)).thenReturn(Mono.just(false));
+
+        StepVerifier.create(bankAccountService.findBalanceAsOf(id, null))
+                .expectError(EntityNotFoundException.class)
+                .verify();
+
+        verifyNoInteractions(snapshotRepository);
+    }
+
     @Test
     void findByIdTest() {
 
@@ -99,10 +161,10 @@ class bankAccountServiceTest {
 
     @Test
     void saveTest() {
-        when(costumerRepository.existsById(anyLong()))
-                .thenReturn(Mono.just(true));
+        when(costumerRepository.findById(anyLong()))
+                .thenReturn(Mono.just(testUtils.testCostumerWithId(2L)));
 
-        when(bankAccountRepository.save(any()))
+        when(bankAccountRepository.insert(any()))
                 .thenAnswer(inv -> Mono.just(inv.getArgument(0)));
 
         StepVerifier.create(bankAccountService.save(testUtils.getTestBankAccount(1L)))
@@ -114,21 +176,53 @@ class bankAccountServiceTest {
                 )
                 .verifyComplete();
 
-        verify(costumerRepository).existsById(anyLong());
-        verify(bankAccountRepository).save(any());
+        verify(costumerRepository).findById(anyLong());
+        verify(bankAccountRepository).insert(any());
         verifyNoMoreInteractions(costumerRepository, bankAccountRepository);
     }
 
+    @Test
+    void saveServesCostumerExistenceFromCacheTest() {
+        when(costumerRepository.findById(2L))
+                .thenReturn(Mono.just(testUtils.testCostumerWithId(2L)));
+
+        when(bankAccountRepository.insert(any()))
+                .thenAnswer(inv -> Mono.just(inv.getArgument(0)));
+
+        StepVerifier.create(bankAccountService.save(testUtils.getTestBankAccount(1L))
+                        .then(bankAccountService.save(testUtils.getTestBankAccount(3L))))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        verify(costumerRepository, times(1)).findById(2L);
+        verify(bankAccountRepository, times(2)).insert(any());
+        verifyNoMoreInteractions(costumerRepository);
+    }
+
+    @Test
+    void saveExistingBankAccountIdIsRejectedTest() {
+        when(costumerRepository.findById(anyLong()))
+                .thenReturn(Mono.just(testUtils.testCostumerWithId(2L)));
+        when(bankAccountRepository.insert(any()))
+                .thenReturn(Mono.error(new DuplicateKeyException("Unique index or primary key violation")));
+
+        StepVerifier.create(bankAccountService.save(testUtils.getTestBankAccount(1L)))
+                .expectError(DuplicateEntityException.class)
+                .verify();
+
+        verify(bankAccountRepository, never()).save(any());
+    }
+
     @Test
     void saveNonExistingCostumerTest() {
-        when(costumerRepository.existsById(anyLong()))
-                .thenReturn(Mono.just(false));
+        when(costumerRepository.findById(anyLong()))
+                .thenReturn(Mono.empty());
 
         StepVerifier.create(bankAccountService.save(testUtils.getTestBankAccount(1L)))
                 .expectError(EntityNotFoundException.class)
                 .verify();
 
-        verify(costumerRepository).existsById(anyLong());
+        verify(costumerRepository).findById(anyLong());
         verifyNoMoreInteractions(costumerRepository, bankAccountRepository);
     }
 
@@ -0,0 +1,111 @@
+package com.springboot.reactivesimplebank.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class EntityCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private EntityCache<Long, String> cache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new EntityCache<>("test", 2, Duration.ofMinutes(1), meterRegistry);
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    void secondLookupIsAHitTest() {
+        StepVerifier.create(cache.get(1L, this::load).then(cache.get(1L, this::load)))
+                .expectNext("value-1")
+                .verifyComplete();
+
+        assertEquals(1, loads.get());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "test").tag("result", "hit")
+                .functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "test").tag("result", "miss")
+                .functionCounter().count());
+    }
+
+    @Test
+    void concurrentMissesShareOneLoadTest() {
+        final Sinks.One<String> row = Sinks.one();
+
+        final Mono<Long> lookups = Flux.range(0, 10)
+                .flatMap(i -> cache.get(1L, id -> {
+                    loads.incrementAndGet();
+                    return row.asMono();
+                }))
+                .count();
+
+        StepVerifier.create(lookups)
+                .then(() -> row.tryEmitValue("value-1"))
+                .expectNext(10L)
+                .verifyComplete();
+
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void missingEntityIsNotCachedTest() {
+        StepVerifier.create(cache.get(1L, id -> {
+                    loads.incrementAndGet();
+                    return Mono.empty();
+                }))
+                .verifyComplete();
+
+        StepVerifier.create(cache.get(1L, this::load))
+                .expectNext("value-1")
+                .verifyComplete();
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void failedLoadIsNotCachedTest() {
+        StepVerifier.create(cache.get(1L, id -> Mono.error(new IllegalStateException("down"))))
+                .expectError(IllegalStateException.class)
+                .verify();
+
+        StepVerifier.create(cache.get(1L, this::load))
+                .expectNext("value-1")
+                .verifyComplete();
+    }
+
+    @Test
+    void invalidateForcesReloadTest() {
+        cache.get(1L, this::load).block();
+        cache.invalidate(1L);
+        cache.get(1L, this::load).block();
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void putIsServedWithoutLoadTest() {
+        cache.put(1L, "inserted");
+
+        StepVerifier.create(cache.get(1L, this::load))
+                .expectNext("inserted")
+                .verifyComplete();
+
+        assertEquals(0, loads.get());
+    }
+
+    private Mono<String> load(final Long id) {
+        loads.incrementAndGet();
+        return Mono.just("value-" + id);
+    }
+}
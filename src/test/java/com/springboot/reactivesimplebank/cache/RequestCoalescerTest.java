@@ -0,0 +1,132 @@
+package com.springboot.reactivesimplebank.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RequestCoalescerTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private AtomicInteger calls;
+    private Sinks.One<String> upstream;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        calls = new AtomicInteger();
+        upstream = Sinks.one();
+    }
+
+    @Test
+    void concurrentCallersShareOneCallTest() {
+        final RequestCoalescer<Long, String> coalescer = coalescer(Duration.ZERO);
+
+        StepVerifier.create(Flux.merge(
+                        coalescer.get(1L, this::pending),
+                        coalescer.get(1L, this::pending),
+                        coalescer.get(1L, this::pending)))
+                .then(() -> upstream.tryEmitValue("value-1"))
+                .expectNext("value-1", "value-1", "value-1")
+                .verifyComplete();
+
+        assertEquals(1, calls.get());
+        assertEquals(1.0, count("executed"));
+        assertEquals(2.0, count("collapsed"));
+    }
+
+    @Test
+    void differentKeysAreNotCollapsedTest() {
+        final RequestCoalescer<Long, String> coalescer = coalescer(Duration.ZERO);
+
+        StepVerifier.create(Flux.merge(coalescer.get(1L, this::load), coalescer.get(2L, this::load)))
+                .expectNextCount(2)
+                .verifyComplete();
+
+        assertEquals(2, calls.get());
+        assertEquals(0.0, count("collapsed"));
+    }
+
+    @Test
+    void withoutTimeToLiveACompletedCallRunsAgainTest() {
+        final RequestCoalescer<Long, String> coalescer = coalescer(Duration.ZERO);
+
+        StepVerifier.create(coalescer.get(1L, this::load).then(coalescer.get(1L, this::load)))
+                .expectNext("value-1")
+                .verifyComplete();
+
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void withTimeToLiveACompletedResultIsReusedTest() {
+        final RequestCoalescer<Long, String> coalescer = coalescer(Duration.ofMinutes(1));
+
+        StepVerifier.create(coalescer.get(1L, this::load).then(coalescer.get(1L, this::load)))
+                .expectNext("value-1")
+                .verifyComplete();
+
+        assertEquals(1, calls.get());
+        assertEquals(1.0, count("collapsed"));
+    }
+
+    @Test
+    void failuresAreSharedButNotKeptTest() {
+        final RequestCoalescer<Long, String> coalescer = coalescer(Duration.ofMinutes(1));
+
+        StepVerifier.create(Flux.merge(
+                        coalescer.get(1L, this::pending).onErrorReturn("failed"),
+                        coalescer.get(1L, this::pending).onErrorReturn("failed")))
+                .then(() -> upstream.tryEmitError(new IllegalStateException("down")))
+                .expectNext("failed", "failed")
+                .verifyComplete();
+
+        StepVerifier.create(coalescer.get(1L, this::load))
+                .expectNext("value-1")
+                .verifyComplete();
+
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void cancellingOneCallerDoesNotCancelTheSharedCallTest() {
+        final RequestCoalescer<Long, String> coalescer = coalescer(Duration.ZERO);
+
+        StepVerifier.create(coalescer.get(1L, this::pending))
+                .thenCancel()
+                .verify();
+
+        StepVerifier.create(coalescer.get(1L, this::pending))
+                .then(() -> upstream.tryEmitValue("value-1"))
+                .expectNext("value-1")
+                .verifyComplete();
+
+        assertEquals(1, calls.get());
+    }
+
+    private RequestCoalescer<Long, String> coalescer(final Duration resultTimeToLive) {
+        return new RequestCoalescer<>("test", 100, resultTimeToLive, meterRegistry);
+    }
+
+    private Mono<String> load(final Long key) {
+        calls.incrementAndGet();
+        return Mono.just("value-" + key);
+    }
+
+    private Mono<String> pending(final Long key) {
+        calls.incrementAndGet();
+        return upstream.asMono();
+    }
+
+    private double count(final String result) {
+        return meterRegistry.get(RequestCoalescer.METRIC).tag("name", "test").tag("result", result).counter().count();
+    }
+}
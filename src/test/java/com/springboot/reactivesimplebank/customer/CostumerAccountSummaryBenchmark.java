@@ -0,0 +1,240 @@
+package com.springboot.reactivesimplebank.customer;
+
+import com.springboot.reactivesimplebank.TestUtils;
+import com.springboot.reactivesimplebank.bankAccount.model.BankAccount;
+import com.springboot.reactivesimplebank.bankAccount.repository.IBankAccountRepository;
+import com.springboot.reactivesimplebank.costumer.model.Costumer;
+import com.springboot.reactivesimplebank.costumer.respository.CostumerAccountSummaryRepository;
+import com.springboot.reactivesimplebank.costumer.respository.ICostumerRepository;
+import com.springboot.reactivesimplebank.dto.transactionDto.TransactionDto;
+import com.springboot.reactivesimplebank.transaction.model.Transaction;
+import com.springboot.reactivesimplebank.transaction.repository.ITransactionRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.r2dbc.DataR2dbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.ActiveProfiles;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import com.sun.management.ThreadMXBean;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+/**
+ * Compares the former 2 + N round trip account summary against the single join query, both in latency and in
+ * bytes allocated per call, and the cost of an entity lookup against a bare existence check.
+ * Run with {@code ./gradlew benchmark}.
+ */
+@Tag("benchmark")
+@DataR2dbcTest
+@ActiveProfiles("test")
+@Import(CostumerAccountSummaryRepository.class)
+class CostumerAccountSummaryBenchmark {
+
+    private static final int TRANSACTIONS_PER_ACCOUNT = 20;
+    private static final int DEEP_HISTORY_ACCOUNTS = 3;
+    private static final int SEED_CHUNK = 1_000;
+    private static final int RESUME_TRANSACTIONS_LIMIT = 100;
+    private static final int WARMUP_ITERATIONS = 20;
+    private static final int MEASURED_ITERATIONS = 100;
+
+    /**
+     * The previous summary query, which ranks every transaction of every account before keeping the latest ones.
+     */
+    private static final String FULL_HISTORY_WINDOW_QUERY = """
+            SELECT customerName, bankAccountId, transactionAmount
+            FROM (
+                SELECT c.name AS customerName,
+                       b.bankAccountId AS bankAccountId,
+                       t.`value` AS transactionAmount,
+                       t.creationDate AS creationDate,
+                       t.transactionId AS transactionId,
+                       ROW_NUMBER() OVER (PARTITION BY b.bankAccountId
+                                          ORDER BY t.creationDate DESC, t.transactionId DESC) AS position
+                FROM costumer c
+                LEFT JOIN bankAccount b ON b.costumerId = c.costumerId
+                LEFT JOIN transaction t ON t.bankAccountId = b.bankAccountId
+                WHERE c.costumerId = :costumerId
+            ) summary
+            WHERE position <= :transactionsPerAccount
+            ORDER BY bankAccountId, creationDate DESC, transactionId DESC
+            """;
+
+    @Autowired
+    private CostumerAccountSummaryRepository accountSummaryRepository;
+
+    @Autowired
+    private ICostumerRepository costumerRepository;
+
+    @Autowired
+    private IBankAccountRepository bankAccountRepository;
+
+    @Autowired
+    private ITransactionRepository transactionRepository;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    private final TestUtils testUtils = new TestUtils();
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 10, 100})
+    void accountSummaryLatency(final int accounts) {
+        final Long costumerId = seed(accounts);
+
+        final long[] fanOut = measure(() -> fanOutSummary(costumerId));
+        final long[] singleQuery = measure(() -> accountSummaryRepository
+                .findAccountSummary(costumerId, RESUME_TRANSACTIONS_LIMIT)
+                .collectList());
+
+        report("fan-out (2 + N queries)", accounts, fanOut);
+        report("single join query", accounts, singleQuery);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 10, 100})
+    void accountSummaryAllocation(final int accounts) {
+        final Long costumerId = seed(accounts);
+
+        reportAllocation("entities", accounts, allocatedPerCall(() -> entitySummary(costumerId)));
+        reportAllocation("join rows", accounts, allocatedPerCall(() -> accountSummaryRepository
+                .findAccountSummary(costumerId, RESUME_TRANSACTIONS_LIMIT)
+                .collectList()));
+    }
+
+    /**
+     * Latency of the summary against the depth of each account's history; the bounded query should stay flat
+     * while the full-history window grows with every row.
+     */
+    @ParameterizedTest
+    @ValueSource(ints = {100, 10_000, 100_000})
+    void accountSummaryDeepHistoryLatency(final int transactionsPerAccount) {
+        final Long costumerId = seed(DEEP_HISTORY_ACCOUNTS, transactionsPerAccount);
+
+        final long[] fullHistory = measure(() -> databaseClient.sql(FULL_HISTORY_WINDOW_QUERY)
+                .bind("costumerId", costumerId)
+                .bind("transactionsPerAccount", RESUME_TRANSACTIONS_LIMIT)
+                .fetch()
+                .all()
+                .collectList());
+        final long[] bounded = measure(() -> accountSummaryRepository
+                .findAccountSummary(costumerId, RESUME_TRANSACTIONS_LIMIT)
+                .collectList());
+
+        report("full-history window", transactionsPerAccount, fullHistory);
+        report("bounded per account", transactionsPerAccount, bounded);
+    }
+
+    @Test
+    void existenceCheckAllocation() {
+        final Long costumerId = seed(1);
+
+        reportAllocation("findById", 1, allocatedPerCall(() -> costumerRepository.findById(costumerId)));
+        reportAllocation("existsById", 1, allocatedPerCall(() -> costumerRepository.existsById(costumerId)));
+    }
+
+    private Mono<?> entitySummary(final Long costumerId) {
+        return costumerRepository.findById(costumerId)
+                .map(Costumer::getName)
+                .zipWith(bankAccountRepository.findAllByCostumerId(costumerId)
+                        .concatMap(account -> transactionRepository.findAllByBankAccountId(account.getBankAccountId())
+                                .take(RESUME_TRANSACTIONS_LIMIT)
+                                .map(transaction -> new TransactionDto(transaction.getType(), transaction.getAmount())))
+                        .collectList());
+    }
+
+    private Mono<?> fanOutSummary(final Long costumerId) {
+        return costumerRepository.findById(costumerId)
+                .flatMap(costumer -> bankAccountRepository.findAllByCostumerId(costumer.getCostumerId())
+                        .flatMap(account -> Mono.zip(
+                                bankAccountRepository.findBalanceByBankAccountId(account.getBankAccountId()),
+                                transactionRepository.findAllByBankAccountId(account.getBankAccountId())
+                                        .take(RESUME_TRANSACTIONS_LIMIT)
+                                        .collectList()))
+                        .collectList());
+    }
+
+    private Long seed(final int accounts) {
+        return seed(accounts, TRANSACTIONS_PER_ACCOUNT);
+    }
+
+    private Long seed(final int accounts, final int transactionsPerAccount) {
+        transactionRepository.deleteAll()
+                .then(bankAccountRepository.deleteAll())
+                .then(costumerRepository.deleteAll())
+                .block();
+
+        final Long costumerId = costumerRepository.save(testUtils.testCostumer()).block().getCostumerId();
+        final LocalDateTime now = LocalDateTime.now();
+
+        Flux.range(0, accounts)
+                .concatMap(i -> bankAccountRepository.save(new BankAccount(null, costumerId)))
+                .concatMap(account -> Flux.range(0, transactionsPerAccount)
+                        .buffer(SEED_CHUNK)
+                        .concatMap(chunk -> transactionRepository.saveAll(chunk.stream()
+                                .map(i -> new Transaction(null, "deposit", account.getBankAccountId(), 100L,
+                                        now.minusMinutes(i)))
+                                .toList())))
+                .blockLast();
+
+        return costumerId;
+    }
+
+    private static long[] measure(final Supplier<Mono<?>> call) {
+        IntStream.range(0, WARMUP_ITERATIONS).forEach(i -> call.get().block());
+
+        final long[] samples = new long[MEASURED_ITERATIONS];
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            final long start = System.nanoTime();
+            call.get().block();
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        return samples;
+    }
+
+    /**
+     * Bytes allocated by every thread in the JVM per call; the R2DBC driver decodes rows on its own threads, so
+     * counting only the calling thread would miss most of the work.
+     */
+    private static long allocatedPerCall(final Supplier<Mono<?>> call) {
+        IntStream.range(0, WARMUP_ITERATIONS).forEach(i -> call.get().block());
+
+        final long before = allocatedBytes();
+        IntStream.range(0, MEASURED_ITERATIONS).forEach(i -> call.get().block());
+        return (allocatedBytes() - before) / MEASURED_ITERATIONS;
+    }
+
+    private static long allocatedBytes() {
+        final ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        return Arrays.stream(threads.getThreadAllocatedBytes(threads.getAllThreadIds()))
+                .filter(bytes -> bytes > 0)
+                .sum();
+    }
+
+    private static void reportAllocation(final String name, final int accounts, final long bytesPerCall) {
+        System.out.printf("[benchmark] %-24s accounts=%-4d allocated=%10d B/op%n", name, accounts, bytesPerCall);
+    }
+
+    private static void report(final String name, final int size, final long[] sortedSamples) {
+        final double mean = Arrays.stream(sortedSamples).average().orElse(0) / 1_000_000d;
+        System.out.printf("[benchmark] %-24s size=%-7d mean=%8.3f ms p50=%8.3f ms p99=%8.3f ms%n",
+                name, size, mean,
+                percentile(sortedSamples, 0.50), percentile(sortedSamples, 0.99));
+    }
+
+    private static double percentile(final long[] sortedSamples, final double percentile) {
+        final int index = (int) Math.ceil(percentile * sortedSamples.length) - 1;
+        return sortedSamples[Math.max(index, 0)] / 1_000_000d;
+    }
+}
@@ -0,0 +1,119 @@
+package com.springboot.reactivesimplebank.customer;
+
+import com.springboot.reactivesimplebank.TestUtils;
+import com.springboot.reactivesimplebank.bankAccount.model.BankAccount;
+import com.springboot.reactivesimplebank.bankAccount.repository.IBankAccountRepository;
+import com.springboot.reactivesimplebank.costumer.respository.CostumerAccountSummaryRepository;
+import com.springboot.reactivesimplebank.costumer.respository.ICostumerRepository;
+import com.springboot.reactivesimplebank.transaction.model.Transaction;
+import com.springboot.reactivesimplebank.transaction.repository.ITransactionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.r2dbc.DataR2dbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import reactor.test.StepVerifier;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@DataR2dbcTest
+@ActiveProfiles("test")
+@Import(CostumerAccountSummaryRepository.class)
+class CostumerAccountSummaryRepositoryTest {
+
+    @Autowired
+    private CostumerAccountSummaryRepository accountSummaryRepository;
+
+    @Autowired
+    private ICostumerRepository costumerRepository;
+
+    @Autowired
+    private IBankAccountRepository bankAccountRepository;
+
+    @Autowired
+    private ITransactionRepository transactionRepository;
+
+    private final TestUtils testUtils = new TestUtils();
+
+    @BeforeEach
+    void clean() {
+        transactionRepository.deleteAll()
+                .then(bankAccountRepository.deleteAll())
+                .then(costumerRepository.deleteAll())
+                .block();
+    }
+
+    @Test
+    void findAccountSummaryReturnsLatestTransactionsPerAccount() {
+        final Long costumerId = costumerRepository.save(testUtils.testCostumer()).block().getCostumerId();
+        final Long firstAccount = bankAccountRepository.save(new BankAccount(null, costumerId))
+                .block().getBankAccountId();
+        final Long secondAccount = bankAccountRepository.save(new BankAccount(null, costumerId))
+                .block().getBankAccountId();
+        final LocalDateTime now = LocalDateTime.now();
+
+        transactionRepository.saveAll(List.of(
+                new Transaction(null, "deposit", firstAccount, 100L, now.minusDays(3)),
+                new Transaction(null, "deposit", firstAccount, 200L, now.minusDays(2)),
+                new Transaction(null, "withdrawal", firstAccount, -50L, now.minusDays(1))
+        )).blockLast();
+
+        StepVerifier.create(accountSummaryRepository.findAccountSummary(costumerId, 2).collectList())
+                .assertNext(rows -> {
+                    assertEquals(3, rows.size());
+                    assertEquals("Test", rows.get(0).customerName());
+                    assertEquals(firstAccount, rows.get(0).bankAccountId());
+                    assertEquals(-50L, rows.get(0).transactionAmount());
+                    assertEquals(200L, rows.get(1).transactionAmount());
+                    assertEquals(secondAccount, rows.get(2).bankAccountId());
+                    assertNull(rows.get(2).transactionType());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void findAccountSummaryKeepsTheLimitWhenCreationDatesTie() {
+        final Long costumerId = costumerRepository.save(testUtils.testCostumer()).block().getCostumerId();
+        final Long accountId = bankAccountRepository.save(new BankAccount(null, costumerId))
+                .block().getBankAccountId();
+        final LocalDateTime sameDay = LocalDateTime.now().minusDays(1);
+
+        transactionRepository.saveAll(List.of(
+                new Transaction(null, "deposit", accountId, 100L, sameDay),
+                new Transaction(null, "deposit", accountId, 200L, sameDay),
+                new Transaction(null, "deposit", accountId, 300L, sameDay)
+        )).blockLast();
+
+        StepVerifier.create(accountSummaryRepository.findAccountSummary(costumerId, 2).collectList())
+                .assertNext(rows -> {
+                    assertEquals(2, rows.size());
+                    assertEquals(300L, rows.get(0).transactionAmount());
+                    assertEquals(200L, rows.get(1).transactionAmount());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void findAccountSummaryWithoutAccounts() {
+        final Long costumerId = costumerRepository.save(testUtils.testCostumer()).block().getCostumerId();
+
+        StepVerifier.create(accountSummaryRepository.findAccountSummary(costumerId, 100))
+                .assertNext(row -> {
+                    assertEquals("Test", row.customerName());
+                    assertNull(row.bankAccountId());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void findAccountSummaryUnknownCostumer() {
+        StepVerifier.create(accountSummaryRepository.findAccountSummary(99L, 100))
+                .expectNextCount(0)
+                .verifyComplete();
+    }
+}
@@ -214,16 +214,16 @@ class CostumerControllerTest {
                 .expectHeader().contentType(MediaType.APPLICATION_JSON)
                 .expectBody()
                 .jsonPath("$.customerName").isEqualTo("Luisa")
-                .jsonPath("$.totalAmount").isEqualTo(4500.0)
+                .jsonPath("$.totalAmount").isEqualTo(4500)
                 .jsonPath("$.accounts.length()").isEqualTo(2)
                 .jsonPath("$.accounts[0].accountNumber").isEqualTo("23423423")
-                .jsonPath("$.accounts[0].amount").isEqualTo(3500.0)
+                .jsonPath("$.accounts[0].amount").isEqualTo(3500)
                 .jsonPath("$.accounts[0].transactions.length()").isEqualTo(4)
                 .jsonPath("$.accounts[0].transactions[0].type")
                 .isEqualTo("deposit")
-                .jsonPath("$.accounts[0].transactions[0].amount").isEqualTo(2300.0)
+                .jsonPath("$.accounts[0].transactions[0].amount").isEqualTo(2300)
                 .jsonPath("$.accounts[1].accountNumber").isEqualTo("78932324")
-                .jsonPath("$.accounts[1].amount").isEqualTo(500.0);
+                .jsonPath("$.accounts[1].amount").isEqualTo(500);
     }
 
     @Test
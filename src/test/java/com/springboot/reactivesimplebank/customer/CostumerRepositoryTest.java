@@ -7,7 +7,10 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.data.r2dbc.DataR2dbcTest;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.test.context.ActiveProfiles;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -56,4 +59,29 @@ class CostumerRepositoryTest {
                 .expectNextCount(0)
                 .verifyComplete();
     }
+
+    @Test
+    void insertDuplicateEmailFails() {
+        costumerRepository.insert(testUtils.testCostumer()).block();
+
+        StepVerifier.create(costumerRepository.insert(testUtils.testCostumer()))
+                .expectError(DuplicateKeyException.class)
+                .verify();
+    }
+
+    @Test
+    void parallelInsertsOfTheSameEmailKeepOne() {
+        final int attempts = 20;
+
+        final long duplicates = Flux.range(0, attempts)
+                .flatMap(i -> costumerRepository.insert(testUtils.testCostumer())
+                        .then(Mono.just(false))
+                        .onErrorResume(DuplicateKeyException.class, e -> Mono.just(true)), attempts)
+                .filter(Boolean::booleanValue)
+                .count()
+                .block();
+
+        assertEquals(attempts - 1, duplicates);
+        assertEquals(1L, costumerRepository.count().block());
+    }
 }
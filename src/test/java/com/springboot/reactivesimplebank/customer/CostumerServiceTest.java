@@ -1,27 +1,37 @@
 package com.springboot.reactivesimplebank.customer;
 
 import com.springboot.reactivesimplebank.TestUtils;
-import com.springboot.reactivesimplebank.bankAccount.service.BankAccountService;
+import com.springboot.reactivesimplebank.cache.EntityCache;
+import com.springboot.reactivesimplebank.cache.RequestCoalescer;
 import com.springboot.reactivesimplebank.costumer.model.Costumer;
+import com.springboot.reactivesimplebank.costumer.model.CostumerAccountRow;
+import com.springboot.reactivesimplebank.costumer.respository.CostumerAccountSummaryRepository;
 import com.springboot.reactivesimplebank.costumer.respository.ICostumerRepository;
 import com.springboot.reactivesimplebank.costumer.service.CostumerService;
-import com.springboot.reactivesimplebank.dto.transactionDto.TotalAmount;
+import com.springboot.reactivesimplebank.dto.bankAccountDto.CustomerAccountsResponse;
 import com.springboot.reactivesimplebank.exception.customExceptions.DuplicateEntityException;
 import com.springboot.reactivesimplebank.exception.customExceptions.EntityNotFoundException;
-import com.springboot.reactivesimplebank.transaction.Service.TransactionService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.test.context.ActiveProfiles;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
+import java.time.Duration;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.any;
-import static org.mockito.Mockito.anyLong;
+import static org.mockito.Mockito.eq;
+import static org.mockito.Mockito.anyInt;
+import static org.mockito.Mockito.anyString;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
@@ -35,10 +45,15 @@ class CostumerServiceTest {
     private ICostumerRepository costumerRepository;
 
     @Mock
-    private BankAccountService bankAccountService;
+    private CostumerAccountSummaryRepository accountSummaryRepository;
 
-    @Mock
-    private TransactionService transactionService;
+    @Spy
+    private EntityCache<Long, Costumer> costumerCache =
+            new EntityCache<>("costumers", 100, Duration.ofMinutes(1), new SimpleMeterRegistry());
+
+    @Spy
+    private RequestCoalescer<Long, CustomerAccountsResponse> accountSummaryCoalescer =
+            new RequestCoalescer<>("account-summaries", 100, Duration.ZERO, new SimpleMeterRegistry());
 
     @InjectMocks
     private CostumerService costumerService;
@@ -59,6 +74,35 @@ class CostumerServiceTest {
                 .verifyComplete();
     }
 
+    @Test
+    void findByIdServedFromCacheTest() {
+        final Costumer costumer = testUtils.testCostumerWithId(1L);
+
+        when(costumerRepository.findById(costumer.getCostumerId()))
+                .thenReturn(Mono.just(costumer));
+
+        StepVerifier.create(costumerService.findById(1L).then(costumerService.findById(1L)))
+                .expectNext(costumer)
+                .verifyComplete();
+
+        verify(costumerRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    void findByIdNonExistingIsNotCachedTest() {
+        when(costumerRepository.findById(1L))
+                .thenReturn(Mono.empty());
+
+        StepVerifier.create(costumerService.findById(1L))
+                .expectError(EntityNotFoundException.class)
+                .verify();
+        StepVerifier.create(costumerService.findById(1L))
+                .expectError(EntityNotFoundException.class)
+                .verify();
+
+        verify(costumerRepository, times(2)).findById(1L);
+    }
+
     @Test
     void findAllTest() {
         final Costumer costumer = testUtils.testCostumerWithId(1L);
@@ -76,26 +120,22 @@ class CostumerServiceTest {
     void saveTest() {
         final Costumer costumer = testUtils.testCostumerWithId(3L);
 
-        when(costumerRepository.findByEmailAddress(costumer.getEmailAddress()))
-                .thenReturn(Mono.empty());
-
-        when(costumerRepository.save(costumer))
+        when(costumerRepository.insert(costumer))
                 .thenReturn(Mono.just(costumer));
 
         StepVerifier.create(costumerService.save(costumer))
                 .expectNext(costumer)
                 .verifyComplete();
+
+        verify(costumerRepository, never()).findByEmailAddress(anyString());
     }
 
     @Test
     void saveDuplicateEmailTest() {
         final Costumer costumer = testUtils.testCostumerWithId(3L);
 
-        when(costumerRepository.findByEmailAddress(costumer.getEmailAddress()))
-                .thenReturn(Mono.just(costumer));
-
-        when(costumerRepository.save(costumer))
-                .thenReturn(Mono.just(costumer));
+        when(costumerRepository.insert(costumer))
+                .thenReturn(Mono.error(new DuplicateKeyException("Unique index or primary key violation")));
 
         StepVerifier.create(costumerService.save(costumer))
                 .expectError(DuplicateEntityException.class)
@@ -105,10 +145,9 @@ class CostumerServiceTest {
     @Test
     void updateTest() {
         Costumer input = new Costumer(id, "Pepita", "3001234567", "pepita@mail.com");
-        Costumer existing = new Costumer(id, "Luisa", "3201112222", "luisa@mail.com");
 
-        when(costumerRepository.findById(id))
-                .thenReturn(Mono.just(existing));
+        when(costumerRepository.existsById(id))
+                .thenReturn(Mono.just(true));
         when(costumerRepository.save(any()))
                 .thenAnswer(inv -> Mono.just(inv.getArgument(0)));
 
@@ -120,26 +159,54 @@ class CostumerServiceTest {
                     assertEquals("3001234567",   updated.getPhoneNumber());
                 })
                 .verifyComplete();
+
+        verify(costumerRepository).existsById(id);
+        verify(costumerRepository).save(input);
+        verifyNoMoreInteractions(costumerRepository);
+    }
+
+    @Test
+    void updateInvalidatesCacheTest() {
+        Costumer input = new Costumer(id, "Pepita", "3001234567", "pepita@mail.com");
+
+        when(costumerRepository.findById(id))
+                .thenReturn(Mono.just(new Costumer(id, "Luisa", "3201112222", "luisa@mail.com")))
+                .thenReturn(Mono.just(input));
+        when(costumerRepository.existsById(id))
+                .thenReturn(Mono.just(true));
+        when(costumerRepository.save(any()))
+                .thenAnswer(inv -> Mono.just(inv.getArgument(0)));
+
+        StepVerifier.create(costumerService.findById(id)
+                        .then(costumerService.update(input))
+                        .then(costumerService.findById(id)))
+                .assertNext(found -> assertEquals("Pepita", found.getName()))
+                .verifyComplete();
+
+        verify(costumerRepository, times(2)).findById(id);
     }
 
     @Test
     void updateNonExistingTest() {
         final Costumer costumer = testUtils.testCostumerWithId(3L);
 
-        when(costumerRepository.findById(costumer.getCostumerId()))
-                .thenReturn(Mono.empty());
+        when(costumerRepository.existsById(costumer.getCostumerId()))
+                .thenReturn(Mono.just(false));
 
         StepVerifier.create(costumerService.update(costumer))
                 .expectError(EntityNotFoundException.class)
                 .verify();
+
+        verify(costumerRepository).existsById(costumer.getCostumerId());
+        verifyNoMoreInteractions(costumerRepository);
     }
 
     @Test
     void deleteTest() {
         final Costumer costumer = testUtils.testCostumerWithId(3L);
 
-        when(costumerRepository.findById(costumer.getCostumerId()))
-                .thenReturn(Mono.just(costumer));
+        when(costumerRepository.existsById(costumer.getCostumerId()))
+                .thenReturn(Mono.just(true));
 
         when(costumerRepository.deleteById(costumer.getCostumerId()))
                 .thenReturn(Mono.empty());
@@ -148,21 +215,42 @@ class CostumerServiceTest {
                 .expectNext("Customer with id " + costumer.getCostumerId() + " deleted successfully")
                 .verifyComplete();
 
-        verify(costumerRepository, times(1)).findById(costumer.getCostumerId());
+        verify(costumerRepository, times(1)).existsById(costumer.getCostumerId());
         verify(costumerRepository, times(1)).deleteById(costumer.getCostumerId());
         verifyNoMoreInteractions(costumerRepository);
     }
 
     @Test
-    void deleteNonExistingTest() {
-        when(costumerRepository.findById(id))
+    void deleteInvalidatesCacheTest() {
+        final Costumer costumer = testUtils.testCostumerWithId(3L);
+
+        when(costumerRepository.findById(3L))
+                .thenReturn(Mono.just(costumer))
+                .thenReturn(Mono.empty());
+        when(costumerRepository.existsById(3L))
+                .thenReturn(Mono.just(true));
+        when(costumerRepository.deleteById(3L))
                 .thenReturn(Mono.empty());
 
+        StepVerifier.create(costumerService.findById(3L)
+                        .then(costumerService.delete(3L))
+                        .then(costumerService.findById(3L)))
+                .expectError(EntityNotFoundException.class)
+                .verify();
+
+        verify(costumerRepository, times(2)).findById(3L);
+    }
+
+    @Test
+    void deleteNonExistingTest() {
+        when(costumerRepository.existsById(id))
+                .thenReturn(Mono.just(false));
+
         StepVerifier.create(costumerService.delete(id))
                 .expectError(EntityNotFoundException.class)
                 .verify();
 
-        verify(costumerRepository, times(1)).findById(id);
+        verify(costumerRepository, times(1)).existsById(id);
         verifyNoMoreInteractions(costumerRepository);
     }
 
@@ -170,34 +258,45 @@ class CostumerServiceTest {
     void getBankAccountResumeUserIdTest() {
         final Costumer costumer = testUtils.testCostumerWithId(3L);
 
-        when(costumerRepository.findById(costumer.getCostumerId()))
-                .thenReturn(Mono.just(costumer));
-
-        when(bankAccountService.findAllBankAccountsByCustomerId(costumer.getCostumerId()))
-                .thenReturn(testUtils.getBancAccountTestFlux());
-
-        when(transactionService.getFullResume(anyLong()))
-                .thenReturn(Mono.just(new TotalAmount(
-                        1000L,
-                        testUtils.createSampleTransactions()
-                )));
+        when(accountSummaryRepository.findAccountSummary(eq(costumer.getCostumerId()), anyInt()))
+                .thenReturn(testUtils.getCostumerAccountRowsFlux());
 
         StepVerifier.create(costumerService.getBankAccountResumeUserId(costumer.getCostumerId()))
                 .assertNext(
                         response -> {
                             assertEquals(response.customerName(), costumer.getName());
+                            assertEquals(3, response.accounts().size());
+                            assertEquals(3, response.accounts().get(0).transactions().size());
+                            assertEquals(1, response.accounts().get(1).transactions().size());
+                            assertEquals(0, response.accounts().get(2).transactions().size());
                             assertEquals(5000L, response.totalAmount());
                         }
                 )
                 .verifyComplete();
 
+        verify(accountSummaryRepository).findAccountSummary(eq(costumer.getCostumerId()), anyInt());
+        verifyNoMoreInteractions(accountSummaryRepository, costumerRepository);
+    }
+
+    @Test
+    void getBankAccountResumeUserWithoutAccountsTest() {
+        when(accountSummaryRepository.findAccountSummary(eq(id), anyInt()))
+                .thenReturn(Flux.just(new CostumerAccountRow("Luisa", null, null, null, null, null)));
+
+        StepVerifier.create(costumerService.getBankAccountResumeUserId(id))
+                .assertNext(response -> {
+                    assertEquals("Luisa", response.customerName());
+                    assertEquals(0, response.accounts().size());
+                    assertEquals(0L, response.totalAmount());
+                })
+                .verifyComplete();
     }
 
     @Test
     void getBankAccountResumeEmptyUserTest() {
 
-        when(costumerRepository.findById(id))
-                .thenReturn(Mono.empty());
+        when(accountSummaryRepository.findAccountSummary(eq(id), anyInt()))
+                .thenReturn(Flux.empty());
 
         StepVerifier.create(costumerService.getBankAccountResumeUserId(id))
                 .expectError(EntityNotFoundException.class)
@@ -0,0 +1,70 @@
+package com.springboot.reactivesimplebank.datasource;
+
+import io.r2dbc.spi.ConnectionFactory;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import static com.springboot.reactivesimplebank.datasource.ReadWriteRouting.Route.PRIMARY;
+import static com.springboot.reactivesimplebank.datasource.ReadWriteRouting.Route.REPLICA;
+import static org.mockito.Mockito.mock;
+
+class ReadWriteRoutingConnectionFactoryTest {
+
+    private final ReadWriteRoutingConnectionFactory connectionFactory = new ReadWriteRoutingConnectionFactory(
+            mock(ConnectionFactory.class), mock(ConnectionFactory.class));
+
+    private Mono<Object> lookupKey() {
+        return connectionFactory.determineCurrentLookupKey();
+    }
+
+    @Test
+    void unmarkedChainsUseThePrimary() {
+        StepVerifier.create(lookupKey())
+                .expectNext(PRIMARY)
+                .verifyComplete();
+    }
+
+    @Test
+    void readOnlyChainsUseTheReplica() {
+        StepVerifier.create(ReadWriteRouting.readOnly(lookupKey()))
+                .expectNext(REPLICA)
+                .verifyComplete();
+    }
+
+    @Test
+    void writesUseThePrimaryEvenInsideAReadOnlyChain() {
+        StepVerifier.create(ReadWriteRouting.readOnly(ReadWriteRouting.write(lookupKey())))
+                .expectNext(PRIMARY)
+                .verifyComplete();
+    }
+
+    @Test
+    void readsInsideAWriteStayOnThePrimary() {
+        StepVerifier.create(ReadWriteRouting.write(ReadWriteRouting.readOnly(lookupKey())))
+                .expectNext(PRIMARY)
+                .verifyComplete();
+    }
+
+    @Test
+    void readsAfterAWriteUseThePrimaryOnlyWithReadYourWrites() {
+        final Mono<Object> writeThenRead = ReadWriteRouting.write(Mono.just(1))
+                .then(ReadWriteRouting.readOnly(lookupKey()));
+
+        StepVerifier.create(writeThenRead)
+                .expectNext(REPLICA)
+                .verifyComplete();
+        StepVerifier.create(writeThenRead.contextWrite(ReadWriteRouting::readYourWrites))
+                .expectNext(PRIMARY)
+                .verifyComplete();
+    }
+
+    @Test
+    void readsBeforeTheFirstWriteStillUseTheReplica() {
+        StepVerifier.create(ReadWriteRouting.readOnly(lookupKey())
+                        .flatMap(route -> ReadWriteRouting.write(Mono.just(route)))
+                        .contextWrite(ReadWriteRouting::readYourWrites))
+                .expectNext(REPLICA)
+                .verifyComplete();
+    }
+}
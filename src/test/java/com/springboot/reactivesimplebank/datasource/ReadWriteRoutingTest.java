@@ -0,0 +1,106 @@
+package com.springboot.reactivesimplebank.datasource;
+
+import com.springboot.reactivesimplebank.costumer.model.Costumer;
+import com.springboot.reactivesimplebank.costumer.service.CostumerService;
+import io.r2dbc.spi.ConnectionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.r2dbc.connection.init.ResourceDatabasePopulator;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Runs the application against two in-memory H2 databases standing in for the primary and the replica. Nothing
+ * replicates between them, so every row shows which side a query went to.
+ */
+@SpringBootTest(properties = {
+        "spring.r2dbc.url=r2dbc:h2:mem:///routing_primary;MODE=MySQL;DB_CLOSE_DELAY=-1;NON_KEYWORDS=VALUE",
+        "bank.r2dbc.replica.url=r2dbc:h2:mem:///routing_replica;MODE=MySQL;DB_CLOSE_DELAY=-1;NON_KEYWORDS=VALUE"
+})
+@AutoConfigureWebTestClient
+@ActiveProfiles("test")
+class ReadWriteRoutingTest {
+
+    @Autowired
+    private CostumerService costumerService;
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    @Qualifier("primaryConnectionFactory")
+    private ConnectionFactory primaryConnectionFactory;
+
+    @Autowired
+    @Qualifier("replicaConnectionFactory")
+    private ConnectionFactory replicaConnectionFactory;
+
+    private DatabaseClient primary;
+    private DatabaseClient replica;
+
+    @BeforeEach
+    void resetDatabases() {
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).populate(replicaConnectionFactory).block();
+        primary = DatabaseClient.create(primaryConnectionFactory);
+        replica = DatabaseClient.create(replicaConnectionFactory);
+        primary.sql("DELETE FROM costumer").then().block();
+        replica.sql("DELETE FROM costumer").then().block();
+    }
+
+    @Test
+    void writesGoToThePrimary() {
+        costumerService.save(costumer("primary@bank.com")).block();
+
+        assertEquals(1L, countCostumers(primary));
+        assertEquals(0L, countCostumers(replica));
+    }
+
+    @Test
+    void readsGoToTheReplica() {
+        costumerService.save(costumer("primary@bank.com")).block();
+        replica.sql("INSERT INTO costumer (name, phoneNumber, emailAddress) "
+                        + "VALUES ('Replica', '5550000000', 'replica@bank.com')")
+                .then()
+                .block();
+
+        webTestClient.get().uri("/costumer/all")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(1)
+                .jsonPath("$[0].emailAddress").isEqualTo("replica@bank.com");
+    }
+
+    @Test
+    void readYourWritesReadsBackFromThePrimaryAfterAWrite() {
+        assertEquals(0L, costumerService.save(costumer("first@bank.com"))
+                .thenMany(costumerService.findAll())
+                .count()
+                .block());
+
+        assertEquals(2L, costumerService.save(costumer("second@bank.com"))
+                .thenMany(costumerService.findAll())
+                .count()
+                .contextWrite(ReadWriteRouting::readYourWrites)
+                .block());
+    }
+
+    private static Costumer costumer(final String emailAddress) {
+        return new Costumer(null, "Costumer", "5551234567", emailAddress);
+    }
+
+    private static long countCostumers(final DatabaseClient databaseClient) {
+        return databaseClient.sql("SELECT COUNT(*) AS total FROM costumer")
+                .map(row -> row.get("total", Long.class))
+                .one()
+                .block();
+    }
+}
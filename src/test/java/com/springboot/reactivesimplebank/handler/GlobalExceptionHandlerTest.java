@@ -4,10 +4,13 @@ import com.springboot.reactivesimplebank.exception.customExceptions.DuplicateEnt
 import com.springboot.reactivesimplebank.exception.customExceptions.EntityNotFoundException;
 import com.springboot.reactivesimplebank.exception.handler.GlobalExceptionHandler;
 import com.springboot.reactivesimplebank.exception.model.ApiErrorDto;
+import io.r2dbc.spi.R2dbcTimeoutException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
 import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
 import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.web.server.ServerWebExchange;
 import reactor.test.StepVerifier;
 
@@ -77,6 +80,31 @@ class GlobalExceptionHandlerTest {
                 .verifyComplete();
     }
 
+    @Test
+    void handleConnectionUnavailableException_returns503() {
+        DataAccessResourceFailureException ex = new DataAccessResourceFailureException(
+                "Failed to obtain R2DBC Connection", new R2dbcTimeoutException("Connection acquisition timed out"));
+
+        StepVerifier.create(handler.handleConnectionUnavailableException(ex, exchange))
+                .assertNext(resp -> {
+                    assertEquals(503, resp.getStatusCodeValue());
+                    assertEquals("1", resp.getHeaders().getFirst("Retry-After"));
+                    assertEquals(503, resp.getBody().getStatus());
+                    assertEquals("Failed to obtain R2DBC Connection", resp.getBody().getMessage());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void handleTransactionConnectionUnavailableException_returns503() {
+        CannotCreateTransactionException ex =
+                new CannotCreateTransactionException("Could not open R2DBC Connection for transaction");
+
+        StepVerifier.create(handler.handleConnectionUnavailableException(ex, exchange))
+                .assertNext(resp -> assertEquals(503, resp.getStatusCodeValue()))
+                .verifyComplete();
+    }
+
     @Test
     void handleUnexpectedException_returns404() {
         RuntimeException ex = new RuntimeException("Oops");
@@ -0,0 +1,243 @@
+package com.springboot.reactivesimplebank.loadtest;
+
+import com.springboot.reactivesimplebank.bankAccount.model.BankAccount;
+import com.springboot.reactivesimplebank.bankAccount.repository.IBankAccountRepository;
+import com.springboot.reactivesimplebank.costumer.model.Costumer;
+import com.springboot.reactivesimplebank.costumer.respository.ICostumerRepository;
+import com.springboot.reactivesimplebank.dto.transactionDto.TransferRequest;
+import com.springboot.reactivesimplebank.transaction.Service.TransactionBatchService;
+import com.springboot.reactivesimplebank.transaction.model.Transaction;
+import com.springboot.reactivesimplebank.transaction.repository.ITransactionRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * End-to-end load test: boots the application on a random port with the ci profile (in-memory H2 over R2DBC),
+ * seeds customers, accounts and transactions, and drives each endpoint over HTTP with a fixed concurrency after a
+ * discarded warm-up round.
+ * Reports p50/p99/p999 latency and requests per second per endpoint and writes them as JSON.
+ * <p>
+ * Run with {@code ./gradlew loadTest}; every {@code loadtest.*} value below can be overridden with
+ * {@code -Ploadtest.<name>=<value>}. Setting {@code loadtest.max-p99-ms} turns the run into a release gate.
+ */
+@Tag("loadtest")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("ci")
+class EndToEndLoadTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Value("${loadtest.customers:50}")
+    private int customers;
+
+    @Value("${loadtest.accounts-per-customer:2}")
+    private int accountsPerCustomer;
+
+    @Value("${loadtest.transactions-per-account:50}")
+    private int transactionsPerAccount;
+
+    @Value("${loadtest.warmup-requests:100}")
+    private int warmupRequests;
+
+    @Value("${loadtest.requests:500}")
+    private int requests;
+
+    @Value("${loadtest.concurrency:16}")
+    private int concurrency;
+
+    @Value("${loadtest.max-p99-ms:0}")
+    private double maxP99Millis;
+
+    @Value("${loadtest.report:build/reports/loadtest/results.json}")
+    private String report;
+
+    @Autowired
+    private ICostumerRepository costumerRepository;
+
+    @Autowired
+    private IBankAccountRepository bankAccountRepository;
+
+    @Autowired
+    private ITransactionRepository transactionRepository;
+
+    @Autowired
+    private TransactionBatchService batchService;
+
+    private List<Long> costumerIds;
+    private List<Long> accountIds;
+
+    @Test
+    void endpoints() {
+        seed();
+        final WebClient client = WebClient.builder().baseUrl("http://localhost:" + port).build();
+
+        final List<EndpointResult> results = List.of(
+                run("GET /costumer/{id}", i -> client.get()
+                        .uri("/costumer/{id}", randomOf(costumerIds))),
+                run("GET /costumer/account-details/{id}", i -> client.get()
+                        .uri("/costumer/account-details/{id}", randomOf(costumerIds))),
+                run("GET /accounts/{id}", i -> client.get()
+                        .uri("/accounts/{id}", randomOf(accountIds))),
+                run("GET /transactions/page/{id}", i -> client.get()
+                        .uri("/transactions/page/{id}?size=20", randomOf(accountIds))),
+                run("GET /transactions/resume-by-type/{type}/{id}", i -> client.get()
+                        .uri("/transactions/resume-by-type/deposit/{id}", randomOf(accountIds))),
+                run("POST /transactions", i -> client.post()
+                        .uri("/transactions")
+                        .bodyValue(new Transaction(null, "deposit", randomOf(accountIds), 100L))),
+                run("POST /transactions/transfer", i -> client.post()
+                        .uri("/transactions/transfer")
+                        .bodyValue(randomTransfer()))
+        );
+
+        results.forEach(result -> System.out.println("[loadtest] " + result));
+        writeReport(results);
+
+        results.forEach(result -> assertTrue(result.errors() == 0,
+                () -> result.endpoint() + " failed " + result.errors() + " of " + result.requests() + " requests"));
+        if (maxP99Millis > 0) {
+            results.forEach(result -> assertTrue(result.p99Millis() <= maxP99Millis,
+                    () -> result.endpoint() + " p99 " + result.p99Millis() + " ms exceeds " + maxP99Millis + " ms"));
+        }
+    }
+
+    private EndpointResult run(final String endpoint,
+                               final Function<Integer, WebClient.RequestHeadersSpec<?>> request) {
+        drive(request, new long[warmupRequests], new AtomicLong());
+
+        final long[] latencies = new long[requests];
+        final AtomicLong errors = new AtomicLong();
+
+        final long start = System.nanoTime();
+        drive(request, latencies, errors);
+        final long elapsed = System.nanoTime() - start;
+
+        Arrays.sort(latencies);
+        return new EndpointResult(endpoint, requests, concurrency, errors.get(),
+                requests / (elapsed / 1_000_000_000d),
+                percentile(latencies, 0.50), percentile(latencies, 0.99), percentile(latencies, 0.999));
+    }
+
+    private void drive(final Function<Integer, WebClient.RequestHeadersSpec<?>> request, final long[] latencies,
+                       final AtomicLong errors) {
+        Flux.range(0, latencies.length)
+                .flatMap(i -> Mono.defer(() -> {
+                    final long sent = System.nanoTime();
+                    return request.apply(i)
+                            .exchangeToMono(response -> response.releaseBody().thenReturn(response.statusCode()))
+                            .doOnNext(status -> {
+                                latencies[i] = System.nanoTime() - sent;
+                                if (!status.is2xxSuccessful()) {
+                                    errors.incrementAndGet();
+                                }
+                            })
+                            .onErrorResume(error -> {
+                                latencies[i] = System.nanoTime() - sent;
+                                errors.incrementAndGet();
+                                return Mono.empty();
+                            });
+                }), concurrency)
+                .blockLast();
+    }
+
+    private void seed() {
+        transactionRepository.deleteAll()
+                .then(bankAccountRepository.deleteAll())
+                .then(costumerRepository.deleteAll())
+                .block();
+
+        costumerIds = Flux.range(0, customers)
+                .concatMap(i -> costumerRepository.insert(new Costumer(null, "Costumer " + i,
+                        String.valueOf(3_000_000_000L + i), "costumer" + i + "@loadtest.local")))
+                .map(Costumer::getCostumerId)
+                .collectList()
+                .block();
+
+        accountIds = Flux.fromIterable(costumerIds)
+                .concatMap(costumerId -> Flux.range(0, accountsPerCustomer)
+                        .concatMap(i -> bankAccountRepository.save(new BankAccount(null, costumerId))))
+                .map(BankAccount::getBankAccountId)
+                .collectList()
+                .block();
+
+        final LocalDateTime now = LocalDateTime.now();
+        batchService.saveAll(Flux.fromIterable(accountIds)
+                        .flatMapIterable(accountId -> IntStream.range(0, transactionsPerAccount)
+                                .mapToObj(i -> new Transaction(null, i % 3 == 0 ? "withdrawal" : "deposit",
+                                        accountId, i % 3 == 0 ? -50L : 100L, now.minusMinutes(i)))
+                                .toList()))
+                .blockLast();
+    }
+
+    private TransferRequest randomTransfer() {
+        final int source = ThreadLocalRandom.current().nextInt(accountIds.size());
+        final int target = (source + 1 + ThreadLocalRandom.current().nextInt(accountIds.size() - 1))
+                % accountIds.size();
+        return new TransferRequest(accountIds.get(source), accountIds.get(target), 1L);
+    }
+
+    private void writeReport(final List<EndpointResult> results) {
+        final Path path = Path.of(report);
+        try {
+            Files.createDirectories(path.toAbsolutePath().getParent());
+            Files.writeString(path, results.stream()
+                    .map(EndpointResult::toJson)
+                    .collect(Collectors.joining(",\n  ", "[\n  ", "\n]\n")));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Long randomOf(final List<Long> ids) {
+        return ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+    }
+
+    private static double percentile(final long[] sortedNanos, final double quantile) {
+        final int index = (int) Math.ceil(quantile * sortedNanos.length) - 1;
+        return sortedNanos[Math.max(0, Math.min(index, sortedNanos.length - 1))] / 1_000_000d;
+    }
+
+    private record EndpointResult(String endpoint, int requests, int concurrency, long errors,
+                                  double requestsPerSecond, double p50Millis, double p99Millis,
+                                  double p999Millis) {
+
+        @Override
+        public String toString() {
+            return String.format("%-45s requests=%d concurrency=%d errors=%d %8.1f req/s "
+                            + "p50=%7.2f ms p99=%7.2f ms p999=%7.2f ms",
+                    endpoint, requests, concurrency, errors, requestsPerSecond, p50Millis, p99Millis, p999Millis);
+        }
+
+        private String toJson() {
+            return String.format(Locale.ROOT, "{\"endpoint\": \"%s\", \"requests\": %d, \"concurrency\": %d, "
+                            + "\"errors\": %d, \"requestsPerSecond\": %.1f, \"p50Ms\": %.3f, \"p99Ms\": %.3f, "
+                            + "\"p999Ms\": %.3f}",
+                    endpoint, requests, concurrency, errors, requestsPerSecond, p50Millis, p99Millis, p999Millis);
+        }
+    }
+}
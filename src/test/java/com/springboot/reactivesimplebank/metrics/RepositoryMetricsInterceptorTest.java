@@ -0,0 +1,154 @@
+package com.springboot.reactivesimplebank.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RepositoryMetricsInterceptorTest {
+
+    interface SampleRepository {
+        Flux<String> findAll();
+
+        Mono<String> findById(Long id);
+
+        long count();
+    }
+
+    static class InMemorySampleRepository implements SampleRepository {
+
+        @Override
+        public Flux<String> findAll() {
+            return Flux.just("a", "b", "c").delayElements(Duration.ofMillis(10));
+        }
+
+        @Override
+        public Mono<String> findById(final Long id) {
+            return id == null ? Mono.error(new IllegalArgumentException("id")) : Mono.just("a");
+        }
+
+        @Override
+        public long count() {
+            throw new IllegalStateException("closed");
+        }
+    }
+
+    private SimpleMeterRegistry meterRegistry;
+    private SampleRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        final ProxyFactory proxyFactory = new ProxyFactory(new InMemorySampleRepository());
+        proxyFactory.addAdvice(new RepositoryMetricsInterceptor("SampleRepository", () -> meterRegistry));
+        repository = (SampleRepository) proxyFactory.getProxy();
+    }
+
+    @Test
+    void fluxIsTimedUntilCompletionAndCountsRowsTest() {
+        final Flux<String> rows = repository.findAll();
+        assertNull(meterRegistry.find(RepositoryMetricsInterceptor.CALLS_METRIC).timer());
+
+        StepVerifier.create(rows)
+                .expectNextCount(3)
+                .verifyComplete();
+
+        final Timer timer = meterRegistry.get(RepositoryMetricsInterceptor.CALLS_METRIC)
+                .tag("repository", "SampleRepository")
+                .tag("method", "findAll")
+                .tag("outcome", "success")
+                .tag("exception", "none")
+                .timer();
+        assertEquals(1, timer.count());
+        assertTrue(timer.totalTime(TimeUnit.MILLISECONDS) >= 30);
+        assertEquals(3.0, rowsOf("findAll").totalAmount());
+    }
+
+    @Test
+    void monoErrorIsTaggedWithExceptionTest() {
+        StepVerifier.create(repository.findById(null))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+
+        assertEquals(1, meterRegistry.get(RepositoryMetricsInterceptor.CALLS_METRIC)
+                .tag("method", "findById")
+                .tag("outcome", "error")
+                .tag("exception", "IllegalArgumentException")
+                .timer()
+                .count());
+        assertEquals(0.0, rowsOf("findById").totalAmount());
+    }
+
+    @Test
+    void monoValueIsOneRowTest() {
+        StepVerifier.create(repository.findById(1L))
+                .expectNext("a")
+                .verifyComplete();
+
+        assertEquals(1.0, rowsOf("findById").totalAmount());
+    }
+
+    @Test
+    void cancelledCallIsTaggedCancelledTest() {
+        StepVerifier.create(repository.findAll().take(1))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        assertEquals(1, meterRegistry.get(RepositoryMetricsInterceptor.CALLS_METRIC)
+                .tag("method", "findAll")
+                .tag("outcome", "cancelled")
+                .timer()
+                .count());
+    }
+
+    @Test
+    void synchronousFailureIsRecordedAndRethrownTest() {
+        assertThrows(IllegalStateException.class, () -> repository.count());
+
+        assertEquals(1, meterRegistry.get(RepositoryMetricsInterceptor.CALLS_METRIC)
+                .tag("method", "count")
+                .tag("exception", "IllegalStateException")
+                .timer()
+                .count());
+    }
+
+    @Test
+    void metersAreRegisteredOncePerTagSetTest() {
+        final AtomicInteger registryLookups = new AtomicInteger();
+        final ProxyFactory proxyFactory = new ProxyFactory(new InMemorySampleRepository());
+        proxyFactory.addAdvice(new RepositoryMetricsInterceptor("SampleRepository", () -> {
+            registryLookups.incrementAndGet();
+            return meterRegistry;
+        }));
+        final SampleRepository counted = (SampleRepository) proxyFactory.getProxy();
+
+        for (int i = 0; i < 5; i++) {
+            StepVerifier.create(counted.findById(1L)).expectNext("a").verifyComplete();
+        }
+
+        assertEquals(2, registryLookups.get());
+        assertEquals(5, meterRegistry.get(RepositoryMetricsInterceptor.CALLS_METRIC)
+                .tag("method", "findById")
+                .timer()
+                .count());
+        assertEquals(5.0, rowsOf("findById").totalAmount());
+    }
+
+    private DistributionSummary rowsOf(final String method) {
+        return meterRegistry.get(RepositoryMetricsInterceptor.ROWS_METRIC).tag("method", method).summary();
+    }
+}
@@ -0,0 +1,104 @@
+package com.springboot.reactivesimplebank.transaction;
+
+import com.springboot.reactivesimplebank.bankAccount.model.BankAccount;
+import com.springboot.reactivesimplebank.bankAccount.repository.IBankAccountRepository;
+import com.springboot.reactivesimplebank.transaction.Service.AccountWriteLanes;
+import com.springboot.reactivesimplebank.transaction.model.Transaction;
+import com.springboot.reactivesimplebank.transaction.repository.ITransactionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.r2dbc.DataR2dbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Skewed write load: 1% of the accounts receive 50% of the writes. Compares unordered concurrent writes,
+ * which contend on the hot account's row lock, with the same writes routed through {@link AccountWriteLanes}.
+ * Run with {@code ./gradlew benchmark}.
+ */
+@Tag("benchmark")
+@DataR2dbcTest(properties = "bank.transactions.write-lanes=64")
+@ActiveProfiles("test")
+@Import({AccountWriteLanes.class, SimpleMeterRegistry.class})
+class AccountWriteLanesBenchmark {
+
+    private static final int ACCOUNTS = 100;
+    private static final int WRITES = 4_000;
+    private static final int CONCURRENCY = 32;
+
+    @Autowired
+    private AccountWriteLanes lanes;
+
+    @Autowired
+    private TransactionalOperator transactionalOperator;
+
+    @Autowired
+    private ITransactionRepository transactionRepository;
+
+    @Autowired
+    private IBankAccountRepository bankAccountRepository;
+
+    @Test
+    void skewedWriteThroughput() {
+        run("unordered writes", this::write);
+        run("account lanes   ", write -> lanes.submit(write.getBankAccountId(), write(write)));
+    }
+
+    private void run(final String label, final Function<Transaction, Mono<Integer>> writer) {
+        final List<Long> accountIds = reset();
+        final AtomicLong failures = new AtomicLong();
+
+        final long start = System.nanoTime();
+        Flux.fromIterable(writes(accountIds))
+                .flatMap(write -> writer.apply(write)
+                        .onErrorResume(error -> {
+                            failures.incrementAndGet();
+                            return Mono.empty();
+                        }), CONCURRENCY)
+                .blockLast();
+        final long nanos = System.nanoTime() - start;
+
+        final long committed = transactionRepository.count().block();
+        assertEquals(WRITES, committed + failures.get());
+        System.out.printf("[benchmark] %s writes=%d failed=%d %8.0f writes/s%n",
+                label, WRITES, failures.get(), committed / (nanos / 1_000_000_000d));
+    }
+
+    private Mono<Integer> write(final Transaction transaction) {
+        return transactionRepository.save(transaction)
+                .flatMap(saved -> bankAccountRepository.addToBalance(saved.getBankAccountId(), saved.getAmount()))
+                .as(transactionalOperator::transactional);
+    }
+
+    private List<Long> reset() {
+        transactionRepository.deleteAll().then(bankAccountRepository.deleteAll()).block();
+        return Flux.range(0, ACCOUNTS)
+                .concatMap(i -> bankAccountRepository.save(new BankAccount(null, 1L)))
+                .map(BankAccount::getBankAccountId)
+                .collectList()
+                .block();
+    }
+
+    private static List<Transaction> writes(final List<Long> accountIds) {
+        final SplittableRandom random = new SplittableRandom(42);
+        final int hotAccounts = Math.max(1, accountIds.size() / 100);
+        return random.ints(WRITES, 0, 2)
+                .mapToObj(coin -> coin == 0
+                        ? accountIds.get(random.nextInt(hotAccounts))
+                        : accountIds.get(hotAccounts + random.nextInt(accountIds.size() - hotAccounts)))
+                .map(bankAccountId -> new Transaction(null, "deposit", bankAccountId, 10L))
+                .toList();
+    }
+}
@@ -0,0 +1,135 @@
+package com.springboot.reactivesimplebank.transaction;
+
+import com.springboot.reactivesimplebank.transaction.Service.AccountWriteLanes;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class AccountWriteLanesTest {
+
+    private static final String QUEUE_DEPTH_METRIC = "bank.transactions.lane.queue-depth";
+
+    private SimpleMeterRegistry meterRegistry;
+    private AccountWriteLanes lanes;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        lanes = new AccountWriteLanes(4, meterRegistry);
+    }
+
+    @Test
+    void sameAccountRunsInSubmissionOrderTest() {
+        final Sinks.One<String> firstWrite = Sinks.one();
+        final List<String> started = new CopyOnWriteArrayList<>();
+
+        final Mono<String> first = lanes.submit(1L, Mono.defer(() -> {
+            started.add("first");
+            return firstWrite.asMono();
+        })).cache();
+        final Mono<String> second = lanes.submit(1L, Mono.fromCallable(() -> {
+            started.add("second");
+            return "second";
+        })).cache();
+
+        first.subscribe();
+        second.subscribe();
+
+        assertEquals(List.of("first"), started);
+        assertEquals(2, lanes.queueDepth(1L));
+
+        firstWrite.tryEmitValue("first");
+
+        StepVerifier.create(first).expectNext("first").verifyComplete();
+        StepVerifier.create(second).expectNext("second").verifyComplete();
+        assertEquals(List.of("first", "second"), started);
+        assertEquals(0, lanes.queueDepth(1L));
+    }
+
+    @Test
+    void differentLanesRunInParallelTest() {
+        final Sinks.One<String> blocked = Sinks.one();
+
+        lanes.submit(1L, blocked.asMono()).subscribe();
+
+        StepVerifier.create(lanes.submit(2L, Mono.just("other account")))
+                .expectNext("other account")
+                .verifyComplete();
+
+        blocked.tryEmitValue("done");
+        assertEquals(0, lanes.queueDepth(1L));
+    }
+
+    @Test
+    void twoAccountWriteWaitsForBothLanesTest() {
+        final Sinks.One<String> blocked = Sinks.one();
+        final List<String> started = new CopyOnWriteArrayList<>();
+
+        lanes.submit(2L, blocked.asMono()).subscribe();
+        final Mono<String> moved = lanes.submit(1L, 2L, Mono.fromCallable(() -> {
+            started.add("moved");
+            return "moved";
+        })).cache();
+        moved.subscribe();
+
+        assertEquals(List.of(), started);
+        assertEquals(1, lanes.queueDepth(1L));
+
+        blocked.tryEmitValue("done");
+
+        StepVerifier.create(moved).expectNext("moved").verifyComplete();
+        assertEquals(0, lanes.queueDepth(1L));
+        assertEquals(0, lanes.queueDepth(2L));
+    }
+
+    @Test
+    void twoAccountsOnTheSameLaneTakeItOnceTest() {
+        StepVerifier.create(lanes.submit(1L, 5L, Mono.just("same lane")))
+                .expectNext("same lane")
+                .verifyComplete();
+    }
+
+    @Test
+    void failedWriteDoesNotStopTheLaneTest() {
+        StepVerifier.create(lanes.submit(1L, Mono.error(new IllegalArgumentException("rejected"))))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+
+        StepVerifier.create(lanes.submit(1L, Mono.empty()))
+                .verifyComplete();
+
+        StepVerifier.create(lanes.submit(1L, Mono.just(1)))
+                .expectNext(1)
+                .verifyComplete();
+    }
+
+    @Test
+    void queueDepthIsPublishedPerLaneTest() {
+        final Sinks.One<String> blocked = Sinks.one();
+
+        lanes.submit(1L, blocked.asMono()).subscribe();
+        lanes.submit(5L, Mono.just("queued")).subscribe();
+
+        assertEquals(4, meterRegistry.find(QUEUE_DEPTH_METRIC).gauges().size());
+        assertEquals(2.0, meterRegistry.get(QUEUE_DEPTH_METRIC).tag("lane", "1").gauge().value());
+        assertEquals(0.0, meterRegistry.get(QUEUE_DEPTH_METRIC).tag("lane", "2").gauge().value());
+
+        blocked.tryEmitValue("done");
+
+        assertEquals(0.0, meterRegistry.get(QUEUE_DEPTH_METRIC).tag("lane", "1").gauge().value());
+    }
+
+    @Test
+    void wrongLaneCountTest() {
+        assertThrows(IllegalArgumentException.class, () -> new AccountWriteLanes(0, meterRegistry));
+    }
+}
@@ -0,0 +1,100 @@
+package com.springboot.reactivesimplebank.transaction;
+
+import com.springboot.reactivesimplebank.bankAccount.model.BankAccount;
+import com.springboot.reactivesimplebank.bankAccount.repository.IBankAccountRepository;
+import com.springboot.reactivesimplebank.cache.EntityCache;
+import com.springboot.reactivesimplebank.transaction.Service.TransactionService;
+import com.springboot.reactivesimplebank.transaction.model.Transaction;
+import com.springboot.reactivesimplebank.transaction.repository.ITransactionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.r2dbc.DataR2dbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@DataR2dbcTest
+@ActiveProfiles("test")
+@Import(TransactionServiceTestConfig.class)
+class IdempotencyKeyTest {
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @MockitoSpyBean
+    private ITransactionRepository transactionRepository;
+
+    @Autowired
+    private IBankAccountRepository bankAccountRepository;
+
+    @Autowired
+    private EntityCache<String, Transaction> idempotencyKeyCache;
+
+    private Long bankAccountId;
+
+    @BeforeEach
+    void setUp() {
+        bankAccountId = bankAccountRepository.save(new BankAccount(null, 1L)).block().getBankAccountId();
+    }
+
+    @Test
+    void concurrentRetriesCreateOneTransaction() {
+        final String key = UUID.randomUUID().toString();
+
+        final Set<Long> ids = Flux.range(0, 20)
+                .flatMap(i -> transactionService.save(new Transaction(null, "deposit", bankAccountId, 100L), key)
+                        .subscribeOn(Schedulers.parallel()))
+                .map(Transaction::getTransactionId)
+                .collect(Collectors.toSet())
+                .block();
+
+        assertEquals(1, ids.size());
+        assertEquals(1L, transactionRepository.findAllByBankAccountId(bankAccountId).count().block());
+        assertEquals(100L, bankAccountRepository.findBalanceByBankAccountId(bankAccountId).block());
+    }
+
+    @Test
+    void replayAfterRestartIsServedFromTheKeyTable() {
+        final String key = UUID.randomUUID().toString();
+        final Transaction created = transactionService
+                .save(new Transaction(null, "deposit", bankAccountId, 100L), key)
+                .block();
+
+        idempotencyKeyCache.invalidate(key);
+        final Transaction replayed = transactionService
+                .save(new Transaction(null, "deposit", bankAccountId, 100L), key)
+                .block();
+
+        assertEquals(created.getTransactionId(), replayed.getTransactionId());
+        assertEquals(1L, transactionRepository.findAllByBankAccountId(bankAccountId).count().block());
+        assertEquals(100L, bankAccountRepository.findBalanceByBankAccountId(bankAccountId).block());
+    }
+
+    @Test
+    void replayWithClientIdAfterRestartDoesNotInsertAgain() {
+        final String key = UUID.randomUUID().toString();
+        transactionService.save(new Transaction(987_654L, "deposit", bankAccountId, 100L), key).block();
+
+        idempotencyKeyCache.invalidate(key);
+        clearInvocations(transactionRepository);
+        final Transaction replayed = transactionService
+                .save(new Transaction(987_654L, "deposit", bankAccountId, 100L), key)
+                .block();
+
+        assertEquals(987_654L, replayed.getTransactionId());
+        verifyNoInteractions(transactionRepository);
+        assertEquals(1L, transactionRepository.findAllByBankAccountId(bankAccountId).count().block());
+        assertEquals(100L, bankAccountRepository.findBalanceByBankAccountId(bankAccountId).block());
+    }
+}
@@ -0,0 +1,112 @@
+package com.springboot.reactivesimplebank.transaction;
+
+import com.springboot.reactivesimplebank.bankAccount.model.BankAccount;
+import com.springboot.reactivesimplebank.bankAccount.repository.IBankAccountRepository;
+import com.springboot.reactivesimplebank.dto.transactionDto.TransactionPage;
+import com.springboot.reactivesimplebank.transaction.Service.TransactionArchiver;
+import com.springboot.reactivesimplebank.transaction.Service.TransactionService;
+import com.springboot.reactivesimplebank.transaction.model.Transaction;
+import com.springboot.reactivesimplebank.transaction.repository.ITransactionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.r2dbc.DataR2dbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@DataR2dbcTest(properties = {
+        "bank.transactions.archive.horizon=30d",
+        "bank.transactions.archive.batch-size=2"
+})
+@ActiveProfiles("test")
+@Import({TransactionServiceTestConfig.class, TransactionArchiver.class})
+class TransactionArchiveTest {
+
+    private static final int ARCHIVED = 5;
+    private static final int RECENT = 3;
+
+    @Autowired
+    private TransactionArchiver archiver;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private ITransactionRepository transactionRepository;
+
+    @Autowired
+    private IBankAccountRepository bankAccountRepository;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    private Long bankAccountId;
+    private List<Long> newestFirst;
+
+    @BeforeEach
+    void seed() {
+        databaseClient.sql("DELETE FROM transactionArchive").then().block();
+        transactionRepository.deleteAll().then(bankAccountRepository.deleteAll()).block();
+        bankAccountId = bankAccountRepository.save(new BankAccount(null, 1L)).block().getBankAccountId();
+
+        final LocalDateTime now = LocalDateTime.now();
+        final List<Transaction> transactions = new ArrayList<>();
+        IntStream.range(0, RECENT).forEach(i -> transactions.add(
+                new Transaction(null, "deposit", bankAccountId, 10L, now.minusDays(i))));
+        IntStream.range(0, ARCHIVED).forEach(i -> transactions.add(
+                new Transaction(null, "deposit", bankAccountId, 10L, now.minusDays(100 + i))));
+        newestFirst = transactionRepository.saveAll(transactions)
+                .map(Transaction::getTransactionId)
+                .collectList()
+                .block();
+    }
+
+    @Test
+    void archiveMovesTransactionsOlderThanTheHorizonInBatches() {
+        assertEquals(ARCHIVED, archiver.archive().block());
+        assertEquals(0L, archiver.archive().block());
+
+        assertEquals(RECENT, transactionRepository.count().block());
+        assertEquals(newestFirst.subList(RECENT, RECENT + ARCHIVED), databaseClient
+                .sql("SELECT transactionId FROM transactionArchive ORDER BY creationDate DESC")
+                .map(row -> row.get("transactionId", Long.class))
+                .all()
+                .collectList()
+                .block());
+    }
+
+    @Test
+    void readsFallThroughToTheArchiveOnlyWhenAsked() {
+        archiver.archive().block();
+        final Long archivedId = newestFirst.get(RECENT);
+
+        assertEquals(RECENT, transactionService.findAllByBankAccountId(bankAccountId, false).count().block());
+        assertEquals(RECENT + ARCHIVED, transactionService.findAllByBankAccountId(bankAccountId, true).count().block());
+        assertEquals(archivedId, transactionService.findById(archivedId).block().getTransactionId());
+    }
+
+    @Test
+    void pagesContinueFromTheTableIntoTheArchive() {
+        archiver.archive().block();
+
+        final List<Long> paged = new ArrayList<>();
+        TransactionPage page = transactionService.findPageByBankAccountId(bankAccountId, 2, null).block();
+        paged.addAll(page.transactions().stream().map(Transaction::getTransactionId).toList());
+        while (page.nextCursor() != null) {
+            page = transactionService.findPageByBankAccountId(bankAccountId, 2, page.nextCursor()).block();
+            paged.addAll(page.transactions().stream().map(Transaction::getTransactionId).toList());
+        }
+
+        assertEquals(newestFirst, paged);
+        assertNull(page.nextCursor());
+    }
+}
@@ -0,0 +1,89 @@
+package com.springboot.reactivesimplebank.transaction;
+
+import com.springboot.reactivesimplebank.bankAccount.model.BankAccount;
+import com.springboot.reactivesimplebank.bankAccount.repository.IBankAccountRepository;
+import com.springboot.reactivesimplebank.transaction.Service.TransactionBatchService;
+import com.springboot.reactivesimplebank.transaction.model.Transaction;
+import com.springboot.reactivesimplebank.transaction.repository.ITransactionRepository;
+import com.springboot.reactivesimplebank.transaction.repository.TransactionBatchRepository;
+import com.springboot.reactivesimplebank.transaction.repository.TransactionTypeTotalRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.r2dbc.DataR2dbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares one insert per row (row save plus balance update in its own transaction, as a single
+ * POST /transactions does) with the batched ingestion path. Run with {@code ./gradlew benchmark}.
+ */
+@Tag("benchmark")
+@DataR2dbcTest(properties = "bank.transactions.batch-size=500")
+@ActiveProfiles("test")
+@Import({TransactionBatchService.class, TransactionBatchRepository.class, TransactionTypeTotalRepository.class})
+class TransactionBatchBenchmark {
+
+    private static final int ROWS = 5_000;
+
+    @Autowired
+    private TransactionalOperator transactionalOperator;
+
+    @Autowired
+    private TransactionBatchService batchService;
+
+    @Autowired
+    private ITransactionRepository transactionRepository;
+
+    @Autowired
+    private IBankAccountRepository bankAccountRepository;
+
+    @Test
+    void ingestionThroughput() {
+        final Long bankAccountId = reset();
+
+        final long singleStart = System.nanoTime();
+        Flux.fromIterable(rows(bankAccountId))
+                .concatMap(row -> transactionRepository.save(row)
+                        .flatMap(saved -> bankAccountRepository.addToBalance(saved.getBankAccountId(),
+                                saved.getAmount()))
+                        .as(transactionalOperator::transactional))
+                .blockLast();
+        final long singleNanos = System.nanoTime() - singleStart;
+
+        assertEquals(ROWS, transactionRepository.count().block());
+        reset();
+
+        final long batchStart = System.nanoTime();
+        batchService.saveAll(Flux.fromIterable(rows(bankAccountId))).blockLast();
+        final long batchNanos = System.nanoTime() - batchStart;
+
+        assertEquals(ROWS, transactionRepository.count().block());
+
+        System.out.printf("[benchmark] single-row inserts  rows=%d %10.0f rows/s%n", ROWS, rowsPerSecond(singleNanos));
+        System.out.printf("[benchmark] batched inserts     rows=%d %10.0f rows/s%n", ROWS, rowsPerSecond(batchNanos));
+        System.out.printf("[benchmark] speedup x%.1f%n", (double) singleNanos / batchNanos);
+    }
+
+    private Long reset() {
+        transactionRepository.deleteAll().then(bankAccountRepository.deleteAll()).block();
+        return bankAccountRepository.save(new BankAccount(null, 1L)).block().getBankAccountId();
+    }
+
+    private static List<Transaction> rows(final Long bankAccountId) {
+        return IntStream.range(0, ROWS)
+                .mapToObj(i -> new Transaction(null, "deposit", bankAccountId, 10L))
+                .toList();
+    }
+
+    private static double rowsPerSecond(final long nanos) {
+        return ROWS / (nanos / 1_000_000_000d);
+    }
+}
@@ -0,0 +1,160 @@
+package com.springboot.reactivesimplebank.transaction;
+
+import com.springboot.reactivesimplebank.TestUtils;
+import com.springboot.reactivesimplebank.bankAccount.repository.BalanceSnapshotRepository;
+import com.springboot.reactivesimplebank.bankAccount.repository.IBankAccountRepository;
+import com.springboot.reactivesimplebank.transaction.Service.TransactionBatchService;
+import com.springboot.reactivesimplebank.transaction.model.Transaction;
+import com.springboot.reactivesimplebank.transaction.repository.TransactionBatchRepository;
+import com.springboot.reactivesimplebank.transaction.repository.TransactionTypeTotalRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionBatchServiceTest {
+
+    @Mock
+    private TransactionBatchRepository batchRepository;
+
+    @Mock
+    private IBankAccountRepository bankAccountRepository;
+
+    @Mock
+    private TransactionTypeTotalRepository typeTotalRepository;
+
+    @Mock
+    private TransactionalOperator transactionalOperator;
+
+    @Mock
+    private BalanceSnapshotRepository snapshotRepository;
+
+    private TransactionBatchService batchService;
+
+    private final TestUtils testUtils = new TestUtils();
+
+    @BeforeEach
+    void setUp() {
+        batchService = new TransactionBatchService(batchRepository, bankAccountRepository, typeTotalRepository,
+                transactionalOperator, snapshotRepository, 2);
+    }
+
+    @Test
+    void saveAllSplitsIntoBatchesTest() {
+        when(transactionalOperator.transactional(ArgumentMatchers.<Mono<Object>>any()))
+                .thenAnswer(inv -> inv.getArgument(0));
+        when(batchRepository.insertAll(anyList()))
+                .thenAnswer(inv -> Mono.just((long) inv.<List<Transaction>>getArgument(0).size()));
+        when(bankAccountRepository.addToBalance(any(), any()))
+                .thenReturn(Mono.just(1));
+        when(snapshotRepository.addFrom(any(), any(), anyLong()))
+                .thenReturn(Mono.empty());
+        when(typeTotalRepository.add(any(), any(), anyLong(), anyLong()))
+                .thenReturn(Mono.empty());
+
+        StepVerifier.create(batchService.saveAll(testUtils.createFluxTransactions()))
+                .assertNext(result -> {
+                    assertEquals(0, result.batch());
+                    assertEquals(2, result.inserted());
+                    assertNull(result.error());
+                })
+                .assertNext(result -> assertEquals(2, result.inserted()))
+                .assertNext(result -> assertEquals(1, result.inserted()))
+                .verifyComplete();
+
+        verify(batchRepository, times(3)).insertAll(anyList());
+        verify(bankAccountRepository).addToBalance(1L, 500L);
+        verify(bankAccountRepository).addToBalance(2L, 3500L);
+        verify(bankAccountRepository).addToBalance(2L, -300L);
+        verify(snapshotRepository).addFrom(2L, LocalDate.now().minusDays(1), 2000L);
+        verify(snapshotRepository).addFrom(2L, LocalDate.now().minusDays(2), -300L);
+        verify(typeTotalRepository).add(1L, "deposit", 1000L, 1L);
+        verify(typeTotalRepository).add(1L, "withdrawal", -500L, 1L);
+        verify(typeTotalRepository).add(2L, "deposit", 3500L, 2L);
+        verify(typeTotalRepository).add(2L, "withdrawal", -300L, 1L);
+    }
+
+    @Test
+    void saveAllReportsInvalidBatchTest() {
+        when(transactionalOperator.transactional(ArgumentMatchers.<Mono<Object>>any()))
+                .thenAnswer(inv -> inv.getArgument(0));
+
+        final Transaction invalid = new Transaction(null, "refund", 1L, 100L);
+
+        StepVerifier.create(batchService.saveAll(Flux.just(invalid)))
+                .assertNext(result -> {
+                    assertEquals(1, result.received());
+                    assertEquals(0, result.inserted());
+                    assertNotNull(result.error());
+                })
+                .verifyComplete();
+
+        verifyNoInteractions(batchRepository, bankAccountRepository, typeTotalRepository);
+    }
+
+    @Test
+    void saveAllLowercasesTypesTest() {
+        when(transactionalOperator.transactional(ArgumentMatchers.<Mono<Object>>any()))
+                .thenAnswer(inv -> inv.getArgument(0));
+        when(batchRepository.insertAll(anyList()))
+                .thenAnswer(inv -> Mono.just((long) inv.<List<Transaction>>getArgument(0).size()));
+        when(bankAccountRepository.addToBalance(any(), any()))
+                .thenReturn(Mono.just(1));
+        when(typeTotalRepository.add(any(), any(), anyLong(), anyLong()))
+                .thenReturn(Mono.empty());
+
+        final Transaction upper = new Transaction(null, "DEPOSIT", 1L, 100L);
+        final Transaction mixed = new Transaction(null, "Deposit", 1L, 200L);
+
+        StepVerifier.create(batchService.saveAll(Flux.just(upper, mixed)))
+                .assertNext(result -> assertEquals(2, result.inserted()))
+                .verifyComplete();
+
+        assertEquals("deposit", upper.getType());
+        assertEquals("deposit", mixed.getType());
+        verify(typeTotalRepository).add(1L, "deposit", 300L, 2L);
+        verifyNoMoreInteractions(typeTotalRepository);
+    }
+
+    @Test
+    void saveAllContinuesAfterFailedBatchTest() {
+        when(transactionalOperator.transactional(ArgumentMatchers.<Mono<Object>>any()))
+                .thenAnswer(inv -> inv.getArgument(0));
+        when(batchRepository.insertAll(anyList()))
+                .thenReturn(Mono.error(new IllegalStateException("connection lost")))
+                .thenAnswer(inv -> Mono.just((long) inv.<List<Transaction>>getArgument(0).size()));
+        when(bankAccountRepository.addToBalance(any(), any()))
+                .thenReturn(Mono.just(1));
+        when(snapshotRepository.addFrom(any(), any(), anyLong()))
+                .thenReturn(Mono.empty());
+        when(typeTotalRepository.add(any(), any(), anyLong(), anyLong()))
+                .thenReturn(Mono.empty());
+
+        StepVerifier.create(batchService.saveAll(testUtils.createFluxTransactions().take(4)))
+                .assertNext(result -> assertEquals("connection lost", result.error()))
+                .assertNext(result -> assertEquals(2, result.inserted()))
+                .verifyComplete();
+    }
+}
@@ -1,8 +1,12 @@
 package com.springboot.reactivesimplebank.transaction;
 
 import com.springboot.reactivesimplebank.TestUtils;
+import com.springboot.reactivesimplebank.dto.transactionDto.TransactionBatchResult;
+import com.springboot.reactivesimplebank.dto.transactionDto.TransactionPage;
+import com.springboot.reactivesimplebank.dto.transactionDto.TransferRequest;
 import com.springboot.reactivesimplebank.exception.customExceptions.EntityNotFoundException;
 import com.springboot.reactivesimplebank.exception.handler.GlobalExceptionHandler;
+import com.springboot.reactivesimplebank.transaction.Service.TransactionBatchService;
 import com.springboot.reactivesimplebank.transaction.Service.TransactionService;
 import com.springboot.reactivesimplebank.transaction.controller.TransactionController;
 import com.springboot.reactivesimplebank.transaction.model.Transaction;
@@ -11,13 +15,21 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
 import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.reactive.server.WebTestClient;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.http.MediaType.APPLICATION_JSON;
 
@@ -32,17 +44,28 @@ class TransactionControllerTest {
                 "bankAccountId": 1
             }
             """;
+
+    public static final String TRANSFER_PAYLOAD = """
+            {
+                "sourceBankAccountId": 1,
+                "targetBankAccountId": 2,
+                "amount": 300
+            }
+            """;
     @Autowired
     private WebTestClient webTestClient;
 
     @MockitoBean
     private TransactionService transactionService;
 
+    @MockitoBean
+    private TransactionBatchService transactionBatchService;
+
     private final TestUtils testUtils = new TestUtils();
 
     @Test
     void createTransactionTest() {
-        when(transactionService.save(any(Transaction.class)))
+        when(transactionService.save(any(Transaction.class), isNull()))
                 .thenReturn(testUtils.createSampleTransaction());
 
         webTestClient.post()
@@ -59,9 +82,47 @@ class TransactionControllerTest {
                 .jsonPath("$.bankAccountId").isEqualTo(1L);
     }
 
+    @Test
+    void createTransactionWithIdempotencyKeyTest() {
+        when(transactionService.save(any(Transaction.class), eq("order-42")))
+                .thenReturn(testUtils.createSampleTransaction());
+
+        webTestClient.post()
+                .uri("/transactions")
+                .header("Idempotency-Key", "order-42")
+                .contentType(APPLICATION_JSON)
+                .bodyValue(FULL_PAYLOAD)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.transactionId").isEqualTo(1L);
+    }
+
+    @Test
+    void streamTransactionEventsTest() {
+        final Transaction transaction = new Transaction(7L, "deposit", 1L, 250L);
+        when(transactionService.stream(1L))
+                .thenReturn(Flux.just(
+                        ServerSentEvent.<Transaction>builder().comment("heartbeat").build(),
+                        ServerSentEvent.builder(transaction).id("7").event("created").build()));
+
+        final String body = webTestClient.get()
+                .uri("/transactions/stream/1")
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM)
+                .expectBody(String.class)
+                .returnResult()
+                .getResponseBody();
+
+        assertTrue(body.contains(":heartbeat"));
+        assertTrue(body.contains("id:7\nevent:created\ndata:{\"transactionId\":7"));
+    }
+
     @Test
     void createTransactionValidationErrorTest() {
-        when(transactionService.save(any(Transaction.class)))
+        when(transactionService.save(any(Transaction.class), isNull()))
                 .thenReturn(Mono.error(new EntityNotFoundException("Bad payload")));
 
         String badPayload = """
@@ -141,7 +202,7 @@ class TransactionControllerTest {
 
     @Test
     void getAllTransactionsByBankAccountId() {
-        when(transactionService.findAllByBankAccountId(any(Long.class)))
+        when(transactionService.findAllByBankAccountId(any(Long.class), anyBoolean()))
                 .thenReturn(testUtils.createFluxTransactions());
 
         webTestClient.get()
@@ -153,9 +214,24 @@ class TransactionControllerTest {
                 .hasSize(5);
     }
 
+    @Test
+    void getAllTransactionsByBankAccountIdIncludingArchivedTest() {
+        when(transactionService.findAllByBankAccountId(1L, true))
+                .thenReturn(testUtils.createFluxTransactions());
+
+        webTestClient.get()
+                .uri("/transactions/all/{bankAccountId}?archived=true", 1L)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(Transaction.class)
+                .hasSize(5);
+
+        verify(transactionService).findAllByBankAccountId(1L, true);
+    }
+
     @Test
     void getAllTransactionsByBankAccountIdErrorTest() {
-        when(transactionService.findAllByBankAccountId(any(Long.class)))
+        when(transactionService.findAllByBankAccountId(any(Long.class), anyBoolean()))
                 .thenReturn(Flux.error(new EntityNotFoundException("Transactions not found")));
 
         webTestClient.get()
@@ -168,6 +244,73 @@ class TransactionControllerTest {
                 });
     }
 
+    @Test
+    void streamTransactionsByBankAccountIdTest() {
+        when(transactionService.findAllByBankAccountId(any(Long.class), anyBoolean()))
+                .thenReturn(testUtils.createFluxTransactions());
+
+        webTestClient.get()
+                .uri("/transactions/all/{bankAccountId}", 1L)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(Transaction.class)
+                .getResponseBody()
+                .as(StepVerifier::create)
+                .expectNextCount(5)
+                .verifyComplete();
+    }
+
+    @Test
+    void streamAllTransactionsTest() {
+        when(transactionService.findAll())
+                .thenReturn(testUtils.createFluxTransactions());
+
+        webTestClient.get()
+                .uri("/transactions/all")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(Transaction.class)
+                .getResponseBody()
+                .as(StepVerifier::create)
+                .expectNextCount(5)
+                .verifyComplete();
+    }
+
+    @Test
+    void getTransactionPageTest() {
+        when(transactionService.findPageByBankAccountId(1L, 2, null))
+                .thenReturn(Mono.just(new TransactionPage(testUtils.createSampleTransactions().subList(0, 2),
+                        "next-cursor")));
+
+        webTestClient.get()
+                .uri("/transactions/page/{bankAccountId}?size={size}", 1L, 2)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_JSON)
+                .expectBody()
+                .jsonPath("$.transactions.length()").isEqualTo(2)
+                .jsonPath("$.nextCursor").isEqualTo("next-cursor");
+    }
+
+    @Test
+    void getTransactionPageErrorTest() {
+        when(transactionService.findPageByBankAccountId(1L, 0, null))
+                .thenReturn(Mono.error(new IllegalArgumentException("Page size must be greater than zero")));
+
+        webTestClient.get()
+                .uri("/transactions/page/{bankAccountId}?size={size}", 1L, 0)
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody(String.class)
+                .value(err -> {
+                    assert err.contains("Page size must be greater than zero");
+                });
+    }
+
     @Test
     void getAllTransactionByTypeAndBanckAccountId() {
         when(transactionService.findAllByTypeAndBankAccount("deposit", 1L))
@@ -226,6 +369,86 @@ class TransactionControllerTest {
                 });
     }
 
+    @Test
+    void createTransactionsBatchJsonArrayTest() {
+        when(transactionBatchService.saveAll(any()))
+                .thenAnswer(inv -> inv.<Flux<Transaction>>getArgument(0)
+                        .count()
+                        .map(count -> TransactionBatchResult.success(0, count.intValue()))
+                        .flux());
+
+        webTestClient.post()
+                .uri("/transactions/batch")
+                .contentType(APPLICATION_JSON)
+                .bodyValue("[" + FULL_PAYLOAD + "," + FULL_PAYLOAD + "]")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$[0].batch").isEqualTo(0)
+                .jsonPath("$[0].inserted").isEqualTo(2);
+    }
+
+    @Test
+    void createTransactionsBatchNdjsonTest() {
+        when(transactionBatchService.saveAll(any()))
+                .thenAnswer(inv -> inv.<Flux<Transaction>>getArgument(0)
+                        .count()
+                        .map(count -> TransactionBatchResult.success(0, count.intValue()))
+                        .flux());
+
+        final String ndjson = FULL_PAYLOAD.replace("\n", "") + "\n" + FULL_PAYLOAD.replace("\n", "") + "\n"
+                + FULL_PAYLOAD.replace("\n", "") + "\n";
+
+        webTestClient.post()
+                .uri("/transactions/batch")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .bodyValue(ndjson)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(TransactionBatchResult.class)
+                .getResponseBody()
+                .as(StepVerifier::create)
+                .assertNext(result -> assertEquals(3, result.inserted()))
+                .verifyComplete();
+    }
+
+    @Test
+    void transferTest() {
+        when(transactionService.transfer(new TransferRequest(1L, 2L, 300L)))
+                .thenReturn(Flux.just(
+                        new Transaction(10L, "transfer", 1L, -300L),
+                        new Transaction(11L, "transfer", 2L, 300L)));
+
+        webTestClient.post()
+                .uri("/transactions/transfer")
+                .contentType(APPLICATION_JSON)
+                .bodyValue(TRANSFER_PAYLOAD)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(2)
+                .jsonPath("$[0].amount").isEqualTo(-300)
+                .jsonPath("$[1].bankAccountId").isEqualTo(2);
+    }
+
+    @Test
+    void transferErrorTest() {
+        when(transactionService.transfer(any(TransferRequest.class)))
+                .thenReturn(Flux.error(new EntityNotFoundException("Bank account with id: 2 not found")));
+
+        webTestClient.post()
+                .uri("/transactions/transfer")
+                .contentType(APPLICATION_JSON)
+                .bodyValue(TRANSFER_PAYLOAD)
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody(String.class)
+                .value(err -> {
+                    assert err.contains("Bank account with id: 2 not found");
+                });
+    }
+
     @Test
     void updateTransactionSuccessTest() {
         when(transactionService.update(any(Transaction.class)))
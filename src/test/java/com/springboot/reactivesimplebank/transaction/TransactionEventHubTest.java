@@ -0,0 +1,103 @@
+package com.springboot.reactivesimplebank.transaction;
+
+import com.springboot.reactivesimplebank.transaction.Service.TransactionEventHub;
+import com.springboot.reactivesimplebank.transaction.model.Transaction;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.codec.ServerSentEvent;
+import reactor.core.Disposable;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TransactionEventHubTest {
+
+    private static final String DROPPED_METRIC = "bank.transactions.stream.dropped";
+    private static final String SUBSCRIBERS_METRIC = "bank.transactions.stream.subscribers";
+
+    private SimpleMeterRegistry meterRegistry;
+    private TransactionEventHub hub;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        hub = new TransactionEventHub(4, Duration.ofMinutes(1), meterRegistry);
+    }
+
+    @Test
+    void eventsOnlyReachSubscribersOfTheirAccountTest() {
+        final List<Long> first = new CopyOnWriteArrayList<>();
+        final List<Long> second = new CopyOnWriteArrayList<>();
+        final Disposable firstSubscription = hub.subscribe(1L)
+                .subscribe(event -> first.add(event.data().getTransactionId()));
+        final Disposable secondSubscription = hub.subscribe(2L)
+                .subscribe(event -> second.add(event.data().getTransactionId()));
+
+        hub.publish(TransactionEventHub.CREATED, 1L, transaction(10L, 1L));
+        hub.publish(TransactionEventHub.CREATED, 2L, transaction(20L, 2L));
+        hub.publish(TransactionEventHub.DELETED, 1L, transaction(11L, 1L));
+
+        assertEquals(List.of(10L, 11L), first);
+        assertEquals(List.of(20L), second);
+        firstSubscription.dispose();
+        secondSubscription.dispose();
+    }
+
+    @Test
+    void channelIsReleasedWithItsLastSubscriberTest() {
+        final Disposable first = hub.subscribe(1L).subscribe();
+        final Disposable second = hub.subscribe(1L).subscribe();
+
+        assertEquals(1, hub.channelCount());
+        assertEquals(2.0, meterRegistry.get(SUBSCRIBERS_METRIC).gauge().value());
+
+        first.dispose();
+        assertEquals(1, hub.channelCount());
+
+        second.dispose();
+        assertEquals(0, hub.channelCount());
+        assertEquals(0, hub.subscriberCount());
+
+        hub.publish(TransactionEventHub.CREATED, 1L, transaction(10L, 1L));
+        assertEquals(0, hub.channelCount());
+    }
+
+    @Test
+    void slowSubscriberKeepsTheLatestEventsTest() {
+        StepVerifier.create(hub.subscribe(1L).map(event -> event.data().getTransactionId()), 0)
+                .then(() -> LongStream.rangeClosed(1, 7)
+                        .forEach(id -> hub.publish(TransactionEventHub.CREATED, 1L, transaction(id, 1L))))
+                .thenRequest(4)
+                .expectNext(4L, 5L, 6L, 7L)
+                .thenCancel()
+                .verify();
+
+        assertEquals(3.0, meterRegistry.get(DROPPED_METRIC).counter().count());
+    }
+
+    @Test
+    void idleStreamReceivesHeartbeatsTest() {
+        final TransactionEventHub fastHeartbeat = new TransactionEventHub(4, Duration.ofMillis(50), meterRegistry);
+
+        StepVerifier.create(fastHeartbeat.subscribe(1L).take(2).map(ServerSentEvent::comment))
+                .expectNext("heartbeat", "heartbeat")
+                .verifyComplete();
+    }
+
+    @Test
+    void rejectsEmptyBufferTest() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new TransactionEventHub(0, Duration.ofSeconds(1), meterRegistry));
+    }
+
+    private static Transaction transaction(final Long id, final Long bankAccountId) {
+        return new Transaction(id, "deposit", bankAccountId, 100L);
+    }
+}
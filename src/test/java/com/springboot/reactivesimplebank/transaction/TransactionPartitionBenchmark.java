@@ -0,0 +1,171 @@
+package com.springboot.reactivesimplebank.transaction;
+
+import io.r2dbc.h2.H2ConnectionConfiguration;
+import io.r2dbc.h2.H2ConnectionFactory;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.function.LongFunction;
+
+/**
+ * Compares per-account lookups on one transaction table against the same rows hash-partitioned by bankAccountId.
+ * MySQL stores every partition of {@code PARTITION BY HASH(bankAccountId) PARTITIONS 16} as its own B-tree and
+ * prunes a {@code bankAccountId = ?} query to partition {@code bankAccountId MOD 16}; H2 has no partitioning, so
+ * the partitioned layout is reproduced here with 16 physical tables routed the same way. The data set is written
+ * once to a file database under build/benchmark and reused by later runs. Run with {@code ./gradlew benchmark}.
+ */
+@Tag("benchmark")
+class TransactionPartitionBenchmark {
+
+    private static final long ROWS = 10_000_000;
+    private static final long ACCOUNTS = 100_000;
+    private static final int PARTITIONS = 16;
+    private static final int WARMUP_LOOKUPS = 2_000;
+    private static final int MEASURED_LOOKUPS = 5_000;
+    private static final String COLUMNS = "transactionId, type, bankAccountId, `value`, creationDate";
+
+    private static DatabaseClient databaseClient;
+
+    @BeforeAll
+    static void load() {
+        final File database = new File("build/benchmark/transaction-partitions");
+        database.getParentFile().mkdirs();
+        databaseClient = DatabaseClient.create(new H2ConnectionFactory(H2ConnectionConfiguration.builder()
+                .file(database.getAbsolutePath())
+                .username("sa")
+                .property("MODE", "MySQL")
+                .property("NON_KEYWORDS", "VALUE")
+                .property("DB_CLOSE_DELAY", "-1")
+                .build()));
+
+        if (count("transaction_single") == ROWS && count(partition(PARTITIONS - 1)) > 0) {
+            return;
+        }
+        execute("drop all objects");
+        final long start = System.nanoTime();
+        createTable("transaction_single");
+        execute("insert into transaction_single (" + COLUMNS + ") "
+                + "select x, case when mod(x, 3) = 0 then 'withdrawal' else 'deposit' end, mod(x, " + ACCOUNTS
+                + ") + 1, mod(x, 1000) * 100, dateadd(second, x, timestamp '2024-01-01 00:00:00') "
+                + "from system_range(1, " + ROWS + ")");
+        createIndexes("transaction_single");
+        for (int i = 0; i < PARTITIONS; i++) {
+            createTable(partition(i));
+            execute("insert into " + partition(i) + " (" + COLUMNS + ") select " + COLUMNS
+                    + " from transaction_single where mod(bankAccountId, " + PARTITIONS + ") = " + i);
+            createIndexes(partition(i));
+        }
+        System.out.printf("[benchmark] loaded rows=%d accounts=%d partitions=%d in %d s%n",
+                ROWS, ACCOUNTS, PARTITIONS, (System.nanoTime() - start) / 1_000_000_000);
+    }
+
+    @Test
+    void perAccountLookups() {
+        final String history = "select " + COLUMNS + " from %s where bankAccountId = :bankAccountId "
+                + "order by creationDate desc, transactionId desc limit 100";
+        final String all = "select " + COLUMNS + " from %s where bankAccountId = :bankAccountId";
+
+        compare("history page", history);
+        compare("all rows", all);
+    }
+
+    /**
+     * Looks up the same random accounts in both layouts, alternating which one goes first, so that neither
+     * benefits from the other having warmed the JIT or the page cache.
+     */
+    private static void compare(final String name, final String query) {
+        final LongFunction<String> single = account -> String.format(query, "transaction_single");
+        final LongFunction<String> partitioned = account -> String.format(query, route(account));
+        final SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < WARMUP_LOOKUPS; i++) {
+            final long account = random.nextLong(1, ACCOUNTS + 1);
+            lookup(single, account);
+            lookup(partitioned, account);
+        }
+
+        final long[] singleSamples = new long[MEASURED_LOOKUPS];
+        final long[] partitionedSamples = new long[MEASURED_LOOKUPS];
+        for (int i = 0; i < MEASURED_LOOKUPS; i++) {
+            final long account = random.nextLong(1, ACCOUNTS + 1);
+            if (i % 2 == 0) {
+                singleSamples[i] = timed(single, account);
+                partitionedSamples[i] = timed(partitioned, account);
+            } else {
+                partitionedSamples[i] = timed(partitioned, account);
+                singleSamples[i] = timed(single, account);
+            }
+        }
+        report(name + ", single", singleSamples);
+        report(name + ", partitioned", partitionedSamples);
+    }
+
+    private static long timed(final LongFunction<String> query, final long bankAccountId) {
+        final long start = System.nanoTime();
+        lookup(query, bankAccountId);
+        return System.nanoTime() - start;
+    }
+
+    private static void report(final String name, final long[] samples) {
+        Arrays.sort(samples);
+        System.out.printf("[benchmark] %-26s rows=%d rows/account=%d mean=%7.3f ms p50=%7.3f ms p99=%7.3f ms%n",
+                name, ROWS, ROWS / ACCOUNTS, Arrays.stream(samples).average().orElse(0) / 1_000_000d,
+                percentile(samples, 0.50), percentile(samples, 0.99));
+    }
+
+    private static long lookup(final LongFunction<String> query, final long bankAccountId) {
+        return databaseClient.sql(query.apply(bankAccountId))
+                .bind("bankAccountId", bankAccountId)
+                .fetch()
+                .all()
+                .count()
+                .block();
+    }
+
+    private static String route(final long bankAccountId) {
+        return partition((int) (bankAccountId % PARTITIONS));
+    }
+
+    private static String partition(final int index) {
+        return "transaction_p" + index;
+    }
+
+    private static void createTable(final String table) {
+        execute("create table " + table + " (transactionId bigint primary key, type varchar(20) not null, "
+                + "bankAccountId bigint not null, `value` bigint not null, creationDate timestamp not null)");
+    }
+
+    private static void createIndexes(final String table) {
+        execute("create index " + table + "_history on " + table + " (bankAccountId, creationDate, transactionId)");
+        execute("create index " + table + "_type on " + table + " (bankAccountId, type, creationDate)");
+    }
+
+    private static long count(final String table) {
+        final Long tables = databaseClient.sql("select count(*) as total from information_schema.tables "
+                        + "where lower(table_name) = :table")
+                .bind("table", table)
+                .map(row -> row.get("total", Long.class))
+                .one()
+                .block();
+        if (tables == null || tables == 0) {
+            return 0;
+        }
+        return databaseClient.sql("select count(*) as total from " + table)
+                .map(row -> row.get("total", Long.class))
+                .one()
+                .block();
+    }
+
+    private static void execute(final String sql) {
+        databaseClient.sql(sql).then().block();
+    }
+
+    private static double percentile(final long[] sortedSamples, final double percentile) {
+        final int index = (int) Math.ceil(percentile * sortedSamples.length) - 1;
+        return sortedSamples[Math.max(index, 0)] / 1_000_000d;
+    }
+}
@@ -0,0 +1,99 @@
+package com.springboot.reactivesimplebank.transaction;
+
+import com.springboot.reactivesimplebank.transaction.model.Transaction;
+import com.springboot.reactivesimplebank.transaction.repository.ITransactionRepository;
+import com.springboot.reactivesimplebank.transaction.repository.TransactionBatchRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.r2dbc.DataR2dbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.test.context.ActiveProfiles;
+import reactor.test.StepVerifier;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataR2dbcTest
+@ActiveProfiles("test")
+@Import(TransactionBatchRepository.class)
+class TransactionRepositoryTest {
+
+    @Autowired
+    private ITransactionRepository transactionRepository;
+
+    @Autowired
+    private TransactionBatchRepository batchRepository;
+
+    private final LocalDateTime now = LocalDateTime.of(2025, 1, 10, 8, 30);
+
+    @BeforeEach
+    void clean() { transactionRepository.deleteAll().block(); }
+
+    @Test
+    void keysetPagesWalkHistoryNewestFirst() {
+        transactionRepository.saveAll(List.of(
+                new Transaction(null, "deposit", 1L, 100L, now.minusDays(2)),
+                new Transaction(null, "deposit", 1L, 200L, now.minusDays(1)),
+                new Transaction(null, "deposit", 1L, 300L, now.minusDays(1)),
+                new Transaction(null, "deposit", 1L, 400L, now),
+                new Transaction(null, "deposit", 2L, 999L, now)
+        )).blockLast();
+
+        final List<Transaction> firstPage = transactionRepository.findFirstPageByBankAccountId(1L, 2)
+                .collectList()
+                .block();
+
+        assertEquals(List.of(400L, 300L), firstPage.stream().map(Transaction::getAmount).toList());
+
+        final Transaction last = firstPage.get(1);
+        StepVerifier.create(transactionRepository.findPageByBankAccountIdBefore(
+                        1L, last.getCreationDate(), last.getTransactionId(), 2)
+                        .map(Transaction::getAmount))
+                .expectNext(200L, 100L)
+                .verifyComplete();
+    }
+
+    @Test
+    void insertKeepsClientAssignedId() {
+        final Long id = transactionRepository.insert(new Transaction(null, "deposit", 1L, 100L, now))
+                .block()
+                .getTransactionId();
+        transactionRepository.deleteAll().block();
+
+        StepVerifier.create(transactionRepository.insert(new Transaction(id, "deposit", 1L, 100L, now)))
+                .assertNext(inserted -> assertEquals(id, inserted.getTransactionId()))
+                .verifyComplete();
+
+        StepVerifier.create(transactionRepository.insert(new Transaction(id, "withdrawal", 1L, -50L, now)))
+                .expectError(DuplicateKeyException.class)
+                .verify();
+    }
+
+    @Test
+    void insertAllWritesEveryRowOfTheBatch() {
+        final List<Transaction> batch = List.of(
+                new Transaction(null, "deposit", 1L, 100L, now),
+                new Transaction(null, "withdrawal", 1L, -40L, now),
+                new Transaction(null, "deposit", 2L, 70L, now)
+        );
+
+        StepVerifier.create(batchRepository.insertAll(batch))
+                .expectNext(3L)
+                .verifyComplete();
+
+        StepVerifier.create(transactionRepository.findAllByBankAccountId(1L).map(Transaction::getAmount))
+                .expectNext(100L, -40L)
+                .verifyComplete();
+    }
+
+    @Test
+    void insertAllEmptyBatch() {
+        StepVerifier.create(batchRepository.insertAll(List.of()))
+                .expectNext(0L)
+                .verifyComplete();
+    }
+}
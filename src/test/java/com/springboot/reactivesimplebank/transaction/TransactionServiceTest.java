@@ -1,30 +1,57 @@
 package com.springboot.reactivesimplebank.transaction;
 
 import com.springboot.reactivesimplebank.TestUtils;
+import com.springboot.reactivesimplebank.bankAccount.repository.IBankAccountRepository;
+import com.springboot.reactivesimplebank.cache.EntityCache;
+import com.springboot.reactivesimplebank.cache.RequestCoalescer;
 import com.springboot.reactivesimplebank.bankAccount.service.BankAccountService;
+import com.springboot.reactivesimplebank.dto.transactionDto.TotalAmount;
+import com.springboot.reactivesimplebank.dto.transactionDto.TransactionCursor;
+import com.springboot.reactivesimplebank.dto.transactionDto.TransferRequest;
 import com.springboot.reactivesimplebank.exception.customExceptions.DuplicateEntityException;
 import com.springboot.reactivesimplebank.exception.customExceptions.EntityNotFoundException;
+import com.springboot.reactivesimplebank.transaction.Service.AccountWriteLanes;
+import com.springboot.reactivesimplebank.transaction.Service.TransactionEventHub;
 import com.springboot.reactivesimplebank.transaction.Service.TransactionService;
 import com.springboot.reactivesimplebank.transaction.model.Transaction;
+import com.springboot.reactivesimplebank.transaction.model.TransactionTypeTotal;
 import com.springboot.reactivesimplebank.transaction.repository.ITransactionRepository;
+import com.springboot.reactivesimplebank.transaction.repository.IdempotencyKeyRepository;
+import com.springboot.reactivesimplebank.transaction.repository.TransactionArchiveRepository;
+import com.springboot.reactivesimplebank.transaction.repository.TransactionTypeTotalRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.reactive.TransactionalOperator;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
 import reactor.test.StepVerifier;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.anyLong;
 import static org.mockito.Mockito.anyString;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
@@ -38,10 +65,40 @@ class TransactionServiceTest {
     @Mock
     private BankAccountService bankAccountService;
 
+    @Mock
+    private IBankAccountRepository bankAccountRepository;
+
+    @Mock
+    private TransactionTypeTotalRepository typeTotalRepository;
+
+    @Mock
+    private TransactionalOperator transactionalOperator;
+
+    @Spy
+    private AccountWriteLanes accountWriteLanes = new AccountWriteLanes(4, new SimpleMeterRegistry());
+
+    @Spy
+    private TransactionEventHub eventHub = new TransactionEventHub(16, Duration.ofMinutes(1), new SimpleMeterRegistry());
+
+    @Mock
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    @Spy
+    private EntityCache<String, Transaction> idempotencyKeyCache =
+            new EntityCache<>("idempotency-keys", 100, Duration.ofMinutes(1), new SimpleMeterRegistry());
+
+    @Mock
+    private TransactionArchiveRepository archiveRepository;
+
+    @Spy
+    private RequestCoalescer<String, TotalAmount> resumeByTypeCoalescer =
+            new RequestCoalescer<>("resumes-by-type", 100, Duration.ZERO, new SimpleMeterRegistry());
+
     @InjectMocks
     private TransactionService transactionService;
 
     private final Long TRANSACTION_ID = 1L;
+    private static final String IDEMPOTENCY_KEY = "order-42";
 
     private final TestUtils testUtils = new TestUtils();
 
@@ -63,18 +120,36 @@ class TransactionServiceTest {
                 .verifyComplete();
 
         verify(transactionRepository).findById(TRANSACTION_ID);
+        verifyNoInteractions(archiveRepository);
+    }
+
+    @Test
+    void findByIdFallsBackToArchiveTest() {
+        when(transactionRepository.findById(TRANSACTION_ID))
+                .thenReturn(Mono.empty());
+        when(archiveRepository.findById(TRANSACTION_ID))
+                .thenReturn(testUtils.createSampleTransaction());
+
+        StepVerifier.create(transactionService.findById(TRANSACTION_ID))
+                .expectNextMatches(transaction -> transaction.getTransactionId().equals(TRANSACTION_ID))
+                .verifyComplete();
+
+        verify(archiveRepository).findById(TRANSACTION_ID);
     }
 
     @Test
     void findByIdNonExistingTest() {
         when(transactionRepository.findById(TRANSACTION_ID))
                 .thenReturn(Mono.empty());
+        when(archiveRepository.findById(TRANSACTION_ID))
+                .thenReturn(Mono.empty());
 
         StepVerifier.create(transactionService.findById(TRANSACTION_ID))
                 .expectError(EntityNotFoundException.class)
                 .verify();
 
         verify(transactionRepository).findById(TRANSACTION_ID);
+        verify(archiveRepository).findById(TRANSACTION_ID);
     }
 
     @Test
@@ -103,14 +178,19 @@ class TransactionServiceTest {
 
     @Test
     void saveTest() {
+        passThroughTransaction();
         final Transaction sampleTransaction = testUtils.getTestTransaction();
+        transactionIdIsFree(TRANSACTION_ID);
 
-        when(transactionRepository.existsById(sampleTransaction.getTransactionId()))
-                .thenReturn(Mono.just(false));
-
-        when(transactionRepository.save(sampleTransaction))
+        when(transactionRepository.insert(sampleTransaction))
                 .thenReturn(Mono.just(sampleTransaction));
 
+        when(bankAccountRepository.addToBalance(1L, 1000L))
+                .thenReturn(Mono.just(1));
+
+        when(typeTotalRepository.add(1L, DEPOSIT_TYPE, 1000L, 1L))
+                .thenReturn(Mono.empty());
+
         StepVerifier.create(transactionService.save(sampleTransaction))
                 .expectNextMatches(transaction -> transaction.getType().equals(DEPOSIT_TYPE) &&
                         Objects.equals(transaction.getTransactionId(), TRANSACTION_ID) &&
@@ -119,44 +199,309 @@ class TransactionServiceTest {
                 )
                 .verifyComplete();
 
-        verify(transactionRepository).existsById(sampleTransaction.getTransactionId());
-        verify(transactionRepository).save(sampleTransaction);
+        verify(transactionRepository).insert(sampleTransaction);
+        verify(transactionRepository, never()).existsById(anyLong());
+        verify(bankAccountRepository).addToBalance(1L, 1000L);
+        verify(typeTotalRepository).add(1L, DEPOSIT_TYPE, 1000L, 1L);
+        verify(eventHub).publish(TransactionEventHub.CREATED, 1L, sampleTransaction);
     }
 
     @Test
     void saveEmptyTransactionTest() {
-        when(transactionRepository.existsById(TRANSACTION_ID))
-                .thenReturn(Mono.just(true));
+        passThroughTransaction();
+        transactionIdIsFree(TRANSACTION_ID);
+        when(transactionRepository.insert(any()))
+                .thenReturn(Mono.error(new DuplicateKeyException("Unique index or primary key violation")));
 
         StepVerifier.create(transactionService.save(testUtils.getTestTransaction()))
                 .expectError(DuplicateEntityException.class)
                 .verify();
 
-        verify(transactionRepository).existsById(TRANSACTION_ID);
+        verify(transactionRepository).insert(any());
+        verifyNoInteractions(bankAccountRepository, typeTotalRepository);
+        verify(eventHub, never()).publish(anyString(), any(), any());
+    }
+
+    @Test
+    void saveLowercasesTheTypeTest() {
+        passThroughTransaction();
+        final Transaction mixedCase = new Transaction(TRANSACTION_ID, "Deposit", 1L, 1000L);
+        transactionIdIsFree(TRANSACTION_ID);
+        when(transactionRepository.insert(mixedCase))
+                .thenReturn(Mono.just(mixedCase));
+        when(bankAccountRepository.addToBalance(1L, 1000L))
+                .thenReturn(Mono.just(1));
+        when(typeTotalRepository.add(1L, DEPOSIT_TYPE, 1000L, 1L))
+                .thenReturn(Mono.empty());
+
+        StepVerifier.create(transactionService.save(mixedCase))
+                .assertNext(saved -> assertEquals(DEPOSIT_TYPE, saved.getType()))
+                .verifyComplete();
+
+        verify(typeTotalRepository).add(1L, DEPOSIT_TYPE, 1000L, 1L);
+        verifyNoMoreInteractions(typeTotalRepository);
+    }
+
+    @Test
+    void saveInvalidTypeTest() {
+        StepVerifier.create(transactionService.save(new Transaction(TRANSACTION_ID, "refund", 1L, 1000L)))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+
+        verifyNoInteractions(transactionRepository, bankAccountRepository, typeTotalRepository);
+    }
+
+    @Test
+    void updateInvalidTypeTest() {
+        StepVerifier.create(transactionService.update(new Transaction(TRANSACTION_ID, null, 1L, 1000L)))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+
+        verifyNoInteractions(transactionRepository, bankAccountRepository, typeTotalRepository);
+    }
+
+    @Test
+    void saveIdTakenUnderAnotherAccountTest() {
+        passThroughTransaction();
+        when(transactionRepository.findByIdForUpdate(TRANSACTION_ID))
+                .thenReturn(Mono.just(new Transaction(TRANSACTION_ID, DEPOSIT_TYPE, 2L, 500L)));
+
+        StepVerifier.create(transactionService.save(testUtils.getTestTransaction()))
+                .expectError(DuplicateEntityException.class)
+                .verify();
+
+        verify(transactionRepository, never()).insert(any());
+        verifyNoInteractions(archiveRepository, bankAccountRepository, typeTotalRepository);
+    }
+
+    @Test
+    void saveIdTakenByAnArchivedTransactionTest() {
+        passThroughTransaction();
+        when(transactionRepository.findByIdForUpdate(TRANSACTION_ID))
+                .thenReturn(Mono.empty());
+        when(archiveRepository.findById(TRANSACTION_ID))
+                .thenReturn(Mono.just(new Transaction(TRANSACTION_ID, DEPOSIT_TYPE, 1L, 1000L)));
+
+        StepVerifier.create(transactionService.save(testUtils.getTestTransaction()))
+                .expectError(DuplicateEntityException.class)
+                .verify();
+
+        verify(transactionRepository, never()).insert(any());
+        verifyNoInteractions(bankAccountRepository, typeTotalRepository);
+    }
+
+    @Test
+    void saveWithIdempotencyKeyRecordsTheKeyTest() {
+        passThroughTransaction();
+        final Transaction sampleTransaction = testUtils.getTestTransaction();
+        stubInsert(sampleTransaction);
+        when(idempotencyKeyRepository.findTransaction(IDEMPOTENCY_KEY))
+                .thenReturn(Mono.empty());
+        when(idempotencyKeyRepository.insert(IDEMPOTENCY_KEY, sampleTransaction))
+                .thenReturn(Mono.empty());
+
+        StepVerifier.create(transactionService.save(sampleTransaction, IDEMPOTENCY_KEY))
+                .expectNext(sampleTransaction)
+                .verifyComplete();
+
+        verify(transactionRepository).insert(sampleTransaction);
+        verify(idempotencyKeyRepository).insert(IDEMPOTENCY_KEY, sampleTransaction);
+        verify(idempotencyKeyRepository).findTransaction(IDEMPOTENCY_KEY);
+    }
+
+    @Test
+    void hotIdempotencyKeyIsReplayedFromMemoryTest() {
+        passThroughTransaction();
+        final Transaction sampleTransaction = testUtils.getTestTransaction();
+        stubInsert(sampleTransaction);
+        when(idempotencyKeyRepository.findTransaction(IDEMPOTENCY_KEY))
+                .thenReturn(Mono.empty());
+        when(idempotencyKeyRepository.insert(IDEMPOTENCY_KEY, sampleTransaction))
+                .thenReturn(Mono.empty());
+
+        transactionService.save(sampleTransaction, IDEMPOTENCY_KEY).block();
+
+        StepVerifier.create(transactionService.save(testUtils.getTestTransaction(), IDEMPOTENCY_KEY))
+                .expectNext(sampleTransaction)
+                .verifyComplete();
+
+        verify(transactionRepository).findByIdForUpdate(TRANSACTION_ID);
+        verify(transactionRepository).insert(any());
+        verify(idempotencyKeyRepository).findTransaction(IDEMPOTENCY_KEY);
+        verify(idempotencyKeyRepository).insert(anyString(), any());
+        verifyNoMoreInteractions(transactionRepository, idempotencyKeyRepository);
+        verify(eventHub).publish(anyString(), any(), any());
+    }
+
+    @Test
+    void coldIdempotencyKeyIsReplayedFromTheKeyTableTest() {
+        final Transaction stored = new Transaction(TRANSACTION_ID, DEPOSIT_TYPE, 1L, 1000L);
+        when(idempotencyKeyRepository.findTransaction(IDEMPOTENCY_KEY))
+                .thenReturn(Mono.just(stored));
+
+        StepVerifier.create(transactionService.save(testUtils.getTestTransaction(), IDEMPOTENCY_KEY))
+                .expectNext(stored)
+                .verifyComplete();
+
+        verifyNoInteractions(transactionRepository, bankAccountRepository, typeTotalRepository);
+        verify(idempotencyKeyRepository, never()).insert(anyString(), any());
+        verify(eventHub, never()).publish(anyString(), any(), any());
+    }
+
+    @Test
+    void concurrentIdempotencyKeyIsResolvedFromTheKeyTableTest() {
+        passThroughTransaction();
+        final Transaction sampleTransaction = testUtils.getTestTransaction();
+        final Transaction stored = new Transaction(TRANSACTION_ID, DEPOSIT_TYPE, 1L, 1000L);
+        stubInsert(sampleTransaction);
+        when(idempotencyKeyRepository.insert(IDEMPOTENCY_KEY, sampleTransaction))
+                .thenReturn(Mono.error(new DuplicateKeyException("Unique index or primary key violation")));
+        when(idempotencyKeyRepository.findTransaction(IDEMPOTENCY_KEY))
+                .thenReturn(Mono.empty())
+                .thenReturn(Mono.just(stored));
+
+        StepVerifier.create(transactionService.save(sampleTransaction, IDEMPOTENCY_KEY))
+                .expectNext(stored)
+                .verifyComplete();
+
+        verify(eventHub, never()).publish(anyString(), any(), any());
+    }
+
+    @Test
+    void concurrentIdempotencyKeyWithClientIdIsResolvedFromTheKeyTableTest() {
+        passThroughTransaction();
+        final Transaction stored = new Transaction(TRANSACTION_ID, DEPOSIT_TYPE, 1L, 1000L);
+        when(idempotencyKeyRepository.findTransaction(IDEMPOTENCY_KEY))
+                .thenReturn(Mono.empty())
+                .thenReturn(Mono.just(stored));
+        transactionIdIsFree(TRANSACTION_ID);
+        when(transactionRepository.insert(any()))
+                .thenReturn(Mono.error(new DuplicateKeyException("Unique index or primary key violation")));
+
+        StepVerifier.create(transactionService.save(
+                        new Transaction(TRANSACTION_ID, DEPOSIT_TYPE, 1L, 1000L), IDEMPOTENCY_KEY))
+                .expectNext(stored)
+                .verifyComplete();
+
+        verify(idempotencyKeyRepository, never()).insert(anyString(), any());
+    }
+
+    @Test
+    void idempotencyKeyReusedForAnotherTransactionTest() {
+        final Transaction stored = new Transaction(TRANSACTION_ID, WITHDRAWAL_TYPE, 1L, -50L);
+        idempotencyKeyCache.put(IDEMPOTENCY_KEY, stored);
+
+        StepVerifier.create(transactionService.save(testUtils.getTestTransaction(), IDEMPOTENCY_KEY))
+                .expectError(DuplicateEntityException.class)
+                .verify();
+
+        verifyNoInteractions(transactionRepository, idempotencyKeyRepository);
+    }
+
+    @Test
+    void invalidIdempotencyKeyTest() {
+        StepVerifier.create(transactionService.save(testUtils.getTestTransaction(), " "))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+
+        StepVerifier.create(transactionService.save(testUtils.getTestTransaction(), "k".repeat(65)))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+
+        verifyNoInteractions(transactionRepository, idempotencyKeyRepository);
     }
 
     @Test
     void updateTest() {
+        passThroughTransaction();
         final Transaction sampleTransaction = testUtils.getTestTransaction();
-        final Transaction existingTransaction = new Transaction(2L, DEPOSIT_TYPE, 1000L, 1L);
+        final Transaction existingTransaction = new Transaction(TRANSACTION_ID, WITHDRAWAL_TYPE, 1L, 400L);
 
-        when(transactionRepository.findById(TRANSACTION_ID))
-                .thenReturn(Mono.just(existingTransaction));
+        stubExisting(existingTransaction);
 
         when(transactionRepository.save(any()))
                 .thenAnswer(inv -> Mono.just(inv.getArgument(0)));
 
+        when(bankAccountRepository.addToBalance(1L, 600L))
+                .thenReturn(Mono.just(1));
+
+        when(typeTotalRepository.add(anyLong(), anyString(), anyLong(), anyLong()))
+                .thenReturn(Mono.empty());
+
         StepVerifier.create(transactionService.update(sampleTransaction))
                 .assertNext(updated -> {
-                    assertEquals(updated.getTransactionId(), updated.getTransactionId());
-                    assertEquals(updated.getType(), updated.getType());
-                    assertEquals(updated.getAmount(), updated.getAmount());
-                    assertEquals(updated.getBankAccountId(), updated.getBankAccountId());
+                    assertEquals(TRANSACTION_ID, updated.getTransactionId());
+                    assertEquals(DEPOSIT_TYPE, updated.getType());
+                    assertEquals(1000L, updated.getAmount());
+                    assertEquals(1L, updated.getBankAccountId());
                 })
                 .verifyComplete();
 
         verify(transactionRepository).findById(TRANSACTION_ID);
+        verify(transactionRepository).findByIdForUpdate(TRANSACTION_ID);
         verify(transactionRepository).save(any());
+        verify(bankAccountRepository).addToBalance(1L, 600L);
+        verifyNoMoreInteractions(bankAccountRepository);
+        verify(typeTotalRepository).add(1L, WITHDRAWAL_TYPE, -400L, -1L);
+        verify(typeTotalRepository).add(1L, DEPOSIT_TYPE, 1000L, 1L);
+        verifyNoMoreInteractions(typeTotalRepository);
+    }
+
+    @Test
+    void updateMovesAmountBetweenAccountsTest() {
+        passThroughTransaction();
+        final Transaction sampleTransaction = testUtils.getTestTransaction();
+        final Transaction existingTransaction = new Transaction(TRANSACTION_ID, DEPOSIT_TYPE, 2L, 400L);
+
+        stubExisting(existingTransaction);
+
+        when(transactionRepository.save(any()))
+                .thenAnswer(inv -> Mono.just(inv.getArgument(0)));
+
+        when(bankAccountRepository.addToBalance(anyLong(), anyLong()))
+                .thenReturn(Mono.just(1));
+
+        when(typeTotalRepository.add(anyLong(), anyString(), anyLong(), anyLong()))
+                .thenReturn(Mono.empty());
+
+        StepVerifier.create(transactionService.update(sampleTransaction))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        final InOrder balances = inOrder(bankAccountRepository);
+        balances.verify(bankAccountRepository).addToBalance(1L, 1000L);
+        balances.verify(bankAccountRepository).addToBalance(2L, -400L);
+        verifyNoMoreInteractions(bankAccountRepository);
+        verify(accountWriteLanes).submit(eq(2L), eq(1L), any());
+        verify(typeTotalRepository).add(2L, DEPOSIT_TYPE, -400L, -1L);
+        verify(typeTotalRepository).add(1L, DEPOSIT_TYPE, 1000L, 1L);
+        verify(eventHub).publish(TransactionEventHub.DELETED, 2L, existingTransaction);
+        verify(eventHub).publish(TransactionEventHub.UPDATED, 1L, existingTransaction);
+    }
+
+    @Test
+    void updateAmountOnlyAdjustsTypeTotalByDifferenceTest() {
+        passThroughTransaction();
+        final Transaction sampleTransaction = testUtils.getTestTransaction();
+        final Transaction existingTransaction = new Transaction(TRANSACTION_ID, DEPOSIT_TYPE, 1L, 400L);
+
+        stubExisting(existingTransaction);
+
+        when(transactionRepository.save(any()))
+                .thenAnswer(inv -> Mono.just(inv.getArgument(0)));
+
+        when(bankAccountRepository.addToBalance(1L, 600L))
+                .thenReturn(Mono.just(1));
+
+        when(typeTotalRepository.add(1L, DEPOSIT_TYPE, 600L, 0L))
+                .thenReturn(Mono.empty());
+
+        StepVerifier.create(transactionService.update(sampleTransaction))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        verify(typeTotalRepository).add(1L, DEPOSIT_TYPE, 600L, 0L);
+        verifyNoMoreInteractions(typeTotalRepository);
     }
 
     @Test
@@ -172,16 +517,23 @@ class TransactionServiceTest {
                 .verify();
 
         verify(transactionRepository, never()).save(any());
+        verifyNoInteractions(bankAccountRepository, typeTotalRepository);
     }
 
     @Test
     void deleteByIdTest() {
+        passThroughTransaction();
         final Transaction sampleTransaction = testUtils.getTestTransaction();
 
-        when(transactionRepository.findById(TRANSACTION_ID))
-                .thenReturn(Mono.just(sampleTransaction));
+        stubExisting(sampleTransaction);
 
-        when(transactionRepository.delete(sampleTransaction))
+        when(transactionRepository.deleteByTransactionId(TRANSACTION_ID))
+                .thenReturn(Mono.just(1));
+
+        when(bankAccountRepository.addToBalance(1L, -1000L))
+                .thenReturn(Mono.just(1));
+
+        when(typeTotalRepository.add(1L, DEPOSIT_TYPE, -1000L, -1L))
                 .thenReturn(Mono.empty());
 
         StepVerifier.create(transactionService.deleteById(TRANSACTION_ID))
@@ -189,13 +541,33 @@ class TransactionServiceTest {
                 .verifyComplete();
 
         verify(transactionRepository).findById(TRANSACTION_ID);
-        verify(transactionRepository).delete(sampleTransaction);
+        verify(transactionRepository).findByIdForUpdate(TRANSACTION_ID);
+        verify(transactionRepository).deleteByTransactionId(TRANSACTION_ID);
+        verify(accountWriteLanes).submit(eq(1L), any());
+        verify(bankAccountRepository).addToBalance(1L, -1000L);
+        verify(typeTotalRepository).add(1L, DEPOSIT_TYPE, -1000L, -1L);
+        verify(eventHub).publish(TransactionEventHub.DELETED, 1L, sampleTransaction);
         verifyNoMoreInteractions(transactionRepository);
     }
 
     @Test
-    void deleteByIdEmptyTest() {
+    void deleteByIdAlreadyDeletedConcurrentlyTest() {
+        passThroughTransaction();
+        stubExisting(testUtils.getTestTransaction());
+
+        when(transactionRepository.deleteByTransactionId(TRANSACTION_ID))
+                .thenReturn(Mono.just(0));
+
+        StepVerifier.create(transactionService.deleteById(TRANSACTION_ID))
+                .expectError(EntityNotFoundException.class)
+                .verify();
+
+        verifyNoInteractions(bankAccountRepository, typeTotalRepository);
+        verify(eventHub, never()).publish(anyString(), any(), any());
+    }
 
+    @Test
+    void deleteByIdEmptyTest() {
         when(transactionRepository.findById(TRANSACTION_ID))
                 .thenReturn(Mono.empty());
 
@@ -204,34 +576,217 @@ class TransactionServiceTest {
                 .verify();
 
         verify(transactionRepository).findById(TRANSACTION_ID);
-        verify(transactionRepository, never()).delete(any());
+        verify(transactionRepository, never()).deleteByTransactionId(anyLong());
         verifyNoMoreInteractions(transactionRepository);
     }
 
+    @Test
+    void transferLocksAccountsInAscendingOrderTest() {
+        when(transactionalOperator.transactional(ArgumentMatchers.<Flux<Object>>any()))
+                .thenAnswer(inv -> inv.getArgument(0));
+        when(bankAccountRepository.findByIdForUpdate(anyLong()))
+                .thenAnswer(inv -> testUtils.getMonoTestBankAccount(inv.getArgument(0)));
+        when(transactionRepository.saveAll(ArgumentMatchers.<Iterable<Transaction>>any()))
+                .thenAnswer(inv -> Flux.fromIterable(inv.<Iterable<Transaction>>getArgument(0)));
+        when(bankAccountRepository.addToBalance(anyLong(), anyLong()))
+                .thenReturn(Mono.just(1));
+        when(typeTotalRepository.add(anyLong(), anyString(), anyLong(), anyLong()))
+                .thenReturn(Mono.empty());
+
+        StepVerifier.create(transactionService.transfer(new TransferRequest(7L, 3L, 250L)))
+                .assertNext(debit -> {
+                    assertEquals(7L, debit.getBankAccountId());
+                    assertEquals(-250L, debit.getAmount());
+                    assertEquals("transfer", debit.getType());
+                })
+                .assertNext(credit -> {
+                    assertEquals(3L, credit.getBankAccountId());
+                    assertEquals(250L, credit.getAmount());
+                })
+                .verifyComplete();
+
+        final InOrder locks = inOrder(bankAccountRepository);
+        locks.verify(bankAccountRepository).findByIdForUpdate(3L);
+        locks.verify(bankAccountRepository).findByIdForUpdate(7L);
+        verify(bankAccountRepository).addToBalance(7L, -250L);
+        verify(bankAccountRepository).addToBalance(3L, 250L);
+        verify(typeTotalRepository).add(7L, "transfer", -250L, 1L);
+        verify(typeTotalRepository).add(3L, "transfer", 250L, 1L);
+    }
+
+    @Test
+    void transferUnknownAccountTest() {
+        when(transactionalOperator.transactional(ArgumentMatchers.<Flux<Object>>any()))
+                .thenAnswer(inv -> inv.getArgument(0));
+        when(bankAccountRepository.findByIdForUpdate(1L))
+                .thenReturn(testUtils.getMonoTestBankAccount(1L));
+        when(bankAccountRepository.findByIdForUpdate(2L))
+                .thenReturn(Mono.empty());
+
+        StepVerifier.create(transactionService.transfer(new TransferRequest(1L, 2L, 250L)))
+                .expectError(EntityNotFoundException.class)
+                .verify();
+
+        verify(transactionRepository, never()).saveAll(ArgumentMatchers.<Iterable<Transaction>>any());
+        verify(bankAccountRepository, never()).addToBalance(anyLong(), anyLong());
+    }
+
+    @Test
+    void transferSameAccountTest() {
+        when(transactionalOperator.transactional(ArgumentMatchers.<Flux<Object>>any()))
+                .thenAnswer(inv -> inv.getArgument(0));
+
+        StepVerifier.create(transactionService.transfer(new TransferRequest(1L, 1L, 250L)))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+
+        verifyNoInteractions(transactionRepository, bankAccountRepository);
+    }
+
+    @Test
+    void transferWrongAmountTest() {
+        when(transactionalOperator.transactional(ArgumentMatchers.<Flux<Object>>any()))
+                .thenAnswer(inv -> inv.getArgument(0));
+
+        StepVerifier.create(transactionService.transfer(new TransferRequest(1L, 2L, 0L)))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+
+        verifyNoInteractions(transactionRepository, bankAccountRepository);
+    }
+
     @Test
     void findAllByBankAccountIdTest() {
-        when(transactionRepository.findAllByBankAccountId(anyLong()))
+        when(transactionRepository.findAllByBankAccountId(2L))
                 .thenReturn(testUtils.createFluxTransactions());
 
-        StepVerifier.create(transactionService.findAllByBankAccountId(anyLong()))
+        StepVerifier.create(transactionService.findAllByBankAccountId(2L, false))
                 .expectNextCount(5)
                 .verifyComplete();
 
-        verify(transactionRepository).findAllByBankAccountId(anyLong());
+        verify(transactionRepository).findAllByBankAccountId(2L);
         verifyNoMoreInteractions(transactionRepository);
+        verifyNoInteractions(archiveRepository);
+    }
+
+    @Test
+    void findAllByBankAccountIdIncludingArchivedTest() {
+        when(transactionRepository.findAllByBankAccountId(2L))
+                .thenReturn(testUtils.createFluxTransactions());
+        when(archiveRepository.findAllByBankAccountId(2L))
+                .thenReturn(testUtils.createFluxTransactionsDeposit().take(2));
+
+        StepVerifier.create(transactionService.findAllByBankAccountId(2L, true))
+                .expectNextCount(7)
+                .verifyComplete();
+
+        verify(transactionRepository).findAllByBankAccountId(2L);
+        verify(archiveRepository).findAllByBankAccountId(2L);
     }
 
     @Test
     void findAllByBankAccountIdEmptyTest() {
-        when(transactionRepository.findAllByBankAccountId(anyLong()))
+        when(transactionRepository.findAllByBankAccountId(2L))
+                .thenReturn(Flux.empty());
+        when(archiveRepository.findAllByBankAccountId(2L))
                 .thenReturn(Flux.empty());
 
-        StepVerifier.create(transactionService.findAllByBankAccountId(anyLong()))
+        StepVerifier.create(transactionService.findAllByBankAccountId(2L, true))
                 .expectError(EntityNotFoundException.class)
                 .verify();
 
-        verify(transactionRepository).findAllByBankAccountId(anyLong());
+        verify(transactionRepository).findAllByBankAccountId(2L);
+        verifyNoMoreInteractions(transactionRepository);
+    }
+
+    @Test
+    void findPageByBankAccountIdFirstPageTest() {
+        when(transactionRepository.findFirstPageByBankAccountId(2L, 3))
+                .thenReturn(testUtils.createFluxTransactions().take(3));
+
+        StepVerifier.create(transactionService.findPageByBankAccountId(2L, 2, null))
+                .assertNext(page -> {
+                    assertEquals(2, page.transactions().size());
+                    final TransactionCursor cursor = TransactionCursor.decode(page.nextCursor());
+                    assertEquals(page.transactions().get(1).getTransactionId(), cursor.transactionId());
+                    assertEquals(page.transactions().get(1).getCreationDate(), cursor.creationDate());
+                })
+                .verifyComplete();
+
+        verify(transactionRepository).findFirstPageByBankAccountId(2L, 3);
         verifyNoMoreInteractions(transactionRepository);
+        verifyNoInteractions(archiveRepository);
+    }
+
+    @Test
+    void findPageByBankAccountIdContinuesIntoArchiveTest() {
+        when(transactionRepository.findFirstPageByBankAccountId(2L, 3))
+                .thenReturn(testUtils.createFluxTransactions().take(1));
+        when(archiveRepository.findFirstPageByBankAccountId(2L, 2))
+                .thenReturn(testUtils.createFluxTransactionsDeposit().skip(3));
+
+        StepVerifier.create(transactionService.findPageByBankAccountId(2L, 2, null))
+                .assertNext(page -> {
+                    assertEquals(2, page.transactions().size());
+                    assertEquals(1L, page.transactions().get(0).getTransactionId());
+                    final TransactionCursor cursor = TransactionCursor.decode(page.nextCursor());
+                    assertEquals(page.transactions().get(1).getTransactionId(), cursor.transactionId());
+                })
+                .verifyComplete();
+
+        verify(archiveRepository).findFirstPageByBankAccountId(2L, 2);
+    }
+
+    @Test
+    void findPageByBankAccountIdNextPageTest() {
+        final LocalDateTime creationDate = LocalDateTime.of(2025, 1, 10, 8, 30);
+        final String cursor = new TransactionCursor(creationDate, 7L).encode();
+
+        when(transactionRepository.findPageByBankAccountIdBefore(2L, creationDate, 7L,
+                TransactionService.DEFAULT_PAGE_SIZE + 1))
+                .thenReturn(testUtils.createFluxTransactions());
+        when(archiveRepository.findPageByBankAccountIdBefore(2L, creationDate, 7L,
+                TransactionService.DEFAULT_PAGE_SIZE - 4))
+                .thenReturn(Flux.empty());
+
+        StepVerifier.create(transactionService.findPageByBankAccountId(2L, null, cursor))
+                .assertNext(page -> {
+                    assertEquals(5, page.transactions().size());
+                    assertNull(page.nextCursor());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void findPageByBankAccountIdCapsPageSizeTest() {
+        when(transactionRepository.findFirstPageByBankAccountId(2L, TransactionService.MAX_PAGE_SIZE + 1))
+                .thenReturn(Flux.empty());
+        when(archiveRepository.findFirstPageByBankAccountId(2L, TransactionService.MAX_PAGE_SIZE + 1))
+                .thenReturn(Flux.empty());
+
+        StepVerifier.create(transactionService.findPageByBankAccountId(2L, 1_000_000, null))
+                .assertNext(page -> assertEquals(0, page.transactions().size()))
+                .verifyComplete();
+
+        verify(transactionRepository).findFirstPageByBankAccountId(2L, TransactionService.MAX_PAGE_SIZE + 1);
+    }
+
+    @Test
+    void findPageByBankAccountIdWrongSizeTest() {
+        StepVerifier.create(transactionService.findPageByBankAccountId(2L, 0, null))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+
+        verifyNoInteractions(transactionRepository);
+    }
+
+    @Test
+    void findPageByBankAccountIdWrongCursorTest() {
+        StepVerifier.create(transactionService.findPageByBankAccountId(2L, 10, "not-a-cursor"))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+
+        verifyNoInteractions(transactionRepository);
     }
 
     @Test
@@ -302,18 +857,75 @@ class TransactionServiceTest {
 
     @Test
     void getResumeByType() {
-        when(transactionRepository.findAllByTypeAndBankAccountId(anyString(), anyLong()))
+        when(typeTotalRepository.findByBankAccountIdAndType(2L, DEPOSIT_TYPE))
+                .thenReturn(Mono.just(new TransactionTypeTotal(2L, DEPOSIT_TYPE, 250_000L, 250L)));
+        when(transactionRepository.findLatestByTypeAndBankAccountId(DEPOSIT_TYPE, 2L, 100))
                 .thenReturn(testUtils.createFluxTransactionsDeposit());
 
         StepVerifier.create(transactionService.getResumeByType(DEPOSIT_TYPE, 2L))
-                .expectNextMatches(totalAmount -> Objects.equals(totalAmount.getTotalAmount(), 3700D) &&
+                .expectNextMatches(totalAmount -> Objects.equals(totalAmount.getTotalAmount(), 250_000L) &&
                         Objects.equals(totalAmount.getTransactions().size(), 5))
                 .verifyComplete();
 
-        verify(transactionRepository).findAllByTypeAndBankAccountId(DEPOSIT_TYPE, 2L);
+        verify(transactionRepository).findLatestByTypeAndBankAccountId(DEPOSIT_TYPE, 2L, 100);
         verifyNoMoreInteractions(transactionRepository);
     }
 
+    @Test
+    void getResumeByTypeWithoutTotalTest() {
+        when(typeTotalRepository.findByBankAccountIdAndType(2L, DEPOSIT_TYPE))
+                .thenReturn(Mono.empty());
+        when(transactionRepository.findLatestByTypeAndBankAccountId(DEPOSIT_TYPE, 2L, 100))
+                .thenReturn(Flux.empty());
+
+        StepVerifier.create(transactionService.getResumeByType(DEPOSIT_TYPE, 2L))
+                .expectNextMatches(totalAmount -> totalAmount.getTotalAmount() == 0L &&
+                        totalAmount.getTransactions().isEmpty())
+                .verifyComplete();
+    }
+
+    @Test
+    void getResumeByTypeQueriesOnceTest() {
+        final AtomicInteger queries = new AtomicInteger();
+
+        when(typeTotalRepository.findByBankAccountIdAndType(2L, DEPOSIT_TYPE))
+                .thenReturn(Mono.just(new TransactionTypeTotal(2L, DEPOSIT_TYPE, 3_700L, 5L))
+                        .doOnSubscribe(subscription -> queries.incrementAndGet()));
+        when(transactionRepository.findLatestByTypeAndBankAccountId(DEPOSIT_TYPE, 2L, 100))
+                .thenReturn(testUtils.createFluxTransactionsDeposit()
+                        .doOnSubscribe(subscription -> queries.incrementAndGet()));
+
+        StepVerifier.create(transactionService.getResumeByType(DEPOSIT_TYPE, 2L))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        assertEquals(2, queries.get());
+    }
+
+    @Test
+    void concurrentGetResumeByTypeSharesOneQueryTest() {
+        final Sinks.One<TransactionTypeTotal> total = Sinks.one();
+        final AtomicInteger queries = new AtomicInteger();
+
+        when(typeTotalRepository.findByBankAccountIdAndType(2L, DEPOSIT_TYPE))
+                .thenReturn(total.asMono().doOnSubscribe(subscription -> queries.incrementAndGet()));
+        when(transactionRepository.findLatestByTypeAndBankAccountId(DEPOSIT_TYPE, 2L, 100))
+                .thenReturn(testUtils.createFluxTransactionsDeposit());
+
+        final Mono<List<TotalAmount>> concurrent = Flux.merge(
+                        transactionService.getResumeByType(DEPOSIT_TYPE, 2L),
+                        transactionService.getResumeByType("DEPOSIT", 2L),
+                        transactionService.getResumeByType(DEPOSIT_TYPE, 2L))
+                .collectList();
+
+        StepVerifier.create(concurrent)
+                .then(() -> total.tryEmitValue(new TransactionTypeTotal(2L, DEPOSIT_TYPE, 3_700L, 5L)))
+                .assertNext(resumes -> resumes.forEach(resume -> assertEquals(3_700L, resume.getTotalAmount())))
+                .verifyComplete();
+
+        assertEquals(1, queries.get());
+    }
+
     @Test
     void getResumeByTypeNullType() {
         StepVerifier.create(transactionService.getResumeByType(null, 2L))
@@ -344,13 +956,53 @@ class TransactionServiceTest {
 
     @Test
     void getFullResume() {
+        when(bankAccountRepository.findBalanceByBankAccountId(2L))
+                .thenReturn(Mono.just(3700L));
+
+        when(transactionRepository.findAllByBankAccountId(2L))
+                .thenReturn(testUtils.createFluxTransactions());
+
+        StepVerifier.create(transactionService.getFullResume(2L))
+                .expectNextMatches(totalAmount -> Objects.equals(totalAmount.getTotalAmount(), 3700L) &&
+                        Objects.equals(totalAmount.getTransactions().size(), 5))
+                .verifyComplete();
+    }
+
+    @Test
+    void getFullResumeUsesStoredBalanceTest() {
+        when(bankAccountRepository.findBalanceByBankAccountId(2L))
+                .thenReturn(Mono.just(250_000L));
+
         when(transactionRepository.findAllByBankAccountId(2L))
                 .thenReturn(testUtils.createFluxTransactions());
 
         StepVerifier.create(transactionService.getFullResume(2L))
-                .expectNextMatches(totalAmount -> Objects.equals(totalAmount.getTotalAmount(), 3700D) &&
+                .expectNextMatches(totalAmount -> Objects.equals(totalAmount.getTotalAmount(), 250_000L) &&
                         Objects.equals(totalAmount.getTransactions().size(), 5))
                 .verifyComplete();
+
+        verify(bankAccountRepository).findBalanceByBankAccountId(2L);
+    }
+
+    @Test
+    void getFullResumeQueriesOnceTest() {
+        final AtomicInteger balanceQueries = new AtomicInteger();
+        final AtomicInteger transactionQueries = new AtomicInteger();
+
+        when(bankAccountRepository.findBalanceByBankAccountId(2L))
+                .thenReturn(Mono.just(3700L)
+                        .doOnSubscribe(subscription -> balanceQueries.incrementAndGet()));
+
+        when(transactionRepository.findAllByBankAccountId(2L))
+                .thenReturn(testUtils.createFluxTransactions()
+                        .doOnSubscribe(subscription -> transactionQueries.incrementAndGet()));
+
+        StepVerifier.create(transactionService.getFullResume(2L))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        assertEquals(1, balanceQueries.get());
+        assertEquals(1, transactionQueries.get());
     }
 
     @Test
@@ -367,4 +1019,65 @@ class TransactionServiceTest {
                 .verify();
     }
 
+    @Test
+    void streamReceivesCommittedWritesOfTheAccountTest() {
+        passThroughTransaction();
+        final Transaction sampleTransaction = testUtils.getTestTransaction();
+        transactionIdIsFree(TRANSACTION_ID);
+
+        when(transactionRepository.insert(sampleTransaction))
+                .thenReturn(Mono.just(sampleTransaction));
+        when(bankAccountRepository.addToBalance(1L, 1000L))
+                .thenReturn(Mono.just(1));
+        when(typeTotalRepository.add(1L, DEPOSIT_TYPE, 1000L, 1L))
+                .thenReturn(Mono.empty());
+
+        StepVerifier.create(transactionService.stream(1L).take(1))
+                .then(() -> transactionService.save(sampleTransaction).block())
+                .assertNext(event -> {
+                    assertEquals(TransactionEventHub.CREATED, event.event());
+                    assertEquals(String.valueOf(TRANSACTION_ID), event.id());
+                    assertEquals(sampleTransaction, event.data());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void streamInvalidAccountIdTest() {
+        StepVerifier.create(transactionService.stream(-1L))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+
+        verifyNoInteractions(eventHub);
+    }
+
+    private void stubExisting(final Transaction transaction) {
+        when(transactionRepository.findById(transaction.getTransactionId()))
+                .thenReturn(Mono.just(transaction));
+        when(transactionRepository.findByIdForUpdate(transaction.getTransactionId()))
+                .thenReturn(Mono.just(transaction));
+    }
+
+    private void transactionIdIsFree(final Long transactionId) {
+        when(transactionRepository.findByIdForUpdate(transactionId))
+                .thenReturn(Mono.empty());
+        when(archiveRepository.findById(transactionId))
+                .thenReturn(Mono.empty());
+    }
+
+    private void stubInsert(final Transaction transaction) {
+        transactionIdIsFree(transaction.getTransactionId());
+        when(transactionRepository.insert(transaction))
+                .thenReturn(Mono.just(transaction));
+        when(bankAccountRepository.addToBalance(transaction.getBankAccountId(), transaction.getAmount()))
+                .thenReturn(Mono.just(1));
+        when(typeTotalRepository.add(
+                transaction.getBankAccountId(), transaction.getType(), transaction.getAmount(), 1L))
+                .thenReturn(Mono.empty());
+    }
+
+    private void passThroughTransaction() {
+        when(transactionalOperator.transactional(ArgumentMatchers.<Mono<Object>>any()))
+                .thenAnswer(inv -> inv.getArgument(0));
+    }
 }
@@ -0,0 +1,23 @@
+package com.springboot.reactivesimplebank.transaction;
+
+import com.springboot.reactivesimplebank.bankAccount.repository.BalanceSnapshotRepository;
+import com.springboot.reactivesimplebank.cache.CacheConfig;
+import com.springboot.reactivesimplebank.transaction.Service.AccountWriteLanes;
+import com.springboot.reactivesimplebank.transaction.Service.TransactionEventHub;
+import com.springboot.reactivesimplebank.transaction.Service.TransactionService;
+import com.springboot.reactivesimplebank.transaction.repository.IdempotencyKeyRepository;
+import com.springboot.reactivesimplebank.transaction.repository.TransactionArchiveRepository;
+import com.springboot.reactivesimplebank.transaction.repository.TransactionTypeTotalRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Import;
+
+/**
+ * Everything a {@code @DataR2dbcTest} needs on top of the repositories to run a real {@link TransactionService}.
+ */
+@TestConfiguration
+@Import({TransactionService.class, TransactionTypeTotalRepository.class, AccountWriteLanes.class,
+        TransactionEventHub.class, IdempotencyKeyRepository.class, TransactionArchiveRepository.class,
+        BalanceSnapshotRepository.class, CacheConfig.class, SimpleMeterRegistry.class})
+public class TransactionServiceTestConfig {
+}
@@ -0,0 +1,126 @@
+package com.springboot.reactivesimplebank.transaction;
+
+import com.springboot.reactivesimplebank.transaction.Service.TransactionEventHub;
+import com.springboot.reactivesimplebank.transaction.model.Transaction;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Holds many idle transaction streams open and reports the retained heap per subscriber and how long one publish
+ * takes to reach all of them. The hub phase subscribes in process; the HTTP phase opens real SSE connections
+ * against the embedded server, so its figure includes both the server and the client side of each connection.
+ * Run with {@code ./gradlew benchmark}.
+ */
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class TransactionStreamBenchmark {
+
+    private static final int HUB_SUBSCRIBERS = 10_000;
+    private static final int HUB_ACCOUNTS = 1_000;
+    private static final int HTTP_CONNECTIONS = 2_000;
+    private static final ParameterizedTypeReference<ServerSentEvent<Transaction>> EVENT_TYPE =
+            new ParameterizedTypeReference<>() {};
+
+    @Autowired
+    private TransactionEventHub eventHub;
+
+    @LocalServerPort
+    private int port;
+
+    @Test
+    void idleSubscribers() throws InterruptedException {
+        hubSubscribers();
+        httpConnections();
+    }
+
+    private void hubSubscribers() throws InterruptedException {
+        final CountDownLatch delivered = new CountDownLatch(HUB_SUBSCRIBERS);
+        final long before = usedHeap();
+        final Disposable.Composite subscriptions = Disposables.composite();
+        for (int i = 0; i < HUB_SUBSCRIBERS; i++) {
+            subscriptions.add(eventHub.subscribe((long) (i % HUB_ACCOUNTS))
+                    .filter(event -> event.data() != null)
+                    .subscribe(event -> delivered.countDown()));
+        }
+        final long perSubscriber = (usedHeap() - before) / HUB_SUBSCRIBERS;
+
+        final long start = System.nanoTime();
+        for (long account = 0; account < HUB_ACCOUNTS; account++) {
+            eventHub.publish(TransactionEventHub.CREATED, account, new Transaction(account, "deposit", account, 1L));
+        }
+        assertTrue(delivered.await(30, TimeUnit.SECONDS));
+        final long fanOutMillis = (System.nanoTime() - start) / 1_000_000;
+        subscriptions.dispose();
+
+        System.out.printf("[benchmark] hub  subscribers=%d accounts=%d heap/subscriber=%d B fan-out=%d ms%n",
+                HUB_SUBSCRIBERS, HUB_ACCOUNTS, perSubscriber, fanOutMillis);
+    }
+
+    private void httpConnections() throws InterruptedException {
+        final ConnectionProvider connections = ConnectionProvider.builder("transaction-stream-benchmark")
+                .maxConnections(HTTP_CONNECTIONS)
+                .pendingAcquireMaxCount(-1)
+                .build();
+        final WebClient webClient = WebClient.builder()
+                .baseUrl("http://localhost:" + port)
+                .clientConnector(new ReactorClientHttpConnector(HttpClient.create(connections)))
+                .build();
+        final CountDownLatch delivered = new CountDownLatch(HTTP_CONNECTIONS);
+        final long before = usedHeap();
+        final Disposable.Composite streams = Disposables.composite();
+        for (int i = 0; i < HTTP_CONNECTIONS; i++) {
+            streams.add(webClient.get()
+                    .uri("/transactions/stream/{bankAccountId}", 1L)
+                    .accept(MediaType.TEXT_EVENT_STREAM)
+                    .retrieve()
+                    .bodyToFlux(EVENT_TYPE)
+                    .filter(event -> event.data() != null)
+                    .subscribe(event -> delivered.countDown()));
+        }
+        final long deadline = System.nanoTime() + Duration.ofSeconds(60).toNanos();
+        while (eventHub.subscriberCount() < HTTP_CONNECTIONS && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+        final int open = eventHub.subscriberCount();
+        final long perConnection = (usedHeap() - before) / Math.max(open, 1);
+
+        final long start = System.nanoTime();
+        eventHub.publish(TransactionEventHub.CREATED, 1L, new Transaction(1L, "deposit", 1L, 1L));
+        final boolean all = delivered.await(60, TimeUnit.SECONDS);
+        final long fanOutMillis = (System.nanoTime() - start) / 1_000_000;
+        streams.dispose();
+        connections.dispose();
+
+        System.out.printf("[benchmark] http connections=%d open=%d heap/connection=%d B fan-out=%d ms delivered=%s%n",
+                HTTP_CONNECTIONS, open, perConnection, fanOutMillis, all);
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        final Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,81 @@
+package com.springboot.reactivesimplebank.transaction;
+
+import com.springboot.reactivesimplebank.bankAccount.model.BankAccount;
+import com.springboot.reactivesimplebank.bankAccount.repository.IBankAccountRepository;
+import com.springboot.reactivesimplebank.dto.transactionDto.TotalAmount;
+import com.springboot.reactivesimplebank.transaction.Service.TransactionService;
+import com.springboot.reactivesimplebank.transaction.model.Transaction;
+import com.springboot.reactivesimplebank.transaction.model.TransactionTypeTotal;
+import com.springboot.reactivesimplebank.transaction.repository.TransactionTypeTotalRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.r2dbc.DataR2dbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataR2dbcTest
+@ActiveProfiles("test")
+@Import(TransactionServiceTestConfig.class)
+class TransactionTypeTotalTest {
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private TransactionTypeTotalRepository typeTotalRepository;
+
+    @Autowired
+    private IBankAccountRepository bankAccountRepository;
+
+    private Long bankAccountId;
+
+    @BeforeEach
+    void setUp() {
+        bankAccountId = bankAccountRepository.save(new BankAccount(null, 1L)).block().getBankAccountId();
+    }
+
+    @Test
+    void resumeByTypeCountsEveryTransactionPastTheDisplayLimit() {
+        Flux.range(1, 150)
+                .concatMap(i -> transactionService.save(new Transaction(null, "deposit", bankAccountId, 10L)))
+                .blockLast();
+        transactionService.save(new Transaction(null, "withdrawal", bankAccountId, -7L)).block();
+
+        final TotalAmount resume = transactionService.getResumeByType("deposit", bankAccountId).block();
+
+        assertEquals(1_500L, resume.getTotalAmount());
+        assertEquals(100, resume.getTransactions().size());
+        StepVerifier.create(typeTotalRepository.findByBankAccountIdAndType(bankAccountId, "deposit"))
+                .expectNext(new TransactionTypeTotal(bankAccountId, "deposit", 1_500L, 150L))
+                .verifyComplete();
+    }
+
+    @Test
+    void updateAndDeleteMoveTheTotalsBetweenTypes() {
+        final Transaction saved = transactionService.save(
+                new Transaction(null, "deposit", bankAccountId, 400L)).block();
+        transactionService.save(new Transaction(null, "deposit", bankAccountId, 100L)).block();
+
+        transactionService.update(new Transaction(saved.getTransactionId(), "withdrawal", bankAccountId, -250L))
+                .block();
+
+        StepVerifier.create(typeTotalRepository.findByBankAccountIdAndType(bankAccountId, "deposit"))
+                .expectNext(new TransactionTypeTotal(bankAccountId, "deposit", 100L, 1L))
+                .verifyComplete();
+        StepVerifier.create(typeTotalRepository.findByBankAccountIdAndType(bankAccountId, "withdrawal"))
+                .expectNext(new TransactionTypeTotal(bankAccountId, "withdrawal", -250L, 1L))
+                .verifyComplete();
+
+        transactionService.deleteById(saved.getTransactionId()).block();
+
+        StepVerifier.create(typeTotalRepository.findByBankAccountIdAndType(bankAccountId, "withdrawal"))
+                .expectNext(new TransactionTypeTotal(bankAccountId, "withdrawal", 0L, 0L))
+                .verifyComplete();
+        assertEquals(100L, transactionService.getResumeByType("deposit", bankAccountId).block().getTotalAmount());
+    }
+}
@@ -0,0 +1,79 @@
+package com.springboot.reactivesimplebank.transaction;
+
+import com.springboot.reactivesimplebank.bankAccount.model.BankAccount;
+import com.springboot.reactivesimplebank.bankAccount.repository.IBankAccountRepository;
+import com.springboot.reactivesimplebank.dto.transactionDto.TransferRequest;
+import com.springboot.reactivesimplebank.transaction.Service.TransactionService;
+import com.springboot.reactivesimplebank.transaction.repository.ITransactionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.r2dbc.DataR2dbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataR2dbcTest
+@ActiveProfiles("test")
+@Import(TransactionServiceTestConfig.class)
+class TransferConcurrencyTest {
+
+    private static final int ACCOUNTS = 8;
+    private static final int TRANSFERS = 2_000;
+    private static final int CONCURRENCY = 32;
+    private static final long INITIAL_BALANCE = 1_000_000L;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private IBankAccountRepository bankAccountRepository;
+
+    @Autowired
+    private ITransactionRepository transactionRepository;
+
+    private List<Long> accountIds;
+
+    @BeforeEach
+    void setUp() {
+        transactionRepository.deleteAll().then(bankAccountRepository.deleteAll()).block();
+        accountIds = Flux.range(0, ACCOUNTS)
+                .concatMap(i -> bankAccountRepository.save(new BankAccount(null, 1L)))
+                .concatMap(account -> bankAccountRepository
+                        .addToBalance(account.getBankAccountId(), INITIAL_BALANCE)
+                        .thenReturn(account.getBankAccountId()))
+                .collectList()
+                .block();
+    }
+
+    @Test
+    void parallelOpposingTransfersConserveMoney() {
+        final Long legs = Flux.range(0, TRANSFERS)
+                .flatMap(i -> transactionService.transfer(randomTransfer(i)), CONCURRENCY)
+                .count()
+                .block();
+
+        assertEquals(2L * TRANSFERS, legs);
+        assertEquals(2L * TRANSFERS, transactionRepository.count().block());
+        assertEquals(ACCOUNTS * INITIAL_BALANCE, bankAccountRepository.findAll()
+                .map(BankAccount::getBalance)
+                .reduce(0L, Long::sum)
+                .block());
+        assertEquals(0L, transactionRepository.findAll()
+                .map(transaction -> transaction.getAmount())
+                .reduce(0L, Long::sum)
+                .block());
+    }
+
+    private TransferRequest randomTransfer(final int i) {
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+        final int source = random.nextInt(ACCOUNTS);
+        final int target = (source + 1 + random.nextInt(ACCOUNTS - 1)) % ACCOUNTS;
+        return new TransferRequest(accountIds.get(source), accountIds.get(target), 1L + (i % 100));
+    }
+}
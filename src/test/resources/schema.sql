@@ -1,7 +0,0 @@
-create table if not exists costumer (
-    costumerId bigint auto_increment,
-    name varchar(50) not null,
-    phoneNumber varchar(15) not null,
-    emailAddress varchar(50) not null,
-    primary key(costumerId)
-);
\ No newline at end of file